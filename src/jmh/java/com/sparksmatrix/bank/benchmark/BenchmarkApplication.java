@@ -0,0 +1,66 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.BankApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the application against its own in-memory H2 database for benchmarks. Limits are
+ * raised and request rate limiting is off, so that repeated invocations against the same
+ * accounts are never rejected.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, Map<String, Object> overrides) {
+        return new SpringApplicationBuilder(BankApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties(databaseName, overrides))
+                .run();
+    }
+
+    /**
+     * Starts the HTTP server on a random port, on the servlet stack or, with {@code reactive}, on
+     * WebFlux and R2DBC.
+     */
+    static ConfigurableApplicationContext startServer(String databaseName, boolean reactive, Map<String, Object> overrides) {
+        Map<String, Object> properties = properties(databaseName, overrides);
+        properties.put("server.port", 0);
+        properties.put("spring.r2dbc.url", "r2dbc:h2:mem:///" + databaseName);
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BankApplication.class)
+                .web(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET)
+                .properties(properties);
+        if (reactive) {
+            builder.profiles("reactive");
+        }
+        return builder.run();
+    }
+
+    private static Map<String, Object> properties(String databaseName, Map<String, Object> overrides) {
+        String url = "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", url);
+        properties.put("spring.flyway.url", url);
+        properties.put("spring.datasource.hikari.maximum-pool-size", 32);
+        properties.put("spring.h2.console.enabled", false);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("deposit.daily-max-amount", Integer.MAX_VALUE);
+        properties.put("deposit.transaction-max-amount", Integer.MAX_VALUE);
+        properties.put("deposit.daily-max-frequency", Integer.MAX_VALUE);
+        properties.put("withdrawal.daily-max-amount", Integer.MAX_VALUE);
+        properties.put("withdrawal.transaction-max-amount", Integer.MAX_VALUE);
+        properties.put("withdrawal.daily-max-frequency", Integer.MAX_VALUE);
+        properties.put("rate-limit.enabled", false);
+        properties.putAll(overrides);
+        return properties;
+    }
+}
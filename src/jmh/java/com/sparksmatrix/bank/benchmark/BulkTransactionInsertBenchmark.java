@@ -0,0 +1,74 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput, in rows per second, for bulk transaction loads. {@code batchSize=1} sends
+ * one INSERT per row, which is what the old identity ids forced; {@code batchSize=50} sends them
+ * as JDBC batches using ids handed out by the pooled-lo sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkTransactionInsertBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "000100000002";
+    private static final int ROWS = 1000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("bulk-insert-" + batchSize, Map.of(
+                "spring.jpa.properties.hibernate.jdbc.batch_size", batchSize));
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        context.getBean(AccountService.class)
+                .createAccount(new AccountCreateDto("Bulk Loads", ACCOUNT_NUMBER));
+        account = context.getBean(AccountRepository.class).findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bulkInsert() {
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            transactions.add(Transaction.builder()
+                    .account(account)
+                    .amount(BigDecimal.ONE)
+                    .type(TransactionType.DEPOSIT)
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.batchInsert(transactions));
+    }
+}
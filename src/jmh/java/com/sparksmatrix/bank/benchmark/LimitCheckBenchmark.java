@@ -0,0 +1,71 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.utils.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The daily limit check and balance update a deposit or withdrawal performs, once with the
+ * BigDecimal arithmetic the ledger used before and once with {@link Money}. Run it with the GC
+ * profiler ({@code -PjmhProfilers=gc}) to compare {@code gc.alloc.rate.norm}, the bytes allocated
+ * per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitCheckBenchmark {
+
+    private static final int DAILY_MAX_AMOUNT = 150_000;
+
+    private static final int REQUESTS = 1024;
+
+    //as loaded from the DECIMAL(15,2) columns
+    private BigDecimal balance;
+    private BigDecimal sumToday;
+
+    private int[] amounts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        balance = new BigDecimal("250000.00");
+        sumToday = new BigDecimal("12500.00");
+        amounts = new int[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            amounts[i] = ThreadLocalRandom.current().nextInt(1, 40_000);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        int amount = amounts[next++ & (REQUESTS - 1)];
+        BigDecimal totalSumAfterTransaction = sumToday.add(BigDecimal.valueOf(amount));
+        if (totalSumAfterTransaction.compareTo(BigDecimal.valueOf(DAILY_MAX_AMOUNT)) >= 0) {
+            return null;
+        }
+        BigDecimal decimalAmount = BigDecimal.valueOf(amount);
+        if (balance.compareTo(decimalAmount) < 0) {
+            return null;
+        }
+        return balance.subtract(decimalAmount);
+    }
+
+    @Benchmark
+    public long money() {
+        Money amount = Money.ofMajor(amounts[next++ & (REQUESTS - 1)]);
+        if (!Money.of(sumToday).plus(amount).isLessThan(Money.ofMajor(DAILY_MAX_AMOUNT))) {
+            return -1;
+        }
+        Money opening = Money.of(balance);
+        if (opening.isLessThan(amount)) {
+            return -1;
+        }
+        return opening.minus(amount).minorUnits();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.RetryingTransactionService;
+import com.sparksmatrix.bank.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent deposits into a single account under optimistic and pessimistic locking. Each
+ * invocation releases {@code writersPerAccount} deposits at once and waits for all of them;
+ * the {@code deposits}, {@code retries} and {@code failures} secondary results give the
+ * per-second rates, so retries / deposits is the retry rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LockingStrategyBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "000100000001";
+
+    @Param({"OPTIMISTIC", "PESSIMISTIC"})
+    private String lockingStrategy;
+
+    @Param({"1", "4", "16", "64"})
+    private int writersPerAccount;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private RetryingTransactionService retryingTransactionService;
+    private ExecutorService writers;
+    private TransactionRequestDto deposit;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long deposits;
+        public long retries;
+        public long failures;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("locking-" + lockingStrategy + "-" + writersPerAccount, Map.of(
+                "account.locking-strategy", lockingStrategy,
+                "account.retry.max-attempts", 10));
+        transactionService = context.getBean(TransactionService.class);
+        retryingTransactionService = context.getBean(RetryingTransactionService.class);
+        context.getBean(AccountService.class)
+                .createAccount(new AccountCreateDto("Merchant Collections", ACCOUNT_NUMBER));
+
+        writers = Executors.newFixedThreadPool(writersPerAccount);
+        deposit = new TransactionRequestDto(ACCOUNT_NUMBER, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        writers.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void concurrentDeposits(Counters counters) {
+        long retriesBefore = retryingTransactionService.getRetryCount();
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[writersPerAccount];
+        for (int i = 0; i < writersPerAccount; i++) {
+            inFlight[i] = CompletableFuture.runAsync(() -> transactionService.deposit(deposit), writers);
+        }
+        for (CompletableFuture<?> future : inFlight) {
+            try {
+                future.join();
+                counters.deposits++;
+            } catch (RuntimeException ex) {
+                counters.failures++;
+            }
+        }
+        counters.retries += retryingTransactionService.getRetryCount() - retriesBefore;
+    }
+}
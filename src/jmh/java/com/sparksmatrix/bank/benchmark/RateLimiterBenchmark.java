@@ -0,0 +1,56 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.ratelimit.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission overhead of the request rate limiter from 8 threads, in nanoseconds per request:
+ * everyone on one key ({@code hotKey}), keys spread over 10k clients ({@code spreadKeys}), and
+ * requests to a bucket that is always empty ({@code rejected}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter admitting;
+    private RateLimiter exhausted;
+    private String[] clients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //never runs out within a trial
+        admitting = new RateLimiter(Integer.MAX_VALUE, 1e9, 100_000, Duration.ofMinutes(10));
+        exhausted = new RateLimiter(1, 1e-6, 100_000, Duration.ofMinutes(10));
+        exhausted.tryAcquire("client-0");
+        clients = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return admitting.tryAcquire("client-0");
+    }
+
+    @Benchmark
+    public long spreadKeys() {
+        return admitting.tryAcquire(clients[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public long rejected() {
+        return exhausted.tryAcquire("client-0");
+    }
+}
@@ -0,0 +1,123 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sparksmatrix.bank.dto.AccountBalanceResponseDto;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.BatchTransactionResultDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the {@link ResponseWrapper} bodies returned by the deposit/withdraw, balance
+ * and batch endpoints, and deserialization of the deposit/withdraw request, using an ObjectMapper
+ * configured the way Spring Boot configures its own. {@code format} selects the JSON, CBOR or
+ * Smile encoding; the encoded size of each body is printed at the start of every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ResponseWrapperSerializationBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private ResponseWrapper<?> transactionResponse;
+    private ResponseWrapper<?> balanceResponse;
+    private ResponseWrapper<?> batchResponse;
+    private byte[] depositRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = switch (format) {
+            case "cbor" -> json.copyWith(new CBORFactory());
+            case "smile" -> json.copyWith(new SmileFactory());
+            default -> json;
+        };
+
+        LocalDateTime now = LocalDateTime.now();
+        Account account = Account.builder()
+                .id(1L)
+                .name("John Doe")
+                .accountNumber("00045678912")
+                .balance(BigDecimal.valueOf(15000))
+                .version(3L)
+                .build();
+        account.setCreatedAt(now);
+        account.setUpdatedAt(now);
+        Transaction transaction = Transaction.builder()
+                .id(2L)
+                .account(account)
+                .amount(BigDecimal.valueOf(5000))
+                .type(TransactionType.DEPOSIT)
+                .build();
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+
+        transactionResponse = ResponseWrapper.builder()
+                .code(200)
+                .message("Deposit successful")
+                .data(transaction).build();
+        balanceResponse = ResponseWrapper.builder()
+                .code(200)
+                .message("Balance fetched successfully")
+                .data(AccountBalanceResponseDto.builder().balance(BigDecimal.valueOf(15000)).build()).build();
+
+        List<BatchTransactionResultDto> results = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            BatchTransactionItemDto item = new BatchTransactionItemDto(String.format("0004%08d", i), 500 + i,
+                    i % 2 == 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL);
+            results.add(BatchTransactionResultDto.accepted(i, item, 1000L + i));
+        }
+        batchResponse = ResponseWrapper.builder()
+                .code(200)
+                .message("Batch processed")
+                .data(results).build();
+        depositRequest = objectMapper.writeValueAsBytes(new TransactionRequestDto("00045678912", 5000));
+
+        System.out.printf("%n%s bytes: transaction %d, balance %d, batch of %d %d, deposit request %d%n", format,
+                transactionResponse().length, balanceResponse().length, BATCH_SIZE, batchResponse().length,
+                depositRequest.length);
+    }
+
+    @Benchmark
+    public byte[] transactionResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionResponse);
+    }
+
+    @Benchmark
+    public byte[] balanceResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(balanceResponse);
+    }
+
+    @Benchmark
+    public byte[] batchResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(batchResponse);
+    }
+
+    @Benchmark
+    public TransactionRequestDto depositRequest() throws IOException {
+        return objectMapper.readValue(depositRequest, TransactionRequestDto.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.sparksmatrix.bank.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from JVM start to the first served {@code /api/account} request, and the resident set size
+ * at that point, for the extracted boot jar started plainly ({@code baseline}) and with the
+ * {@code startup} profile, Spring AOT and the AppCDS archive ({@code optimized}).
+ * <p>
+ * Not a JMH benchmark, since every sample is a new JVM. Run it with
+ * {@code ./gradlew startupBenchmark}, which builds the jar and the archive first. Both modes share
+ * an H2 file database that a warm-up run migrates, as a running deployment would have, so the
+ * optimized runs take the validate-only Flyway path. RSS is read from {@code /proc} and reported
+ * as -1 elsewhere.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(120);
+
+    private StartupBenchmark() {
+    }
+
+    /**
+     * @param args the extracted jar, the AppCDS archive and optionally the number of runs per mode
+     */
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path cdsArchive = Path.of(args[1]);
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Path database = Files.createTempDirectory("startup-benchmark").resolve("bank");
+        List<String> databaseArgs = List.of(
+                "--spring.datasource.url=jdbc:h2:file:" + database,
+                "--spring.flyway.url=jdbc:h2:file:" + database,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+
+        List<String> baseline = List.of();
+        List<String> optimized = List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true");
+        List<String> optimizedArgs = List.of("--spring.profiles.active=startup");
+
+        //migrates the database; not counted
+        start(jar, baseline, databaseArgs, List.of());
+
+        Sample[] baselineSamples = new Sample[runs];
+        Sample[] optimizedSamples = new Sample[runs];
+        for (int i = 0; i < runs; i++) {
+            //interleaved so that both modes see the same machine conditions
+            baselineSamples[i] = start(jar, baseline, databaseArgs, List.of());
+            optimizedSamples[i] = start(jar, optimized, databaseArgs, optimizedArgs);
+        }
+
+        System.out.printf("%-10s %22s %22s %16s%n", "mode", "first request ms p50", "first request ms min", "RSS MB p50");
+        report("baseline", baselineSamples);
+        report("optimized", optimizedSamples);
+    }
+
+    private static Sample start(Path jar, List<String> jvmOptions, List<String> databaseArgs, List<String> appArgs)
+            throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmOptions);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(databaseArgs);
+        command.addAll(appArgs);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/account/balance/000000000000"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + process.exitValue());
+                }
+                if (System.nanoTime() - started > START_TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("No response within " + START_TIMEOUT);
+                }
+                try {
+                    //any status will do: the request went through the whole stack
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (IOException ex) {
+                    Thread.sleep(5);
+                }
+            }
+            long firstRequestNanos = System.nanoTime() - started;
+            return new Sample(TimeUnit.NANOSECONDS.toMillis(firstRequestNanos), residentSetKb(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            client.close();
+        }
+    }
+
+    private static long residentSetKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ex) {
+            //not Linux
+        }
+        return -1;
+    }
+
+    private static void report(String mode, Sample[] samples) {
+        long[] millis = Arrays.stream(samples).mapToLong(Sample::firstRequestMillis).sorted().toArray();
+        long[] rss = Arrays.stream(samples).mapToLong(Sample::residentSetKb).sorted().toArray();
+        long medianRss = rss[rss.length / 2];
+        System.out.printf("%-10s %22d %22d %16d%n", mode, millis[millis.length / 2], millis[0],
+                medianRss < 0 ? -1 : medianRss / 1024);
+    }
+
+    private record Sample(long firstRequestMillis, long residentSetKb) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.sparksmatrix.bank.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a half-open created_at window with the CAST(created_at AS DATE) filter that the daily
+ * limit sums used before they moved to account_daily_usage, as the transactions table grows. Both
+ * run against the Flyway schema, so the composite index is present for both variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionDayWindowBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    private static final String DAY_WINDOW_SUM = "SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+            "WHERE account_id = ? AND type = ? AND created_at >= ? AND created_at < ?";
+
+    private static final String CAST_DATE_SUM = "SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+            "WHERE account_id = ? AND type = ? AND CAST(created_at AS DATE) = CURRENT_DATE";
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement dayWindowSum;
+    private PreparedStatement castDateSum;
+    private long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:day-window-" + rows + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:flyway")
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO accounts (name, account_number, balance) " +
+                    "SELECT 'Account ' || X, CAST(X AS VARCHAR), 0 FROM SYSTEM_RANGE(1, " + ACCOUNTS + ")");
+            // Spread the ledger over a year so that one day holds roughly 1/365 of the rows
+            statement.execute("INSERT INTO transactions (account_id, amount, type, created_at, updated_at) " +
+                    "SELECT MOD(X, " + ACCOUNTS + ") + 1, MOD(X, 500) + 1, " +
+                    "CASE WHEN MOD(X, 2) = 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END, " +
+                    "DATEADD('SECOND', -MOD(X * 7919, 31536000), CURRENT_TIMESTAMP), CURRENT_TIMESTAMP " +
+                    "FROM SYSTEM_RANGE(1, " + rows + ")");
+            statement.execute("ANALYZE");
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT MIN(id) FROM accounts")) {
+            resultSet.next();
+            accountId = resultSet.getLong(1);
+        }
+
+        LocalDate today = LocalDate.now();
+        dayWindowSum = connection.prepareStatement(DAY_WINDOW_SUM);
+        dayWindowSum.setLong(1, accountId);
+        dayWindowSum.setString(2, "DEPOSIT");
+        dayWindowSum.setTimestamp(3, Timestamp.valueOf(today.atStartOfDay()));
+        dayWindowSum.setTimestamp(4, Timestamp.valueOf(today.plusDays(1).atStartOfDay()));
+
+        castDateSum = connection.prepareStatement(CAST_DATE_SUM);
+        castDateSum.setLong(1, accountId);
+        castDateSum.setString(2, "DEPOSIT");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public BigDecimal dayWindowRange() throws SQLException {
+        return sum(dayWindowSum);
+    }
+
+    @Benchmark
+    public BigDecimal castToDate() throws SQLException {
+        return sum(castDateSum);
+    }
+
+    private static BigDecimal sum(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getBigDecimal(1);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposit, withdrawal and balance lookups through the service beans the controller uses, against
+ * an embedded H2. With {@code accounts=1} every thread contends on the same account row; with
+ * {@code accounts=1000} each call picks a random account. Throughput mode gives operations per
+ * second and sample mode gives the latency distribution, including p0.99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class TransactionHotPathBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(1_000_000_000_000L);
+
+    @Param({"1", "1000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private AccountService accountService;
+    private String[] accountNumbers;
+    private TransactionRequestDto[] requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("hot-path-" + accounts, Map.of(
+                "account.retry.max-attempts", 100));
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        accountNumbers = new String[accounts];
+        requests = new TransactionRequestDto[accounts];
+        for (int i = 0; i < accounts; i++) {
+            String accountNumber = String.format("0002%08d", i);
+            accountService.createAccount(new AccountCreateDto("Hot Path " + i, accountNumber));
+            //fund the accounts up front so withdrawals never run out during the run
+            transactionTemplate.executeWithoutResult(
+                    status -> accountRepository.creditBalance(accountNumber, OPENING_BALANCE));
+            accountNumbers[i] = accountNumber;
+            requests[i] = new TransactionRequestDto(accountNumber, 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private int nextAccount() {
+        return accounts == 1 ? 0 : ThreadLocalRandom.current().nextInt(accounts);
+    }
+
+    @Benchmark
+    public Object deposit() {
+        return transactionService.deposit(requests[nextAccount()]);
+    }
+
+    @Benchmark
+    public Object withdraw() {
+        return transactionService.withdraw(requests[nextAccount()]);
+    }
+
+    @Benchmark
+    public Object getAccountBalance() {
+        return accountService.getAccountBalance(accountNumbers[nextAccount()]);
+    }
+}
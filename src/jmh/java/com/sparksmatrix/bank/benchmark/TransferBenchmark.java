@@ -0,0 +1,73 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers between random pairs of accounts from 8 threads against an embedded H2. With
+ * {@code accounts=2} every call is A to B or B to A, the worst case for lock ordering; with
+ * {@code accounts=1000} pairs rarely overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(1_000_000_000_000L);
+
+    @Param({"2", "1000"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("transfer-" + accounts, Map.of(
+                "account.retry.max-attempts", 100));
+        transactionService = context.getBean(TransactionService.class);
+        AccountService accountService = context.getBean(AccountService.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            String accountNumber = String.format("0004%08d", i);
+            accountService.createAccount(new AccountCreateDto("Transfer " + i, accountNumber));
+            //fund the accounts up front so transfers never run out during the run
+            transactionTemplate.executeWithoutResult(
+                    status -> accountRepository.creditBalance(accountNumber, OPENING_BALANCE));
+            accountNumbers[i] = accountNumber;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        return transactionService.transfer(new TransferRequestDto(accountNumbers[from], accountNumbers[to], 1));
+    }
+}
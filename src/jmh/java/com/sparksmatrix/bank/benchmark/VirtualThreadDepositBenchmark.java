@@ -0,0 +1,133 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of {@code POST /api/account/deposit} with Tomcat on its platform worker pool and on
+ * virtual threads ({@code spring.threads.virtual.enabled}, as set by the {@code virtual-threads}
+ * profile). Each invocation fires 10k deposits at once over 1000 accounts and waits for all of
+ * them, so the score is the time to drain one burst.
+ * <p>
+ * At the end of each trial the benchmark prints the failed requests (503s from the connection
+ * gate included), the deposits per second and the p50, p99 and max latency of the requests of
+ * the last measured burst. The fork traces pinned virtual threads, so any pinning shows up as a
+ * stack trace in the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class VirtualThreadDepositBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private List<HttpRequest> requests;
+
+    private final AtomicLong failedRequests = new AtomicLong();
+    private long[] lastLatencies = new long[0];
+    private long lastBurstNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startServer("virtual-thread-deposit-" + threads, false, Map.of(
+                "spring.threads.virtual.enabled", "virtual".equals(threads),
+                "server.tomcat.accept-count", CLIENTS,
+                "server.tomcat.max-connections", CLIENTS * 2));
+        AccountService accountService = context.getBean(AccountService.class);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        URI deposit = URI.create("http://localhost:" + port + "/api/account/deposit");
+
+        requests = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = String.format("0004%08d", i);
+            accountService.createAccount(new AccountCreateDto("Virtual Thread " + i, accountNumber));
+            requests.add(HttpRequest.newBuilder(deposit)
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":1}"))
+                    .build());
+        }
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long[] latencies = lastLatencies.clone();
+        Arrays.sort(latencies);
+        System.out.printf("%n%s threads, %d concurrent deposits: %d failed, %d deposits/s, p50 %d ms, p99 %d ms, max %d ms%n",
+                threads, CLIENTS, failedRequests.get(),
+                CLIENTS * TimeUnit.SECONDS.toNanos(1) / Math.max(lastBurstNanos, 1),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        long[] latencies = new long[CLIENTS];
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> responses = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            int index = i;
+            long sent = System.nanoTime();
+            responses.add(client.sendAsync(requests.get(i % ACCOUNTS), HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        return response.statusCode();
+                    }));
+        }
+
+        int succeeded = 0;
+        for (CompletableFuture<Integer> response : responses) {
+            try {
+                if (response.join() == 200) {
+                    succeeded++;
+                    continue;
+                }
+            } catch (RuntimeException ex) {
+                //refused or timed out
+            }
+            failedRequests.incrementAndGet();
+        }
+        lastBurstNanos = System.nanoTime() - start;
+        lastLatencies = latencies;
+        return succeeded;
+    }
+
+    private static long percentile(long[] sortedLatencies, double quantile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedLatencies[Math.max(index, 0)]);
+    }
+}
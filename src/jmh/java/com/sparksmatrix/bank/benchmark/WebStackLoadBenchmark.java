@@ -0,0 +1,124 @@
+package com.sparksmatrix.bank.benchmark;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test of the balance endpoint over HTTP, on the servlet stack and on the {@code reactive}
+ * profile. Each invocation fires {@code concurrency} requests at once and waits for all of them,
+ * so the score is the time to drain one burst. Past Tomcat's 200 worker threads the servlet stack
+ * queues requests, while Netty keeps them all in flight on a handful of event loop threads.
+ * <p>
+ * At the end of each trial the benchmark prints the failed requests, the most server threads seen
+ * during a burst and the heap in use per in-flight request. Run it with {@code -PjmhProfilers=gc}
+ * for the allocation per burst as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebStackLoadBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "000300000000";
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"200", "1000", "4000"})
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+    private String serverThreadPrefix;
+
+    private final AtomicLong failedRequests = new AtomicLong();
+    private int peakServerThreads;
+    private long peakHeapPerRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean reactive = "reactive".equals(stack);
+        context = BenchmarkApplication.startServer("web-stack-" + stack + "-" + concurrency, reactive, Map.of(
+                "server.tomcat.accept-count", concurrency,
+                "server.tomcat.max-connections", concurrency * 2));
+        context.getBean(AccountService.class).createAccount(new AccountCreateDto("Web Stack", ACCOUNT_NUMBER));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        serverThreadPrefix = reactive ? "reactor-http" : "http-nio";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/account/balance/" + ACCOUNT_NUMBER))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%s stack, %d concurrent requests: %d failed, at most %d server threads, %d heap bytes per in-flight request%n",
+                stack, concurrency, failedRequests.get(), peakServerThreads, peakHeapPerRequest);
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        //sampled while the burst is in flight
+        peakServerThreads = Math.max(peakServerThreads, countThreads(serverThreadPrefix));
+        peakHeapPerRequest = Math.max(peakHeapPerRequest,
+                (memory.getHeapMemoryUsage().getUsed() - heapBefore) / concurrency);
+
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.join().statusCode() == 200) {
+                    succeeded++;
+                    continue;
+                }
+            } catch (RuntimeException ex) {
+                //refused or timed out: the stack hit its ceiling
+            }
+            failedRequests.incrementAndGet();
+        }
+        return succeeded;
+    }
+
+    private static int countThreads(String prefix) {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
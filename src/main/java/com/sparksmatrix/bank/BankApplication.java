@@ -2,11 +2,15 @@ package com.sparksmatrix.bank;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 //@SpringBootApplication
-@SpringBootApplication(exclude = {SecurityAutoConfiguration.class})
+//R2DBC is only used through DatabaseClient in the reactive profile, see ReactiveConfig
+@SpringBootApplication(exclude = {SecurityAutoConfiguration.class, R2dbcRepositoriesAutoConfiguration.class,
+		R2dbcTransactionManagerAutoConfiguration.class})
 //@EnableJpaAuditing
 public class BankApplication {
 
@@ -0,0 +1,119 @@
+package com.sparksmatrix.bank.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded cache of account number to balance for balance reads. Writers update it after their
+ * transaction commits, so a rolled back balance change is never visible. Each entry carries the
+ * account version it was read at and an update never replaces a newer version, so commits that
+ * finish out of order cannot leave an older balance behind. Entries expire after
+ * {@code balance-cache.expire-after-write}, which bounds staleness from writes made outside
+ * this application.
+ * <p>
+ * Writes are also remembered for {@code replica.read-your-writes-window}, for read-your-writes
+ * routing. That record is kept apart from the balances, so a balance evicted for size does not
+ * make a recent write look old.
+ */
+@Component
+public class BalanceCache {
+
+    private static final String CACHE_NAME = "balances";
+
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final Cache<String, CachedBalance> cache;
+
+    //only bounded by time: holds the accounts written within the window, however many they are
+    private final Cache<String, Long> recentWrites;
+
+    public BalanceCache(@Value("${balance-cache.maximum-size:100000}") long maximumSize,
+                        @Value("${balance-cache.expire-after-write:PT5M}") Duration expireAfterWrite,
+                        @Value("${replica.read-your-writes-window:PT5S}") Duration recentWriteWindow,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(recentWriteWindow)
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME));
+    }
+
+    public Optional<BigDecimal> get(String accountNumber) {
+        CachedBalance cached = cache.getIfPresent(accountNumber);
+        return cached == null ? Optional.empty() : Optional.of(cached.balance());
+    }
+
+    /**
+     * Caches a balance read from the database. A read carries no version, so it never replaces
+     * an entry put by a writer.
+     */
+    public void putIfAbsent(String accountNumber, BigDecimal balance) {
+        cache.asMap().putIfAbsent(accountNumber, new CachedBalance(balance, UNKNOWN_VERSION));
+    }
+
+    /**
+     * Caches the balance written at the given account version, unless a newer version is already cached.
+     */
+    public void put(String accountNumber, BigDecimal balance, long version) {
+        recentWrites.put(accountNumber, System.nanoTime());
+        cache.asMap().merge(accountNumber, new CachedBalance(balance, version),
+                (current, updated) -> updated.version() >= current.version() ? updated : current);
+    }
+
+    /**
+     * Like {@link #put}, but deferred until the current transaction commits. Without an active
+     * transaction the balance is cached immediately.
+     */
+    public void putAfterCommit(String accountNumber, BigDecimal balance, long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(accountNumber, balance, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(accountNumber, balance, version);
+            }
+        });
+    }
+
+    /**
+     * @return whether a writer of this instance cached a balance for the account within the given
+     * window, which is only known up to {@code replica.read-your-writes-window}; does not count as a
+     * cache hit or miss
+     */
+    public boolean isWrittenWithin(String accountNumber, Duration window) {
+        Long writtenAtNanos = recentWrites.getIfPresent(accountNumber);
+        return writtenAtNanos != null && System.nanoTime() - writtenAtNanos < window.toNanos();
+    }
+
+    public void evict(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    /**
+     * @return hit, miss and eviction counts since startup
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private record CachedBalance(BigDecimal balance, long version) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.sparksmatrix.bank.configuration;
+
+import com.sparksmatrix.bank.ratelimit.EndpointRateLimiter;
+import com.sparksmatrix.bank.ratelimit.RateLimitInterceptor;
+import com.sparksmatrix.bank.ratelimit.RateLimitProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the request rate limits in front of the API controllers, see {@link RateLimitProperties}.
+ */
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private EndpointRateLimiter endpointRateLimiter;
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(endpointRateLimiter, rateLimitProperties.getClientHeader(),
+                        rateLimitProperties.getTrustedProxies()))
+                .addPathPatterns("/api/**");
+    }
+}
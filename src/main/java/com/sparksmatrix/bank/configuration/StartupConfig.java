@@ -0,0 +1,56 @@
+package com.sparksmatrix.bank.configuration;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Wiring for the {@code startup} profile, which trims the work done between JVM start and the
+ * first served request. The AOT build processes the application with this profile, see README.
+ */
+@Configuration
+@Profile("startup")
+public class StartupConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /**
+     * The OpenAPI document and Swagger UI are built on their first request instead of at startup.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocPostProcessor() {
+        return beanFactory -> {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String origin = definition instanceof AnnotatedBeanDefinition annotated
+                        && annotated.getFactoryMethodMetadata() != null
+                        ? annotated.getFactoryMethodMetadata().getDeclaringClassName()
+                        : definition.getBeanClassName();
+                if (origin != null && origin.startsWith(SPRINGDOC_PACKAGE)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    /**
+     * Instances joining a running deployment find the schema already migrated, so they only
+     * validate it, without locking the schema history table. A database with migrations pending,
+     * such as the in-memory default or one that a new release adds migrations to, is migrated,
+     * which validates the applied migrations first.
+     */
+    @Bean
+    public FlywayMigrationStrategy validateOnlyMigrationStrategy() {
+        return flyway -> {
+            if (flyway.info().pending().length > 0) {
+                flyway.migrate();
+            } else {
+                flyway.validate();
+            }
+        };
+    }
+}
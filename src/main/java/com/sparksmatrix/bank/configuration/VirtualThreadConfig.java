@@ -0,0 +1,37 @@
+package com.sparksmatrix.bank.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Wiring for {@code spring.threads.virtual.enabled=true} (the {@code virtual-threads} profile),
+ * where Tomcat runs every request on its own virtual thread. With no worker pool left to cap
+ * concurrency, the Hikari pool is wrapped in a {@link GatedDataSource} sized to its
+ * {@code maximum-pool-size}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionGatePostProcessor(
+            @Value("${jdbc.gate.max-waiting:10000}") int maxWaiting,
+            @Value("${jdbc.gate.acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new GatedDataSource(hikari, hikari.getMaximumPoolSize(), maxWaiting, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
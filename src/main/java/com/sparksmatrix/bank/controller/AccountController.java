@@ -1,46 +1,158 @@
 package com.sparksmatrix.bank.controller;
 
 import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
 import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.enums.StatementFormat;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.ratelimit.EndpointRateLimiter;
+import com.sparksmatrix.bank.ratelimit.RateLimited;
 import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.IdempotencyService;
+import com.sparksmatrix.bank.service.LedgerReplayService;
+import com.sparksmatrix.bank.service.StatementService;
+import com.sparksmatrix.bank.service.TransactionHistoryService;
 import com.sparksmatrix.bank.service.TransactionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@Profile("!reactive")
 @RestController
 @CrossOrigin
 @RequestMapping("/api/account")
 public class AccountController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private AccountService accountService;
 
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionHistoryService transactionHistoryService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @Autowired
+    private LedgerReplayService ledgerReplayService;
+
+    @Autowired
+    private EndpointRateLimiter endpointRateLimiter;
+
+    @RateLimited("create")
     @PostMapping
     public ResponseEntity createAccount(@Valid @RequestBody AccountCreateDto accountCreateDto) {
         var response = accountService.createAccount(accountCreateDto);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
+    @RateLimited("balance")
     @GetMapping("/balance/{accountNumber}")
-    public ResponseEntity getAccountBalance(@PathVariable String accountNumber) {
-        var response = accountService.getAccountBalance(accountNumber);
+    public ResponseEntity getAccountBalance(@PathVariable String accountNumber,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        var response = at == null
+                ? accountService.getAccountBalance(accountNumber)
+                : ledgerReplayService.getBalanceAt(accountNumber, at);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
-    @PostMapping("/deposit")
-    public ResponseEntity depositFunds(@Valid @RequestBody TransactionRequestDto transactionRequestDto) {
-        var response = transactionService.deposit(transactionRequestDto);
+    @RateLimited("transactions")
+    @GetMapping("/{accountNumber}/transactions")
+    public ResponseEntity getTransactions(@PathVariable String accountNumber,
+                                          @RequestParam(required = false) TransactionType type,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        var response = transactionHistoryService.getTransactions(accountNumber, type, from, to, cursor, limit);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 
+    @RateLimited("statement")
+    @GetMapping("/{accountNumber}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(@PathVariable String accountNumber,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                 @RequestParam(defaultValue = "csv") String format) {
+        StatementFormat statementFormat = StatementFormat.fromValue(format);
+        StreamingResponseBody body = statementService.exportStatement(accountNumber, from, to, statementFormat);
+        String filename = "statement-" + accountNumber + "-" + from + "-" + to + "." + statementFormat.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    @RateLimited("deposit")
+    @PostMapping("/deposit")
+    public CompletableFuture<ResponseEntity> depositFunds(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                    @Valid @RequestBody TransactionRequestDto transactionRequestDto) {
+        endpointRateLimiter.checkAccount("deposit", transactionRequestDto.getAccountNumber());
+        var response = idempotencyKey == null
+                ? transactionService.depositAsync(transactionRequestDto)
+                : idempotencyService.execute(idempotencyKey, TransactionType.DEPOSIT, transactionRequestDto,
+                        () -> transactionService.depositAsync(transactionRequestDto));
+        return response.thenApply(result -> ResponseEntity.status(result.getCode()).body(result));
+    }
+
+    @RateLimited("withdraw")
     @PostMapping("/withdraw")
-    public ResponseEntity withdrawFunds(@Valid @RequestBody TransactionRequestDto transactionRequestDto) {
-        var response = transactionService.withdraw(transactionRequestDto);
+    public CompletableFuture<ResponseEntity> withdrawFunds(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                    @Valid @RequestBody TransactionRequestDto transactionRequestDto) {
+        endpointRateLimiter.checkAccount("withdraw", transactionRequestDto.getAccountNumber());
+        var response = idempotencyKey == null
+                ? transactionService.withdrawAsync(transactionRequestDto)
+                : idempotencyService.execute(idempotencyKey, TransactionType.WITHDRAWAL, transactionRequestDto,
+                        () -> transactionService.withdrawAsync(transactionRequestDto));
+        return response.thenApply(result -> ResponseEntity.status(result.getCode()).body(result));
+    }
+
+    @RateLimited("transfer")
+    @PostMapping("/transfer")
+    public ResponseEntity transferFunds(@Valid @RequestBody TransferRequestDto transferRequestDto) {
+        endpointRateLimiter.checkAccount("transfer", transferRequestDto.getFromAccountNumber());
+        var response = transactionService.transfer(transferRequestDto);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+
+    @RateLimited("batch")
+    @PostMapping("/transactions/batch")
+    public ResponseEntity postTransactionBatch(@RequestBody List<BatchTransactionItemDto> transactionItems) {
+        //each item spends its account's deposit or withdrawal tokens, as it would when sent on its own,
+        //and a refused batch spends none
+        if (transactionItems != null) {
+            Map<String, Map<String, Integer>> requests = new HashMap<>();
+            for (BatchTransactionItemDto item : transactionItems) {
+                if (item != null && item.getType() != null && item.getAccountNumber() != null) {
+                    requests.computeIfAbsent(item.getType() == TransactionType.DEPOSIT ? "deposit" : "withdraw",
+                            endpoint -> new HashMap<>()).merge(item.getAccountNumber(), 1, Integer::sum);
+                }
+            }
+            endpointRateLimiter.checkAccounts(requests);
+        }
+        var response = transactionService.postBatch(transactionItems);
         return ResponseEntity.status(response.getCode()).body(response);
     }
 }
@@ -0,0 +1,68 @@
+package com.sparksmatrix.bank.controller;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.service.ReactiveLedgerService;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link AccountController}'s account, balance, deposit and withdrawal endpoints on WebFlux, active
+ * with the {@code reactive} profile in its place. This is a subset of the servlet API: history,
+ * statements, point in time balances, transfers and batches are not served, and deposits and
+ * withdrawals reject an {@code Idempotency-Key} header rather than ignore it.
+ */
+@Profile("reactive")
+@RestController
+@CrossOrigin
+@RequestMapping("/api/account")
+public class ReactiveAccountController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    @Autowired
+    private ReactiveLedgerService reactiveLedgerService;
+
+    @PostMapping
+    public Mono<ResponseEntity<ResponseWrapper>> createAccount(@Valid @RequestBody AccountCreateDto accountCreateDto) {
+        return reactiveLedgerService.createAccount(accountCreateDto).map(ReactiveAccountController::toResponseEntity);
+    }
+
+    @GetMapping("/balance/{accountNumber}")
+    public Mono<ResponseEntity<ResponseWrapper>> getAccountBalance(@PathVariable String accountNumber) {
+        return reactiveLedgerService.getAccountBalance(accountNumber).map(ReactiveAccountController::toResponseEntity);
+    }
+
+    @PostMapping("/deposit")
+    public Mono<ResponseEntity<ResponseWrapper>> depositFunds(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                              @Valid @RequestBody TransactionRequestDto transactionRequestDto) {
+        if (idempotencyKey != null) {
+            return idempotencyNotSupported();
+        }
+        return reactiveLedgerService.deposit(transactionRequestDto).map(ReactiveAccountController::toResponseEntity);
+    }
+
+    @PostMapping("/withdraw")
+    public Mono<ResponseEntity<ResponseWrapper>> withdrawFunds(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                               @Valid @RequestBody TransactionRequestDto transactionRequestDto) {
+        if (idempotencyKey != null) {
+            return idempotencyNotSupported();
+        }
+        return reactiveLedgerService.withdraw(transactionRequestDto).map(ReactiveAccountController::toResponseEntity);
+    }
+
+    //a retry would post again, so a client relying on the key must not be answered as if it were honoured
+    private static Mono<ResponseEntity<ResponseWrapper>> idempotencyNotSupported() {
+        return Mono.error(new BadRequestException("The Idempotency-Key header is not supported by this deployment."));
+    }
+
+    private static ResponseEntity<ResponseWrapper> toResponseEntity(ResponseWrapper response) {
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sparksmatrix.bank.controller;
+
+import com.sparksmatrix.bank.ratelimit.RateLimited;
+import com.sparksmatrix.bank.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Profile("!reactive")
+@RestController
+@CrossOrigin
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @RateLimited("reports")
+    @GetMapping("/daily")
+    public ResponseEntity getDailyReport(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                         @RequestParam(required = false) Long afterAccountId,
+                                         @RequestParam(required = false) Integer limit) {
+        var response = reportService.getDailyReport(date, afterAccountId, limit);
+        return ResponseEntity.status(response.getCode()).body(response);
+    }
+}
@@ -0,0 +1,169 @@
+package com.sparksmatrix.bank.datasource;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
+
+/**
+ * Stand-in for database replication in the {@code replica-local} profile, where the primary and
+ * the replica are two in-memory H2 databases. Migrates the replica on startup and then copies
+ * rows to it every {@code replica.local.interval}: all of {@code accounts}, the
+ * {@code transactions} and {@code balance_snapshots} created since the previous copy, the
+ * {@code transactions_archive} rows archived since then and the daily rollups written since then,
+ * each less {@code replica.local.margin} for rows that were committed late. Rows are upserted by
+ * primary key. The only deletes copied are those of archived transactions.
+ * <p>
+ * The heartbeat is read from the primary before the rows and written to the replica after them,
+ * so a heartbeat on the replica means that everything committed before it was copied.
+ */
+@Slf4j
+@Component
+@Profile("replica-local")
+public class LocalReplicator {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Value("${replica.datasource.url}")
+    private String url;
+
+    @Value("${replica.datasource.username:}")
+    private String username;
+
+    @Value("${replica.datasource.password:}")
+    private String password;
+
+    @Value("${spring.flyway.locations:classpath:db/migration}")
+    private String[] locations;
+
+    @Value("${replica.local.margin:PT1M}")
+    private Duration margin;
+
+    private LocalDateTime copiedUpTo;
+
+    @PostConstruct
+    public void migrate() {
+        Flyway.configure().dataSource(url, username, password).locations(locations).load().migrate();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.local.interval:PT1S}")
+    public void replicate() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try (Connection source = primaryDataSource.getConnection();
+             Connection target = DriverManager.getConnection(url, username, password)) {
+            target.setAutoCommit(false);
+            Long heartbeat = readHeartbeat(source);
+
+            copy(source, target, "accounts", "");
+            if (copiedUpTo == null) {
+                copy(source, target, "transactions", "");
+                copy(source, target, "balance_snapshots", "");
+                copy(source, target, "transactions_archive", "");
+                copyByKey(source, target, "daily_account_summary", "business_date, account_id", "");
+                copyByKey(source, target, "daily_bank_summary", "business_date", "");
+                removeArchived(target, "");
+            } else {
+                Timestamp since = Timestamp.valueOf(copiedUpTo.minus(margin));
+                copy(source, target, "transactions", " WHERE created_at >= ?", since);
+                copy(source, target, "balance_snapshots", " WHERE created_at >= ?", since);
+                copy(source, target, "transactions_archive", " WHERE archived_at >= ?", since);
+                copyByKey(source, target, "daily_account_summary", "business_date, account_id",
+                        " WHERE rolled_up_at >= ?", since);
+                copyByKey(source, target, "daily_bank_summary", "business_date", " WHERE rolled_up_at >= ?", since);
+                removeArchived(target, " WHERE archived_at >= ?", since);
+            }
+
+            if (heartbeat != null) {
+                try (PreparedStatement update = target.prepareStatement(
+                        "UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1")) {
+                    update.setLong(1, heartbeat);
+                    update.executeUpdate();
+                }
+            }
+            target.commit();
+            copiedUpTo = startedAt;
+        } catch (SQLException ex) {
+            log.warn("Local replication failed, retrying on the next run: {}", ex.getMessage());
+        }
+    }
+
+    private static Long readHeartbeat(Connection source) throws SQLException {
+        try (PreparedStatement select = source.prepareStatement("SELECT beat_millis FROM replica_heartbeat WHERE id = 1");
+             ResultSet row = select.executeQuery()) {
+            return row.next() ? row.getLong(1) : null;
+        }
+    }
+
+    private static void removeArchived(Connection target, String where, Object... parameters) throws SQLException {
+        try (PreparedStatement delete = target.prepareStatement(
+                "DELETE FROM transactions WHERE id IN (SELECT id FROM transactions_archive" + where + ")")) {
+            for (int i = 0; i < parameters.length; i++) {
+                delete.setObject(i + 1, parameters[i]);
+            }
+            delete.executeUpdate();
+        }
+    }
+
+    private static void copy(Connection source, Connection target, String table, String where, Object... parameters)
+            throws SQLException {
+        copyByKey(source, target, table, "id", where, parameters);
+    }
+
+    private static void copyByKey(Connection source, Connection target, String table, String key, String where,
+                                  Object... parameters) throws SQLException {
+        try (PreparedStatement select = source.prepareStatement("SELECT * FROM " + table + where)) {
+            for (int i = 0; i < parameters.length; i++) {
+                select.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet rows = select.executeQuery()) {
+                ResultSetMetaData metaData = rows.getMetaData();
+                int columns = metaData.getColumnCount();
+                StringJoiner names = new StringJoiner(", ");
+                StringJoiner values = new StringJoiner(", ");
+                for (int i = 1; i <= columns; i++) {
+                    names.add(metaData.getColumnName(i));
+                    values.add("?");
+                }
+
+                try (PreparedStatement merge = target.prepareStatement(
+                        "MERGE INTO " + table + " (" + names + ") KEY (" + key + ") VALUES (" + values + ")")) {
+                    int pending = 0;
+                    while (rows.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            merge.setObject(i, rows.getObject(i));
+                        }
+                        merge.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            merge.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        merge.executeBatch();
+                    }
+                }
+            }
+        }
+    }
+}
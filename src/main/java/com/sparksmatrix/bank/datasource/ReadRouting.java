@@ -0,0 +1,62 @@
+package com.sparksmatrix.bank.datasource;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes for {@link ReplicaReadDataSource}. Reads of an account that this instance
+ * wrote within {@code replica.read-your-writes-window} run on the primary, so a client sees its
+ * own deposit straight away even while the replica is behind. Without a replica configured the
+ * reads run as they are.
+ * <p>
+ * Writes are only known to the instance that made them. A client whose reads land on another
+ * instance can see data up to {@code replica.max-staleness} old, so clients that need their own
+ * writes must keep reading from the instance they wrote through.
+ */
+@Component
+public class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+
+    private final BalanceCache balanceCache;
+
+    private final Duration readYourWritesWindow;
+
+    public ReadRouting(BalanceCache balanceCache,
+                       @Value("${replica.read-your-writes-window:PT5S}") Duration readYourWritesWindow) {
+        this.balanceCache = balanceCache;
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Runs a read of the account's data, on the primary if the account was written recently.
+     * The connection is chosen when the read runs its first statement, so this must wrap the
+     * statements rather than the transaction.
+     */
+    public <T> T forAccount(String accountNumber, Supplier<T> read) {
+        if (PRIMARY_REQUESTED.get() != null || !balanceCache.isWrittenWithin(accountNumber, readYourWritesWindow)) {
+            return read.get();
+        }
+        PRIMARY_REQUESTED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUESTED.remove();
+        }
+    }
+
+    public void forAccount(String accountNumber, Runnable read) {
+        forAccount(accountNumber, () -> {
+            read.run();
+            return null;
+        });
+    }
+
+    static boolean isPrimaryRequested() {
+        return PRIMARY_REQUESTED.get() != null;
+    }
+}
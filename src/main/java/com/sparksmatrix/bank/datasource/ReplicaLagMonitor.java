@@ -0,0 +1,80 @@
+package com.sparksmatrix.bank.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Measures how far the replica is behind the primary. Every {@code replica.heartbeat-interval}
+ * it writes the current time to {@code replica_heartbeat} on the primary and reads back the time
+ * the replica has. The measured lag therefore includes up to one heartbeat interval, and it is
+ * unknown until the replica has a first heartbeat or after a measurement fails.
+ * <p>
+ * Instances compare their own clock to heartbeats written by any instance, so clock skew between
+ * instances adds to or hides lag.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String WRITE_BEAT = "UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1";
+
+    private static final String READ_BEAT = "SELECT beat_millis FROM replica_heartbeat WHERE id = 1";
+
+    private static final Measurement UNKNOWN = new Measurement(-1, 0);
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private volatile Measurement measurement = UNKNOWN;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("replica.lag", this, ReplicaLagMonitor::lagMillis)
+                .description("Replica lag measured by the last heartbeat, NaN while unknown")
+                .baseUnit("milliseconds")
+                .register(registry));
+    }
+
+    @Scheduled(fixedDelayString = "${replica.heartbeat-interval:PT1S}")
+    public void beat() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update(WRITE_BEAT, now);
+            Long replicated = replica.queryForObject(READ_BEAT, Long.class);
+            //the seeded 0 means no heartbeat has reached the replica yet
+            measurement = replicated == null || replicated == 0
+                    ? UNKNOWN
+                    : new Measurement(Math.max(0, now - replicated), now);
+        } catch (DataAccessException ex) {
+            measurement = UNKNOWN;
+            log.warn("Could not measure replica lag: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @return whether the replica is known to be at most {@code staleness} behind, counting the
+     * time since the last measurement as further lag
+     */
+    public boolean isWithin(Duration staleness) {
+        Measurement current = measurement;
+        return current != UNKNOWN
+                && current.lagMillis() + (System.currentTimeMillis() - current.measuredAtMillis()) <= staleness.toMillis();
+    }
+
+    private double lagMillis() {
+        Measurement current = measurement;
+        return current == UNKNOWN ? Double.NaN : current.lagMillis();
+    }
+
+    private record Measurement(long lagMillis, long measuredAtMillis) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.sparksmatrix.bank.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * The read-only side of the routing {@code LazyConnectionDataSourceProxy}. Hands out replica
+ * connections, except for reads that {@link ReadRouting} sent to the primary and while the
+ * replica is not known to be within {@code replica.max-staleness} of the primary.
+ */
+public class ReplicaReadDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final Duration maxStaleness;
+
+    public ReplicaReadDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor, Duration maxStaleness) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.maxStaleness = maxStaleness;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    DataSource target() {
+        if (ReadRouting.isPrimaryRequested() || !lagMonitor.isWithin(maxStaleness)) {
+            return primary;
+        }
+        return replica;
+    }
+}
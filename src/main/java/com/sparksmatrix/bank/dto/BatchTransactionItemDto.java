@@ -0,0 +1,28 @@
+package com.sparksmatrix.bank.dto;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionItemDto {
+
+    @NotNull(message = "Please provide the account number")
+    @NotEmpty(message = "Please provide the account number")
+    private String accountNumber;
+
+    @NotNull(message = "Please provide amount")
+    @Min(value = 1, message = "Amount must be greater than 0")
+    private int amount;
+
+    @NotNull(message = "Please provide the transaction type")
+    private TransactionType type;
+}
@@ -0,0 +1,50 @@
+package com.sparksmatrix.bank.dto;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionResultDto {
+    private int index;
+    private String accountNumber;
+    private TransactionType type;
+    private int amount;
+    private int code;
+    private String message;
+    private Long transactionId;
+
+    public static BatchTransactionResultDto accepted(int index, BatchTransactionItemDto item, Long transactionId) {
+        return BatchTransactionResultDto.builder()
+                .index(index)
+                .accountNumber(item.getAccountNumber())
+                .type(item.getType())
+                .amount(item.getAmount())
+                .code(HttpStatus.OK.value())
+                .message(item.getType() == TransactionType.DEPOSIT ? "Deposit successful" : "Withdrawal successful")
+                .transactionId(transactionId)
+                .build();
+    }
+
+    /**
+     * @param item the rejected item, or null for a null entry in the batch
+     */
+    public static BatchTransactionResultDto rejected(int index, BatchTransactionItemDto item, HttpStatus status, String message) {
+        BatchTransactionResultDtoBuilder result = BatchTransactionResultDto.builder()
+                .index(index)
+                .code(status.value())
+                .message(message);
+        if (item != null) {
+            result.accountNumber(item.getAccountNumber())
+                    .type(item.getType())
+                    .amount(item.getAmount());
+        }
+        return result.build();
+    }
+}
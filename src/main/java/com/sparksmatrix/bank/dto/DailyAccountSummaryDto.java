@@ -0,0 +1,22 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyAccountSummaryDto {
+    private Long accountId;
+    private String accountNumber;
+    private int depositCount;
+    private BigDecimal depositSum;
+    private int withdrawalCount;
+    private BigDecimal withdrawalSum;
+    private BigDecimal closingBalance;
+}
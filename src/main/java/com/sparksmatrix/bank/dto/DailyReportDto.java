@@ -0,0 +1,39 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyReportDto {
+    private LocalDate date;
+
+    /**
+     * Number of accounts with transactions on the day, each of which has an entry in {@code accounts}.
+     */
+    private int activeAccounts;
+    private long depositCount;
+    private BigDecimal depositSum;
+    private long withdrawalCount;
+    private BigDecimal withdrawalSum;
+
+    /**
+     * Sum of the closing balances of all accounts, including those without transactions on the day.
+     */
+    private BigDecimal closingBalance;
+
+    private List<DailyAccountSummaryDto> accounts;
+
+    /**
+     * Pass as {@code afterAccountId} to fetch the next page of accounts; null on the last page.
+     */
+    private Long nextAfterAccountId;
+}
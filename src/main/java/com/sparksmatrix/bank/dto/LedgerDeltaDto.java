@@ -0,0 +1,18 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The number of ledger entries in a range and their net effect on the balance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDeltaDto {
+    private Long entries;
+    private BigDecimal amount;
+}
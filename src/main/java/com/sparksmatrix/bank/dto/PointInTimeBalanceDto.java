@@ -0,0 +1,19 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class PointInTimeBalanceDto {
+    private BigDecimal balance;
+    private LocalDateTime at;
+
+    /**
+     * Number of transactions replayed on top of the nearest snapshot.
+     */
+    private long replayedEntries;
+}
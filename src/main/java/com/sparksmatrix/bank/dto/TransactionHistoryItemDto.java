@@ -0,0 +1,21 @@
+package com.sparksmatrix.bank.dto;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryItemDto {
+    private Long id;
+    private TransactionType type;
+    private BigDecimal amount;
+    private LocalDateTime createdAt;
+}
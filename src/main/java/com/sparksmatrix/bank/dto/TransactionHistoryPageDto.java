@@ -0,0 +1,21 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryPageDto {
+    private List<TransactionHistoryItemDto> items;
+
+    /**
+     * Pass as {@code cursor} to fetch the next page; null on the last page.
+     */
+    private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.sparksmatrix.bank.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -21,4 +22,15 @@ public class TransactionRequestDto {
     @NotNull(message = "Please provide amount")
     @Min(value = 1, message = "Amount must be greater than 0")
     private int amount;
+
+    /**
+     * Taken from the Idempotency-Key header, never from the body.
+     */
+    @JsonIgnore
+    private String idempotencyKey;
+
+    public TransactionRequestDto(String accountNumber, int amount) {
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+    }
 }
@@ -0,0 +1,28 @@
+package com.sparksmatrix.bank.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferRequestDto {
+
+    @NotNull(message = "Please provide the source account number")
+    @NotEmpty(message = "Please provide the source account number")
+    private String fromAccountNumber;
+
+    @NotNull(message = "Please provide the destination account number")
+    @NotEmpty(message = "Please provide the destination account number")
+    private String toAccountNumber;
+
+    @NotNull(message = "Please provide amount")
+    @Min(value = 1, message = "Amount must be greater than 0")
+    private int amount;
+}
@@ -0,0 +1,19 @@
+package com.sparksmatrix.bank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransferResponseDto {
+    private String transferReference;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private int amount;
+    private Long withdrawalTransactionId;
+    private Long depositTransactionId;
+}
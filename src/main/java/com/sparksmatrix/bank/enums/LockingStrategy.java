@@ -0,0 +1,14 @@
+package com.sparksmatrix.bank.enums;
+
+public enum LockingStrategy {
+
+    /**
+     * Read the account without locking and claim its version before writing; conflicts are retried.
+     */
+    OPTIMISTIC,
+
+    /**
+     * Lock the account row with SELECT ... FOR UPDATE for the whole transaction.
+     */
+    PESSIMISTIC
+}
@@ -0,0 +1,29 @@
+package com.sparksmatrix.bank.enums;
+
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import lombok.Getter;
+
+@Getter
+public enum StatementFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    CBOR("application/cbor-seq", "cbor");
+
+    private final String mediaType;
+
+    private final String fileExtension;
+
+    StatementFormat(String mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public static StatementFormat fromValue(String value) {
+        for (StatementFormat format : values()) {
+            if (format.fileExtension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported statement format. Use csv, ndjson or cbor.");
+    }
+}
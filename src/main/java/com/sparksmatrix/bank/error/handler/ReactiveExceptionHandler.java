@@ -0,0 +1,78 @@
+package com.sparksmatrix.bank.error.handler;
+
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.error.exception.EntityNotFoundException;
+import com.sparksmatrix.bank.utils.AppConstants;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+
+/**
+ * WebFlux counterpart of {@link RestExceptionHandler} for the {@code reactive} profile. Errors are
+ * reported in the same {@link ResponseWrapper} shape.
+ */
+@Slf4j
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+	@ExceptionHandler(WebExchangeBindException.class)
+	protected ResponseEntity<ResponseWrapper> handleValidation(WebExchangeBindException ex) {
+		List<String> errors = ex.getFieldErrors().stream()
+				.map(FieldError::getDefaultMessage)
+				.toList();
+		return buildResponseEntity(HttpStatus.BAD_REQUEST, "Validation error", errors);
+	}
+
+	@ExceptionHandler(ServerWebInputException.class)
+	protected ResponseEntity<ResponseWrapper> handleInput(ServerWebInputException ex) {
+		return buildResponseEntity(HttpStatus.BAD_REQUEST, "Malformed JSON request", ex.getReason());
+	}
+
+	@ExceptionHandler(BadRequestException.class)
+	protected ResponseEntity<ResponseWrapper> handleBadRequests(BadRequestException ex) {
+		return buildResponseEntity(HttpStatus.BAD_REQUEST, ex.getMessage(), null);
+	}
+
+	@ExceptionHandler(EntityNotFoundException.class)
+	protected ResponseEntity<ResponseWrapper> handleEntityNotFound(EntityNotFoundException ex) {
+		return buildResponseEntity(HttpStatus.NOT_FOUND, "Entity not found", ex.getMessage());
+	}
+
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	protected ResponseEntity<ResponseWrapper> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+		return buildResponseEntity(HttpStatus.CONFLICT, "The account is busy, please try again", ex.getMessage());
+	}
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	protected ResponseEntity<ResponseWrapper> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+		return buildResponseEntity(HttpStatus.CONFLICT, "Database error", ex.getMostSpecificCause().getMessage());
+	}
+
+	@ExceptionHandler(Exception.class)
+	protected ResponseEntity<ResponseWrapper> handle(Exception ex) {
+		log.error("Unhandled error", ex);
+		return buildResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR,
+				AppConstants.ServerResponses.INTERNAL_SERVER_ERROR, ex.getMessage());
+	}
+
+	private ResponseEntity<ResponseWrapper> buildResponseEntity(HttpStatus status, String message, Object data) {
+		ResponseWrapper response = ResponseWrapper.builder().code(status.value())
+				.message(message).data(data).build();
+		return ResponseEntity.status(status).body(response);
+	}
+}
@@ -10,13 +10,17 @@ import java.util.List;
 import com.sparksmatrix.bank.error.exception.BadRequestException;
 import com.sparksmatrix.bank.error.exception.EntityNotFoundException;
 import com.sparksmatrix.bank.error.exception.PersistenceException;
+import com.sparksmatrix.bank.error.exception.TooManyRequestsException;
 import com.sparksmatrix.bank.error.payload.ApiError;
 import com.sparksmatrix.bank.utils.AppConstants;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -24,6 +28,7 @@ import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -39,6 +44,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
+@Profile("!reactive")
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @RestControllerAdvice
 public class RestExceptionHandler extends ResponseEntityExceptionHandler {
@@ -236,6 +242,50 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
 		return buildResponseEntity(apiError);
 	}
 
+	/**
+	 * Handle ConcurrencyFailureException. Triggered when a locking conflict on an
+	 * account persists after all retries.
+	 *
+	 * @param ex the ConcurrencyFailureException
+	 * @return the ApiError object
+	 */
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	protected ResponseEntity<Object> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+		return buildResponseEntity(new ApiError(HttpStatus.CONFLICT,
+				"The account is busy, please try again", ex));
+	}
+
+	/**
+	 * Handle TooManyRequestsException. Triggered when a client or account has used
+	 * up its requests to an endpoint; Retry-After tells it when to try again.
+	 *
+	 * @param ex the TooManyRequestsException
+	 * @return the ApiError object
+	 */
+	@ExceptionHandler(TooManyRequestsException.class)
+	protected ResponseEntity<Object> handleTooManyRequests(TooManyRequestsException ex) {
+		long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+		ResponseWrapper response = ResponseWrapper.builder().code(HttpStatus.TOO_MANY_REQUESTS.value())
+				.message("Too many requests, please try again later").build();
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+				.body(response);
+	}
+
+	/**
+	 * Handle CannotCreateTransactionException and DataAccessResourceFailureException.
+	 * Triggered when no database connection could be obtained, e.g. when the
+	 * connection gate is full or timed out.
+	 *
+	 * @param ex the exception
+	 * @return the ApiError object
+	 */
+	@ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+	protected ResponseEntity<Object> handleConnectionUnavailable(Exception ex) {
+		return buildResponseEntity(new ApiError(HttpStatus.SERVICE_UNAVAILABLE,
+				"The service is busy, please try again", ex));
+	}
+
 	/**
 	 * Handle DataIntegrityViolationException, inspects the cause for different DB
 	 * causes.
@@ -0,0 +1,109 @@
+package com.sparksmatrix.bank.journal;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.utils.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * One accepted deposit or withdrawal, as stored in a {@link LedgerJournal} slot of {@link #SIZE}
+ * bytes:
+ * <pre>
+ *   0  sequence        long
+ *   8  account id      long
+ *  16  amount          long, minor units
+ *  24  balance after   long, minor units
+ *  32  usage date      int, epoch day
+ *  36  type            byte, {@link TransactionType} ordinal
+ *  37  key length      byte, unsigned; 0 without an idempotency key
+ *  38  key             UTF-8, up to 192 bytes, zero padded
+ * 232  accepted at     long, microseconds since 1970-01-01T00:00 of the JVM-zone local date-time
+ * 252  checksum        int, CRC32C of bytes 0 to 251
+ * </pre>
+ * A slot only holds a record if it carries the expected sequence and a matching checksum, so a
+ * zeroed slot or one torn by a crash mid-write reads as the end of the journal.
+ */
+public record JournalRecord(long accountId, TransactionType type, Money amount, Money balanceAfter,
+                            LocalDate usageDate, LocalDateTime acceptedAt, String idempotencyKey) {
+
+    public static final int SIZE = 256;
+
+    //64 chars, the longest key IdempotencyService accepts, are at most 192 bytes of UTF-8
+    private static final int MAX_KEY_BYTES = 192;
+
+    private static final int SEQUENCE = 0;
+    private static final int ACCOUNT_ID = 8;
+    private static final int AMOUNT = 16;
+    private static final int BALANCE_AFTER = 24;
+    private static final int USAGE_DATE = 32;
+    private static final int TYPE = 36;
+    private static final int KEY_LENGTH = 37;
+    private static final int KEY = 38;
+    private static final int ACCEPTED_AT = 232;
+    private static final int CHECKSUM = SIZE - Integer.BYTES;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final byte[] ZEROS = new byte[CHECKSUM - KEY];
+
+    void write(ByteBuffer buffer, int offset, long sequence) {
+        byte[] key = idempotencyKey == null ? new byte[0] : idempotencyKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Idempotency key longer than " + MAX_KEY_BYTES + " bytes");
+        }
+        buffer.putLong(offset + SEQUENCE, sequence);
+        buffer.putLong(offset + ACCOUNT_ID, accountId);
+        buffer.putLong(offset + AMOUNT, amount.minorUnits());
+        buffer.putLong(offset + BALANCE_AFTER, balanceAfter.minorUnits());
+        buffer.putInt(offset + USAGE_DATE, (int) usageDate.toEpochDay());
+        buffer.put(offset + TYPE, (byte) type.ordinal());
+        buffer.put(offset + KEY_LENGTH, (byte) key.length);
+        buffer.put(offset + KEY, key);
+        buffer.put(offset + KEY + key.length, ZEROS, 0, CHECKSUM - KEY - key.length);
+        buffer.putLong(offset + ACCEPTED_AT, toMicros(acceptedAt));
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+    }
+
+    static JournalRecord read(ByteBuffer buffer, int offset) {
+        int keyLength = Byte.toUnsignedInt(buffer.get(offset + KEY_LENGTH));
+        String key = null;
+        if (keyLength > 0) {
+            byte[] bytes = new byte[keyLength];
+            buffer.get(offset + KEY, bytes);
+            key = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new JournalRecord(
+                buffer.getLong(offset + ACCOUNT_ID),
+                TYPES[buffer.get(offset + TYPE)],
+                new Money(buffer.getLong(offset + AMOUNT)),
+                new Money(buffer.getLong(offset + BALANCE_AFTER)),
+                LocalDate.ofEpochDay(buffer.getInt(offset + USAGE_DATE)),
+                fromMicros(buffer.getLong(offset + ACCEPTED_AT)),
+                key);
+    }
+
+    static boolean isPresent(ByteBuffer buffer, int offset, long sequence) {
+        return buffer.getLong(offset + SEQUENCE) == sequence
+                && buffer.getInt(offset + CHECKSUM) == checksum(buffer, offset);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+}
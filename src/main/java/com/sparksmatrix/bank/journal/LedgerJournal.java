@@ -0,0 +1,228 @@
+package com.sparksmatrix.bank.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of {@link JournalRecord}s in memory-mapped segment files of a fixed number
+ * of slots. Records are numbered from 1; record {@code n} lives in a fixed slot of segment
+ * {@code (n - 1) / recordsPerSegment}, so a sequence is all it takes to find a record.
+ * <p>
+ * {@link #append} only copies records into the mapping. {@link #sync} makes them durable with one
+ * {@code force} covering everything appended so far, so writers that sync while another is
+ * forcing are usually covered by that force and return without one of their own: a group commit.
+ * Only durable records are handed out by {@link #read}.
+ * <p>
+ * Opening a journal scans forward from the first unapplied record to the last intact one and
+ * zeroes whatever follows, so a record torn by a crash cannot be mistaken for a valid one later.
+ * After an I/O failure the journal refuses further writes until it is reopened.
+ */
+public class LedgerJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private long nextSequence;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile boolean failed;
+
+    /**
+     * Opens the journal in {@code directory}, dropping segments that only hold records up to
+     * {@code appliedSequence}.
+     */
+    public LedgerJournal(Path directory, int segmentSize, long appliedSequence) {
+        if (segmentSize < JournalRecord.SIZE) {
+            throw new IllegalArgumentException("A journal segment must hold at least one record");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = segmentSize / JournalRecord.SIZE;
+        try {
+            Files.createDirectories(directory);
+            long firstSegment = segmentOf(appliedSequence + 1);
+            for (long segment : existingSegments()) {
+                if (segment < firstSegment) {
+                    Files.delete(segmentPath(segment));
+                }
+            }
+
+            long sequence = appliedSequence + 1;
+            while (Files.exists(segmentPath(segmentOf(sequence)))
+                    && JournalRecord.isPresent(segment(segmentOf(sequence)), offsetOf(sequence), sequence)) {
+                sequence++;
+            }
+            nextSequence = sequence;
+            appendedSequence = sequence - 1;
+            durableSequence = sequence - 1;
+
+            //the tail after the last intact record may hold a torn record or records from an abandoned run
+            long tailSegment = segmentOf(nextSequence);
+            MappedByteBuffer tail = segment(tailSegment);
+            for (int offset = offsetOf(nextSequence); offset < tail.capacity(); offset += Long.BYTES) {
+                tail.putLong(offset, 0L);
+            }
+            tail.force();
+            for (long segment : existingSegments()) {
+                if (segment > tailSegment) {
+                    Files.delete(segmentPath(segment));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open the journal in " + directory, ex);
+        }
+    }
+
+    /**
+     * Copies the records into the journal, without waiting for them to reach the disk.
+     *
+     * @return the sequence of the last record
+     */
+    public long append(List<JournalRecord> records) {
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            for (JournalRecord record : records) {
+                record.write(segment(segmentOf(nextSequence)), offsetOf(nextSequence), nextSequence);
+                nextSequence++;
+            }
+            appendedSequence = nextSequence - 1;
+            return appendedSequence;
+        } catch (RuntimeException ex) {
+            failed = true;
+            throw ex;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns once every record up to {@code sequence} is on disk.
+     */
+    public void sync(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                //forced by the writer that held the lock before us
+                return;
+            }
+            checkNotFailed();
+            long from = durableSequence + 1;
+            long to = appendedSequence;
+            for (long segment = segmentOf(from); segment <= segmentOf(to); segment++) {
+                long first = Math.max(from, segment * recordsPerSegment + 1);
+                long last = Math.min(to, (segment + 1) * recordsPerSegment);
+                segments.get(segment).force(offsetOf(first), (int) (last - first + 1) * JournalRecord.SIZE);
+            }
+            durableSequence = to;
+        } catch (RuntimeException ex) {
+            failed = true;
+            throw ex;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return the durable records from {@code from} to {@code to}, both inclusive
+     */
+    public List<JournalRecord> read(long from, long to) {
+        if (to > durableSequence) {
+            throw new IllegalArgumentException("Record " + to + " is not durable yet");
+        }
+        List<JournalRecord> records = new ArrayList<>((int) Math.max(to - from + 1, 0));
+        for (long sequence = from; sequence <= to; sequence++) {
+            records.add(JournalRecord.read(segments.get(segmentOf(sequence)), offsetOf(sequence)));
+        }
+        return records;
+    }
+
+    /**
+     * Deletes the segments that only hold records up to {@code sequence}, once they are applied.
+     */
+    public void releaseThrough(long sequence) {
+        for (long segment : List.copyOf(segments.keySet())) {
+            if ((segment + 1) * recordsPerSegment <= sequence) {
+                segments.remove(segment);
+                try {
+                    Files.deleteIfExists(segmentPath(segment));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Could not delete journal segment " + segment, ex);
+                }
+            }
+        }
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    @Override
+    public void close() {
+        failed = true;
+        segments.clear();
+    }
+
+    private MappedByteBuffer segment(long segment) {
+        MappedByteBuffer buffer = segments.get(segment);
+        if (buffer == null) {
+            try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                //the mapping outlives the channel, and extends a new file with zeroes
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * JournalRecord.SIZE);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not map journal segment " + segment, ex);
+            }
+            segments.put(segment, buffer);
+        }
+        return buffer;
+    }
+
+    private List<Long> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SUFFIX));
+    }
+
+    private long segmentOf(long sequence) {
+        return (sequence - 1) / recordsPerSegment;
+    }
+
+    private int offsetOf(long sequence) {
+        return (int) ((sequence - 1) % recordsPerSegment) * JournalRecord.SIZE;
+    }
+
+    private void checkNotFailed() {
+        if (failed) {
+            throw new IllegalStateException("The journal in " + directory + " failed and must be reopened");
+        }
+    }
+}
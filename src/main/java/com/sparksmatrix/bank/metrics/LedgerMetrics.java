@@ -0,0 +1,160 @@
+package com.sparksmatrix.bank.metrics;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for the ledger hot paths.
+ * <ul>
+ *     <li>{@code ledger.operation}: one service call, tagged with {@code operation} and {@code outcome}.
+ *     It runs inside the database transaction, so it does not include the commit, except on the
+ *     {@code reactive} profile, where it does.</li>
+ *     <li>{@code ledger.stage}: one step of a call, tagged with {@code stage}. Every stage is a round
+ *     trip to the database, so the operation time not covered by stages is time spent in the application.</li>
+ *     <li>{@code ledger.rejections}: postings refused by a business rule, tagged with {@code reason} and {@code type}.</li>
+ *     <li>{@code ledger.journal.quarantined}: acknowledged journal records the applier set aside because they
+ *     cannot be applied. Any increase needs an operator, so it is worth an alert.</li>
+ * </ul>
+ * Timers publish percentile histograms, so percentiles can be aggregated across instances.
+ */
+@Component
+public class LedgerMetrics {
+
+    public enum Stage {
+        ACCOUNT_LOOKUP, LIMIT_QUERY, BALANCE_UPDATE, INSERT, USAGE_UPDATE, IDEMPOTENCY_RECORD;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    public enum Rejection {
+        TRANSACTION_AMOUNT, DAILY_FREQUENCY, DAILY_AMOUNT, INSUFFICIENT_BALANCE, SAME_ACCOUNT, INVALID_REQUEST;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final MeterRegistry registry;
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+    private final Map<String, Timer> operationTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
+    private final Counter quarantinedJournalRecords;
+
+    public LedgerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("ledger.stage")
+                    .description("Time spent in one step of a ledger operation")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        quarantinedJournalRecords = Counter.builder("ledger.journal.quarantined")
+                .description("Journal records set aside because they could not be applied")
+                .register(registry);
+    }
+
+    /**
+     * Times a service call, tagging the outcome from its response or exception.
+     */
+    public ResponseWrapper operation(String operation, Supplier<ResponseWrapper> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            ResponseWrapper response = call.get();
+            outcome = outcome(response);
+            return response;
+        } catch (RuntimeException ex) {
+            outcome = outcome(ex);
+            throw ex;
+        } finally {
+            sample.stop(operationTimer(operation, outcome));
+        }
+    }
+
+    /**
+     * Times a reactive service call from subscription to its response or error. Unlike the
+     * blocking variant, the time includes the commit when the call is transactional.
+     */
+    public Mono<ResponseWrapper> operation(String operation, Mono<ResponseWrapper> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return call
+                    .doOnSuccess(response -> sample.stop(operationTimer(operation,
+                            response == null ? "error" : outcome(response))))
+                    .doOnError(ex -> sample.stop(operationTimer(operation, outcome(ex))));
+        });
+    }
+
+    public <T> T stage(Stage stage, Supplier<T> step) {
+        return stageTimers.get(stage).record(step);
+    }
+
+    public void stage(Stage stage, Runnable step) {
+        stageTimers.get(stage).record(step);
+    }
+
+    public void rejected(Rejection reason, TransactionType transactionType) {
+        String type = transactionType == null ? "none" : transactionType.name().toLowerCase();
+        String key = reason.tag + ":" + type;
+        Counter counter = rejectionCounters.get(key);
+        if (counter == null) {
+            counter = rejectionCounters.computeIfAbsent(key, k -> Counter.builder("ledger.rejections")
+                    .description("Postings refused by a business rule")
+                    .tag("reason", reason.tag)
+                    .tag("type", type)
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    public void journalRecordQuarantined() {
+        quarantinedJournalRecords.increment();
+    }
+
+    private static String outcome(ResponseWrapper response) {
+        return response.getCode() == HttpStatus.OK.value() || response.getCode() == HttpStatus.CREATED.value()
+                ? "success" : HttpStatus.valueOf(response.getCode()).name().toLowerCase();
+    }
+
+    private static String outcome(Throwable ex) {
+        if (ex instanceof BadRequestException) {
+            return "rejected";
+        }
+        return ex instanceof ConcurrencyFailureException ? "conflict" : "error";
+    }
+
+    /**
+     * Looks the timer up before falling back to {@code computeIfAbsent}, which can take the map's
+     * {@code synchronized} bin lock even when the key is present. Only the first call per tag
+     * combination registers under the lock.
+     */
+    private Timer operationTimer(String operation, String outcome) {
+        String key = operation + ":" + outcome;
+        Timer timer = operationTimers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        return operationTimers.computeIfAbsent(key, k -> Timer.builder("ledger.operation")
+                .description("Time spent in a ledger service call, excluding the commit")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
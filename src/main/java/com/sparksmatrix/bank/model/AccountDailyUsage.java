@@ -0,0 +1,37 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Running count and sum of an account's transactions of one type for one day.
+ * Maintained alongside every posted transaction so that limit checks are a
+ * primary-key lookup instead of an aggregate over the transactions table.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "account_daily_usage")
+public class AccountDailyUsage {
+
+    @EmbeddedId
+    private AccountDailyUsageId id;
+
+    @Column(name = "transaction_count", nullable = false)
+    private int transactionCount;
+
+    @Column(name = "transaction_sum", nullable = false)
+    private BigDecimal transactionSum;
+
+    public static AccountDailyUsage empty(AccountDailyUsageId id) {
+        return AccountDailyUsage.builder()
+                .id(id)
+                .transactionCount(0)
+                .transactionSum(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.sparksmatrix.bank.model;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transaction moved out of {@code transactions} by the archival job, unchanged apart from
+ * {@code archivedAt}. Rows are moved and read with SQL by {@code TransactionArchiveRepository}.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "transactions_archive", indexes = {
+        @Index(name = "idx_transactions_archive_account_created_at_id", columnList = "account_id, created_at, id")
+})
+public class ArchivedTransaction {
+
+    @Id
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, updatable = false)
+    private TransactionType type;
+
+    @Column(name = "transfer_reference", length = 36, updatable = false)
+    private String transferReference;
+
+    @Column(name = "accepted_at", updatable = false)
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "archived_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,47 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account's balance after applying every transaction up to and including the one at
+ * ({@code lastTransactionAt}, {@code lastTransactionId}) in the ledger's (created_at, id) order.
+ * Replays start from the nearest snapshot instead of the account's first transaction.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account_position", columnList = "account_id, last_transaction_at, last_transaction_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_snapshots_account_transaction", columnNames = {"account_id", "last_transaction_id"})
+})
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshots_seq")
+    @SequenceGenerator(name = "balance_snapshots_seq", sequenceName = "balance_snapshots_seq", allocationSize = 50)
+    @Column(name = "id", updatable = false, nullable = false)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    @Column(name = "last_transaction_id", nullable = false, updatable = false)
+    private Long lastTransactionId;
+
+    @Column(name = "last_transaction_at", nullable = false, updatable = false)
+    private LocalDateTime lastTransactionAt;
+
+    @Column(name = "balance", nullable = false, updatable = false)
+    private BigDecimal balance;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
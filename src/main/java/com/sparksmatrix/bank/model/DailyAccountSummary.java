@@ -0,0 +1,45 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An account's deposit and withdrawal totals for one business day and its balance at the end of
+ * that day. Rows are only written for days on which the account had transactions. They are
+ * written with SQL by {@code DailyRollupRepository}.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "daily_account_summary")
+public class DailyAccountSummary {
+
+    @EmbeddedId
+    private DailyAccountSummaryId id;
+
+    @Column(name = "deposit_count", nullable = false, updatable = false)
+    private int depositCount;
+
+    @Column(name = "deposit_sum", nullable = false, updatable = false)
+    private BigDecimal depositSum;
+
+    @Column(name = "withdrawal_count", nullable = false, updatable = false)
+    private int withdrawalCount;
+
+    @Column(name = "withdrawal_sum", nullable = false, updatable = false)
+    private BigDecimal withdrawalSum;
+
+    @Column(name = "closing_balance", nullable = false, updatable = false)
+    private BigDecimal closingBalance;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "rolled_up_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime rolledUpAt;
+}
@@ -0,0 +1,49 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Bank-wide totals for one business day. The row is written after every account row of the day,
+ * so the latest one marks how far the daily rollup has got.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "daily_bank_summary")
+public class DailyBankSummary {
+
+    @Id
+    @Column(name = "business_date", nullable = false, updatable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "active_accounts", nullable = false, updatable = false)
+    private int activeAccounts;
+
+    @Column(name = "deposit_count", nullable = false, updatable = false)
+    private long depositCount;
+
+    @Column(name = "deposit_sum", nullable = false, updatable = false)
+    private BigDecimal depositSum;
+
+    @Column(name = "withdrawal_count", nullable = false, updatable = false)
+    private long withdrawalCount;
+
+    @Column(name = "withdrawal_sum", nullable = false, updatable = false)
+    private BigDecimal withdrawalSum;
+
+    @Column(name = "closing_balance", nullable = false, updatable = false)
+    private BigDecimal closingBalance;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "rolled_up_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime rolledUpAt;
+}
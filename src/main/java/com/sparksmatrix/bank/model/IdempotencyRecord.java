@@ -0,0 +1,55 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The response of a deposit or withdrawal made with an Idempotency-Key header. It is written in
+ * the same transaction as the transaction it describes, and always inserted rather than merged,
+ * so a second request with the same key fails on the primary key instead of posting again.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 64, nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_fingerprint", nullable = false)
+    private String requestFingerprint;
+
+    @Column(name = "response_code", nullable = false)
+    private int responseCode;
+
+    @Column(name = "response_message")
+    private String responseMessage;
+
+    @Lob
+    @Column(name = "response_data")
+    private String responseData;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        // Records are written once and never updated
+        return true;
+    }
+}
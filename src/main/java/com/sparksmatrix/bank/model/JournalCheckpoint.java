@@ -0,0 +1,27 @@
+package com.sparksmatrix.bank.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The single row recording how far the ledger journal has been applied. It is advanced in the
+ * same transaction as the records it covers, so after a restart replay resumes exactly there.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "journal_checkpoint")
+public class JournalCheckpoint {
+
+    public static final int ID = 1;
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private Integer id;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+}
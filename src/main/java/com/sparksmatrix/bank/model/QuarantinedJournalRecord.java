@@ -0,0 +1,60 @@
+package com.sparksmatrix.bank.model;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A ledger journal record that failed to apply on its own, for a reason a retry would not fix.
+ * The applier moves past it, so it is acknowledged but missing from the ledger tables until an
+ * operator posts or discards it.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "journal_quarantine")
+public class QuarantinedJournalRecord {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @Column(name = "sequence", nullable = false, updatable = false)
+    private Long sequence;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, updatable = false)
+    private TransactionType type;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "balance_after", nullable = false, updatable = false)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "usage_date", nullable = false, updatable = false)
+    private LocalDate usageDate;
+
+    @Column(name = "accepted_at", nullable = false, updatable = false)
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "idempotency_key", length = 64, updatable = false)
+    private String idempotencyKey;
+
+    @Column(name = "error", length = MAX_ERROR_LENGTH, nullable = false, updatable = false)
+    private String error;
+
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "quarantined_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime quarantinedAt;
+}
@@ -1,10 +1,12 @@
 package com.sparksmatrix.bank.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sparksmatrix.bank.enums.TransactionType;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Builder
@@ -12,21 +14,42 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_account_type_created_at", columnList = "account_id, type, created_at, amount"),
+        @Index(name = "idx_transactions_account_created_at_id", columnList = "account_id, created_at, id"),
+        @Index(name = "idx_transactions_created_at_id", columnList = "created_at, id")
+})
 public class Transaction extends AuditModel {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     @Column(name = "id", updatable = false, nullable = false)
     private Long id;
 
     @Column(name = "amount", nullable = false)
     private BigDecimal amount;
 
+    @Enumerated(EnumType.STRING)
     @Column(name = "type", nullable = false)
     private TransactionType type;
 
     @ManyToOne
     @JoinColumn(name = "account_id")
     private Account account;
+
+    /**
+     * Shared by the withdrawal and the deposit of one transfer; null for other transactions.
+     */
+    @Column(name = "transfer_reference", length = 36, updatable = false)
+    private String transferReference;
+
+    /**
+     * When the posting was accepted, for postings that the ledger shards or the journal applier
+     * write some time after accepting them; null otherwise. {@code created_at} stays the time of
+     * the insert, which snapshots and rollups rely on to see every row after the point they reached.
+     */
+    @JsonIgnore
+    @Column(name = "accepted_at", updatable = false)
+    private LocalDateTime acceptedAt;
 }
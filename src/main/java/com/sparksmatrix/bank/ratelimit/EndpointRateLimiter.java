@@ -0,0 +1,94 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import com.sparksmatrix.bank.error.exception.TooManyRequestsException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the configured per-client and per-account limits of each endpoint. Checks run before
+ * the request reaches a service, so a rejected request never touches the database.
+ */
+@Component
+@Profile("!reactive")
+public class EndpointRateLimiter {
+
+    private final Map<String, RateLimiter> clientLimiters = new HashMap<>();
+    private final Map<String, RateLimiter> accountLimiters = new HashMap<>();
+
+    public EndpointRateLimiter(RateLimitProperties properties) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        properties.getEndpoints().forEach((endpoint, limits) -> {
+            if (limits.getClient() != null) {
+                clientLimiters.put(endpoint, limiter(limits.getClient(), properties));
+            }
+            if (limits.getAccount() != null) {
+                accountLimiters.put(endpoint, limiter(limits.getAccount(), properties));
+            }
+        });
+    }
+
+    /**
+     * @throws TooManyRequestsException if the client has used up its requests to the endpoint
+     */
+    public void checkClient(String endpoint, String clientId) {
+        check(clientLimiters.get(endpoint), clientId);
+    }
+
+    /**
+     * @throws TooManyRequestsException if the account has used up its requests to the endpoint
+     */
+    public void checkAccount(String endpoint, String accountNumber) {
+        check(accountLimiters.get(endpoint), accountNumber);
+    }
+
+    /**
+     * Takes the tokens of several requests at once, such as the items of a batch: either every
+     * account has enough requests left for its items, or no token is taken.
+     *
+     * @param requests the number of requests per endpoint and account number
+     * @throws TooManyRequestsException if an account has used up its requests to an endpoint
+     */
+    public void checkAccounts(Map<String, Map<String, Integer>> requests) {
+        List<Runnable> refunds = new ArrayList<>();
+        requests.forEach((endpoint, accounts) -> {
+            RateLimiter limiter = accountLimiters.get(endpoint);
+            if (limiter == null) {
+                return;
+            }
+            accounts.forEach((accountNumber, count) -> {
+                if (accountNumber == null) {
+                    return;
+                }
+                long waitNanos = limiter.tryAcquire(accountNumber, count);
+                if (waitNanos > 0) {
+                    refunds.forEach(Runnable::run);
+                    throw new TooManyRequestsException(Duration.ofNanos(waitNanos));
+                }
+                refunds.add(() -> limiter.release(accountNumber, count));
+            });
+        });
+    }
+
+    private static void check(RateLimiter limiter, String key) {
+        if (limiter == null || key == null) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private static RateLimiter limiter(RateLimitProperties.Limit limit, RateLimitProperties properties) {
+        return new RateLimiter(limit.getCapacity(), limit.getRefillPerSecond(), properties.getMaximumBuckets(),
+                properties.getIdleTimeout());
+    }
+}
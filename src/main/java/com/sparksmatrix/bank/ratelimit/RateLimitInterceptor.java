@@ -0,0 +1,71 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks requests to {@link RateLimited} handlers against the client limit of their endpoint and,
+ * when the account number is part of the path, its account limit. Handlers that take the account
+ * number from the request body check the account limit themselves.
+ * <p>
+ * The client is the authenticated principal if there is one. Otherwise it is the client header
+ * when the request comes from a trusted proxy, and the remote address in all other cases, so a
+ * caller cannot pick its own key.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ACCOUNT_NUMBER_VARIABLE = "accountNumber";
+
+    private final EndpointRateLimiter endpointRateLimiter;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+
+    public RateLimitInterceptor(EndpointRateLimiter endpointRateLimiter, String clientHeader, Set<String> trustedProxies) {
+        this.endpointRateLimiter = endpointRateLimiter;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+
+        endpointRateLimiter.checkClient(rateLimited.value(), clientKey(request));
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null) {
+            endpointRateLimiter.checkAccount(rateLimited.value(), pathVariables.get(ACCOUNT_NUMBER_VARIABLE));
+        }
+        return true;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String clientId = request.getHeader(clientHeader);
+            if (clientId != null) {
+                return clientId;
+            }
+        }
+        return remoteAddress;
+    }
+}
@@ -0,0 +1,57 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Request rate limits by endpoint, bound from {@code rate-limit.*}. Each endpoint, named by its
+ * {@link RateLimited} value, can limit requests per client, per account or both; an endpoint or
+ * key without a limit is not limited.
+ */
+@Data
+@ConfigurationProperties("rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Request header identifying the client, set by a trusted proxy. Ignored on requests from any
+     * other address, since a caller could rotate it to get a fresh bucket.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Remote addresses of the proxies whose client header is trusted.
+     */
+    private Set<String> trustedProxies = new HashSet<>();
+
+    /**
+     * Maximum number of buckets kept per endpoint and key type.
+     */
+    private long maximumBuckets = 100_000;
+
+    /**
+     * Buckets unused for this long are dropped; should be at least the time a bucket takes to refill.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Map<String, EndpointLimits> endpoints = new HashMap<>();
+
+    @Data
+    public static class EndpointLimits {
+        private Limit client;
+        private Limit account;
+    }
+
+    @Data
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * One {@link TokenBucket} per key, all with the same capacity and refill rate. Buckets are kept in
+ * a bounded cache and dropped once they have not been used for {@code idleTimeout}. A bucket idle
+ * for longer than it takes to refill completely is equivalent to a new one, so expiry only frees
+ * memory. Evicting a busy bucket because the cache is full hands its key a full bucket again.
+ */
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Function<String, TokenBucket> newBucket;
+
+    public RateLimiter(int capacity, double refillPerSecond, long maximumBuckets, Duration idleTimeout) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("A rate limit needs a capacity of at least 1 and a positive refill rate");
+        }
+        long intervalNanos = Math.max(1, Math.round(Duration.ofSeconds(1).toNanos() / refillPerSecond));
+        long toleranceNanos = intervalNanos * (capacity - 1);
+        this.newBucket = key -> new TokenBucket(intervalNanos, toleranceNanos);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    /**
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the key has a token again
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        return buckets.get(key, newBucket).tryAcquire(now);
+    }
+
+    /**
+     * @return 0 if all {@code tokens} were taken, otherwise the nanoseconds until the key has them
+     */
+    public long tryAcquire(String key, int tokens) {
+        return tryAcquire(key, tokens, System.nanoTime());
+    }
+
+    long tryAcquire(String key, int tokens, long now) {
+        return buckets.get(key, newBucket).tryAcquire(now, tokens);
+    }
+
+    /**
+     * Gives back tokens taken for a request that was refused for another reason.
+     */
+    public void release(String key, int tokens) {
+        TokenBucket bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.release(tokens);
+        }
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,54 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket holding up to {@code capacity} tokens and refilled at a fixed interval per token,
+ * kept as the single "theoretical arrival time" of the generic cell rate algorithm instead of a
+ * token count and a refill timestamp. That makes admission one compare-and-set, with no lock and
+ * no refill bookkeeping. A rejected request takes no token.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(long intervalNanos, long toleranceNanos) {
+        this.intervalNanos = intervalNanos;
+        this.toleranceNanos = toleranceNanos;
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryAcquire(long now) {
+        return tryAcquire(now, 1);
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return 0 if all {@code tokens} were taken, otherwise the nanoseconds until they are available
+     */
+    long tryAcquire(long now, int tokens) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now);
+            long allowedAt = next + intervalNanos * (tokens - 1) - toleranceNanos;
+            if (now < allowedAt) {
+                return allowedAt - now;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next + intervalNanos * tokens)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back tokens taken by {@link #tryAcquire(long, int)} for a request that was not served.
+     */
+    void release(int tokens) {
+        theoreticalArrival.addAndGet(-intervalNanos * tokens);
+    }
+}
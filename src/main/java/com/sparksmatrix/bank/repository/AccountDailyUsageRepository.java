@@ -0,0 +1,23 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface AccountDailyUsageRepository extends JpaRepository<AccountDailyUsage, AccountDailyUsageId> {
+    @Modifying
+    @Query("UPDATE AccountDailyUsage u SET u.transactionCount = u.transactionCount + :count, u.transactionSum = u.transactionSum + :amount " +
+            "WHERE u.id.accountId = :accountId AND u.id.usageDate = :usageDate AND u.id.type = :transactionType")
+    int incrementUsage(@Param("accountId") Long accountId, @Param("usageDate") LocalDate usageDate,
+                       @Param("transactionType") TransactionType transactionType,
+                       @Param("count") int count, @Param("amount") BigDecimal amount);
+}
@@ -1,18 +1,59 @@
 package com.sparksmatrix.bank.repository;
 
 import com.sparksmatrix.bank.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Query("SELECT a.id FROM Account a WHERE a.id > :afterId ORDER BY a.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findByAccountNumberForUpdate(@Param("accountNumber") String accountNumber);
+
+    //read-only so that it can be served by a replica, see ReplicaRoutingConfig
+    @Transactional(readOnly = true)
     @Query("SELECT a.balance FROM Account a WHERE a.accountNumber = :accountNumber")
     Optional<BigDecimal> getAccountBalance(@Param("accountNumber") String accountNumber);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.version = a.version + 1, a.updatedAt = LOCAL DATETIME " +
+            "WHERE a.accountNumber = :accountNumber")
+    int creditBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.version = a.version + 1, a.updatedAt = LOCAL DATETIME " +
+            "WHERE a.accountNumber = :accountNumber AND a.balance >= :amount")
+    int debitBalance(@Param("accountNumber") String accountNumber, @Param("amount") BigDecimal amount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta, a.version = a.version + 1, a.updatedAt = LOCAL DATETIME " +
+            "WHERE a.id = :id")
+    int adjustBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Account a SET a.version = a.version + 1 WHERE a.id = :id AND a.version = :version")
+    int claimVersion(@Param("id") Long id, @Param("version") Long version);
 }
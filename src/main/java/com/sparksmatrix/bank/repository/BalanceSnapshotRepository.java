@@ -0,0 +1,38 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.BalanceSnapshot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * The account's snapshots covering nothing after {@code at}, latest first.
+     */
+    @Query("SELECT s FROM BalanceSnapshot s WHERE s.accountId = :accountId AND s.lastTransactionAt <= :at " +
+            "ORDER BY s.lastTransactionAt DESC, s.lastTransactionId DESC")
+    List<BalanceSnapshot> findLatestAtOrBefore(@Param("accountId") Long accountId, @Param("at") LocalDateTime at, Limit limit);
+
+    /**
+     * Thins out snapshots older than the cutoff to the last one of each account and day. Replays
+     * into that period start at most a day of transactions away from a snapshot, and the latest
+     * snapshot of every account is always kept.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.lastTransactionAt < :cutoff AND EXISTS (" +
+            "SELECT 1 FROM BalanceSnapshot n WHERE n.accountId = s.accountId AND n.lastTransactionAt < :cutoff " +
+            "AND cast(n.lastTransactionAt as LocalDate) = cast(s.lastTransactionAt as LocalDate) " +
+            "AND (n.lastTransactionAt > s.lastTransactionAt " +
+            "OR (n.lastTransactionAt = s.lastTransactionAt AND n.lastTransactionId > s.lastTransactionId)))")
+    int compactBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,29 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.dto.DailyAccountSummaryDto;
+import com.sparksmatrix.bank.model.DailyAccountSummary;
+import com.sparksmatrix.bank.model.DailyAccountSummaryId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyAccountSummaryRepository extends JpaRepository<DailyAccountSummary, DailyAccountSummaryId>,
+        DailyRollupRepository {
+
+    /**
+     * The day's account rollups in account id order, starting after {@code afterAccountId}.
+     */
+    @Query("SELECT new com.sparksmatrix.bank.dto.DailyAccountSummaryDto(a.id, a.accountNumber, s.depositCount, " +
+            "s.depositSum, s.withdrawalCount, s.withdrawalSum, s.closingBalance) " +
+            "FROM DailyAccountSummary s JOIN Account a ON a.id = s.id.accountId " +
+            "WHERE s.id.businessDate = :businessDate AND s.id.accountId > :afterAccountId " +
+            "ORDER BY s.id.accountId")
+    List<DailyAccountSummaryDto> findPage(@Param("businessDate") LocalDate businessDate,
+                                          @Param("afterAccountId") long afterAccountId, Limit limit);
+}
@@ -0,0 +1,19 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.DailyBankSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface DailyBankSummaryRepository extends JpaRepository<DailyBankSummary, LocalDate> {
+
+    /**
+     * @return the last business day that has been rolled up completely
+     */
+    @Query("SELECT MAX(b.businessDate) FROM DailyBankSummary b")
+    Optional<LocalDate> findLastBusinessDate();
+}
@@ -0,0 +1,45 @@
+package com.sparksmatrix.bank.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Writes the daily rollups with set-based SQL. Every method replaces the rows it covers, so a day
+ * that was partly rolled up before a crash is simply rolled up again.
+ */
+public interface DailyRollupRepository {
+
+    /**
+     * @return the creation time of the oldest transaction in either tier, or empty if there are none
+     */
+    Optional<LocalDateTime> findFirstTransactionAt();
+
+    /**
+     * Replaces the {@code daily_account_summary} rows of the given day for the accounts with
+     * {@code account_id % partitions == partition}, from the transactions created in
+     * [{@code start}, {@code end}), in one transaction. The closing balance is the current balance
+     * less the net of the account's transactions from {@code end} on.
+     *
+     * @param includeArchive whether transactions from {@code start} on may have been archived
+     * @return the number of accounts rolled up
+     */
+    int rollUpAccounts(LocalDate day, LocalDateTime start, LocalDateTime end, int partition, int partitions,
+                       boolean includeArchive);
+
+    /**
+     * Compares the transactions created in [{@code start}, {@code end}) with the
+     * {@code daily_account_summary} rows of the given day, account by account.
+     *
+     * @param includeArchive whether transactions from {@code start} on may have been archived
+     * @return whether an account has transactions on the day that its row does not count, such as
+     * ones that committed after the day was rolled up
+     */
+    boolean hasUncountedTransactions(LocalDate day, LocalDateTime start, LocalDateTime end, boolean includeArchive);
+
+    /**
+     * Replaces the {@code daily_bank_summary} row of the given day with the totals of its
+     * {@code daily_account_summary} rows and the closing balance of the whole bank at {@code end}.
+     */
+    void rollUpBank(LocalDate day, LocalDateTime end, boolean includeArchive);
+}
@@ -0,0 +1,106 @@
+package com.sparksmatrix.bank.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public class DailyRollupRepositoryImpl implements DailyRollupRepository {
+
+    private static final String NET_AMOUNT = "CASE WHEN type = 'DEPOSIT' THEN amount ELSE -amount END";
+
+    private static final String ACCOUNT_COLUMNS = "account_id, business_date, deposit_count, deposit_sum, "
+            + "withdrawal_count, withdrawal_sum, closing_balance";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public DailyRollupRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findFirstTransactionAt() {
+        LocalDateTime first = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM ("
+                        + "SELECT MIN(created_at) AS created_at FROM transactions "
+                        + "UNION ALL SELECT MIN(created_at) FROM transactions_archive) tiers",
+                new MapSqlParameterSource(), LocalDateTime.class);
+        return Optional.ofNullable(first);
+    }
+
+    @Override
+    @Transactional
+    public int rollUpAccounts(LocalDate day, LocalDateTime start, LocalDateTime end, int partition, int partitions,
+                              boolean includeArchive) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("day", day)
+                .addValue("start", start)
+                .addValue("end", end)
+                .addValue("partition", partition)
+                .addValue("partitions", partitions);
+        jdbcTemplate.update("DELETE FROM daily_account_summary WHERE business_date = :day "
+                + "AND MOD(account_id, :partitions) = :partition", parameters);
+
+        String dayRows = "SELECT account_id, type, amount FROM %s WHERE created_at >= :start AND created_at < :end "
+                + "AND MOD(account_id, :partitions) = :partition";
+        String laterNet = " - COALESCE((SELECT SUM(" + NET_AMOUNT + ") FROM %s l "
+                + "WHERE l.account_id = d.account_id AND l.created_at >= :end), 0)";
+
+        //one statement, so the current balance and the transactions after the day are read consistently
+        return jdbcTemplate.update("INSERT INTO daily_account_summary (" + ACCOUNT_COLUMNS + ") "
+                + "SELECT d.account_id, CAST(:day AS DATE), d.deposit_count, d.deposit_sum, "
+                + "d.withdrawal_count, d.withdrawal_sum, "
+                + "a.balance" + laterNet.formatted("transactions")
+                + (includeArchive ? laterNet.formatted("transactions_archive") : "")
+                + " FROM (SELECT account_id, "
+                + "SUM(CASE WHEN type = 'DEPOSIT' THEN 1 ELSE 0 END) AS deposit_count, "
+                + "SUM(CASE WHEN type = 'DEPOSIT' THEN amount ELSE 0 END) AS deposit_sum, "
+                + "SUM(CASE WHEN type = 'WITHDRAWAL' THEN 1 ELSE 0 END) AS withdrawal_count, "
+                + "SUM(CASE WHEN type = 'WITHDRAWAL' THEN amount ELSE 0 END) AS withdrawal_sum "
+                + "FROM (" + dayRows.formatted("transactions")
+                + (includeArchive ? " UNION ALL " + dayRows.formatted("transactions_archive") : "")
+                + ") tiers GROUP BY account_id) d "
+                + "JOIN accounts a ON a.id = d.account_id", parameters);
+    }
+
+    @Override
+    public boolean hasUncountedTransactions(LocalDate day, LocalDateTime start, LocalDateTime end, boolean includeArchive) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("day", day)
+                .addValue("start", start)
+                .addValue("end", end);
+        String dayRows = "SELECT account_id FROM %s WHERE created_at >= :start AND created_at < :end";
+
+        //transactions are only ever added to a day, so a changed day has an account with more of them than its row
+        Integer uncounted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT account_id, COUNT(*) AS entries "
+                + "FROM (" + dayRows.formatted("transactions")
+                + (includeArchive ? " UNION ALL " + dayRows.formatted("transactions_archive") : "")
+                + ") tiers GROUP BY account_id) d "
+                + "JOIN accounts a ON a.id = d.account_id "
+                + "LEFT JOIN daily_account_summary s ON s.business_date = :day AND s.account_id = d.account_id "
+                + "WHERE s.account_id IS NULL OR s.deposit_count + s.withdrawal_count < d.entries", parameters, Integer.class);
+        return uncounted != null && uncounted > 0;
+    }
+
+    @Override
+    @Transactional
+    public void rollUpBank(LocalDate day, LocalDateTime end, boolean includeArchive) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("day", day)
+                .addValue("end", end);
+        jdbcTemplate.update("DELETE FROM daily_bank_summary WHERE business_date = :day", parameters);
+
+        String laterNet = " - (SELECT COALESCE(SUM(" + NET_AMOUNT + "), 0) FROM %s WHERE created_at >= :end)";
+        jdbcTemplate.update("INSERT INTO daily_bank_summary (business_date, active_accounts, deposit_count, "
+                + "deposit_sum, withdrawal_count, withdrawal_sum, closing_balance) "
+                + "SELECT CAST(:day AS DATE), COUNT(*), COALESCE(SUM(deposit_count), 0), "
+                + "COALESCE(SUM(deposit_sum), 0), "
+                + "COALESCE(SUM(withdrawal_count), 0), COALESCE(SUM(withdrawal_sum), 0), "
+                + "(SELECT COALESCE(SUM(balance), 0) FROM accounts)" + laterNet.formatted("transactions")
+                + (includeArchive ? laterNet.formatted("transactions_archive") : "")
+                + " FROM daily_account_summary WHERE business_date = :day", parameters);
+    }
+}
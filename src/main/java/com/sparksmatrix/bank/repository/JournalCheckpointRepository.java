@@ -0,0 +1,18 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, Integer> {
+    @Query("SELECT c.appliedSequence FROM JournalCheckpoint c WHERE c.id = " + JournalCheckpoint.ID)
+    long findAppliedSequence();
+
+    @Modifying
+    @Query("UPDATE JournalCheckpoint c SET c.appliedSequence = :appliedSequence WHERE c.id = " + JournalCheckpoint.ID)
+    int updateAppliedSequence(@Param("appliedSequence") long appliedSequence);
+}
@@ -0,0 +1,9 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.QuarantinedJournalRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuarantinedJournalRecordRepository extends JpaRepository<QuarantinedJournalRecord, Long> {
+}
@@ -0,0 +1,64 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link AccountDailyUsageRepository} for the {@code reactive} profile.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveAccountDailyUsageRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<AccountDailyUsage> findById(AccountDailyUsageId id) {
+        return databaseClient.sql("SELECT transaction_count, transaction_sum FROM account_daily_usage " +
+                        "WHERE account_id = :accountId AND usage_date = :usageDate AND type = :type")
+                .bind("accountId", id.getAccountId())
+                .bind("usageDate", id.getUsageDate())
+                .bind("type", id.getType().name())
+                .map(row -> AccountDailyUsage.builder()
+                        .id(id)
+                        .transactionCount(row.get("transaction_count", Integer.class))
+                        .transactionSum(row.get("transaction_sum", BigDecimal.class))
+                        .build())
+                .one();
+    }
+
+    public Mono<Long> incrementUsage(Long accountId, LocalDate usageDate, TransactionType transactionType,
+                                     int count, BigDecimal amount) {
+        return databaseClient.sql("UPDATE account_daily_usage SET transaction_count = transaction_count + :count, " +
+                        "transaction_sum = transaction_sum + :amount " +
+                        "WHERE account_id = :accountId AND usage_date = :usageDate AND type = :type")
+                .bind("count", count)
+                .bind("amount", amount)
+                .bind("accountId", accountId)
+                .bind("usageDate", usageDate)
+                .bind("type", transactionType.name())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> insert(AccountDailyUsage usage) {
+        return databaseClient.sql("INSERT INTO account_daily_usage (account_id, usage_date, type, transaction_count, transaction_sum) " +
+                        "VALUES (:accountId, :usageDate, :type, :count, :amount)")
+                .bind("accountId", usage.getId().getAccountId())
+                .bind("usageDate", usage.getId().getUsageDate())
+                .bind("type", usage.getId().getType().name())
+                .bind("count", usage.getTransactionCount())
+                .bind("amount", usage.getTransactionSum())
+                .fetch()
+                .rowsUpdated();
+    }
+}
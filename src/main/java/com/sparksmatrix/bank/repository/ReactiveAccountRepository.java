@@ -0,0 +1,106 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.Account;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link AccountRepository} for the {@code reactive} profile. The
+ * statements mirror the JPQL ones so that both stacks update accounts the same way.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveAccountRepository {
+
+    private static final String SELECT_ACCOUNT = "SELECT id, name, account_number, balance, version, created_at, updated_at " +
+            "FROM accounts WHERE account_number = :accountNumber";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Mono<Account> findByAccountNumber(String accountNumber) {
+        return databaseClient.sql(SELECT_ACCOUNT)
+                .bind("accountNumber", accountNumber)
+                .map(ReactiveAccountRepository::toAccount)
+                .one();
+    }
+
+    public Mono<Account> findByAccountNumberForUpdate(String accountNumber) {
+        return databaseClient.sql(SELECT_ACCOUNT + " FOR UPDATE")
+                .bind("accountNumber", accountNumber)
+                .map(ReactiveAccountRepository::toAccount)
+                .one();
+    }
+
+    public Mono<BigDecimal> getAccountBalance(String accountNumber) {
+        return databaseClient.sql("SELECT balance FROM accounts WHERE account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .map(row -> row.get("balance", BigDecimal.class))
+                .one();
+    }
+
+    /**
+     * Inserts a new account. The id is the first value of a fresh block of {@code accounts_seq},
+     * so it cannot collide with ids handed out by Hibernate's pooled optimizer.
+     */
+    public Mono<Account> save(Account account) {
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.sql("SELECT NEXT VALUE FOR accounts_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient.sql("INSERT INTO accounts (id, name, account_number, balance, version, created_at, updated_at) " +
+                                "VALUES (:id, :name, :accountNumber, :balance, 0, :now, :now)")
+                        .bind("id", id)
+                        .bind("name", account.getName())
+                        .bind("accountNumber", account.getAccountNumber())
+                        .bind("balance", account.getBalance())
+                        .bind("now", now)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(inserted -> {
+                            account.setId(id);
+                            account.setVersion(0L);
+                            account.setCreatedAt(now);
+                            account.setUpdatedAt(now);
+                            return account;
+                        }));
+    }
+
+    public Mono<Long> creditBalance(String accountNumber, BigDecimal amount) {
+        return databaseClient.sql("UPDATE accounts SET balance = balance + :amount, version = version + 1, updated_at = LOCALTIMESTAMP " +
+                        "WHERE account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> debitBalance(String accountNumber, BigDecimal amount) {
+        return databaseClient.sql("UPDATE accounts SET balance = balance - :amount, version = version + 1, updated_at = LOCALTIMESTAMP " +
+                        "WHERE account_number = :accountNumber AND balance >= :amount")
+                .bind("accountNumber", accountNumber)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Account toAccount(Readable row) {
+        Account account = Account.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .accountNumber(row.get("account_number", String.class))
+                .balance(row.get("balance", BigDecimal.class))
+                .version(row.get("version", Long.class))
+                .build();
+        account.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        account.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return account;
+    }
+}
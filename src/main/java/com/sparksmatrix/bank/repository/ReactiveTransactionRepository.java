@@ -0,0 +1,47 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link TransactionRepository} for the {@code reactive} profile.
+ */
+@Profile("reactive")
+@Repository
+public class ReactiveTransactionRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Inserts a deposit or withdrawal. Like {@link ReactiveAccountRepository#save}, the id starts
+     * a fresh block of {@code transactions_seq}.
+     */
+    public Mono<Transaction> save(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.sql("SELECT NEXT VALUE FOR transactions_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> databaseClient.sql("INSERT INTO transactions (id, account_id, amount, type, created_at, updated_at) " +
+                                "VALUES (:id, :accountId, :amount, :type, :now, :now)")
+                        .bind("id", id)
+                        .bind("accountId", transaction.getAccount().getId())
+                        .bind("amount", transaction.getAmount())
+                        .bind("type", transaction.getType().name())
+                        .bind("now", now)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(inserted -> {
+                            transaction.setId(id);
+                            transaction.setCreatedAt(now);
+                            transaction.setUpdatedAt(now);
+                            return transaction;
+                        }));
+    }
+}
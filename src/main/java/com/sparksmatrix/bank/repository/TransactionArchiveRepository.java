@@ -0,0 +1,47 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries over both tiers of the ledger: the {@code transactions} table and the
+ * {@code transactions_archive} table that old transactions are moved to. Each query reads both
+ * tables in one statement, so a row moved by a concurrent archival chunk is seen exactly once.
+ */
+public interface TransactionArchiveRepository {
+
+    /**
+     * Moves up to {@code chunkSize} transactions created before {@code cutoff} to the archive, in
+     * (createdAt, id) order starting strictly after the given position, in one transaction.
+     *
+     * @return the number of rows moved and the position of the last one, or empty if none are left
+     */
+    Optional<ArchivedChunk> archiveChunk(LocalDateTime cutoff, LocalDateTime afterCreatedAt, long afterId, int chunkSize);
+
+    /**
+     * Like {@link TransactionRepository#findHistoryPage} and
+     * {@link TransactionRepository#findHistoryPageByType}, with a null type matching both.
+     */
+    List<TransactionHistoryItemDto> findTieredHistoryPage(Long accountId, TransactionType type, LocalDateTime from,
+                                                         LocalDateTime beforeCreatedAt, long beforeId, int limit);
+
+    /**
+     * Like {@link TransactionRepository#streamStatement}, which it shares the transaction and
+     * closing requirements with.
+     */
+    Stream<TransactionHistoryItemDto> streamTieredStatement(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Like {@link TransactionRepository#sumLedgerDelta}.
+     */
+    LedgerDeltaDto sumTieredLedgerDelta(Long accountId, LocalDateTime afterCreatedAt, long afterId, LocalDateTime upTo);
+
+    record ArchivedChunk(int rows, LocalDateTime lastCreatedAt, long lastId) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class TransactionArchiveRepositoryImpl implements TransactionArchiveRepository {
+
+    private static final String COLUMNS = "id, account_id, amount, type, transfer_reference, accepted_at, created_at, updated_at";
+
+    private static final String ITEM_COLUMNS = "id, type, amount, created_at";
+
+    private static final String HISTORY_PAGE = "account_id = :accountId%s AND created_at >= :from "
+            + "AND created_at <= :beforeCreatedAt AND (created_at < :beforeCreatedAt OR id < :beforeId) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :limit";
+
+    private static final String STATEMENT = "account_id = :accountId AND created_at >= :from AND created_at < :to";
+
+    private static final String LEDGER_DELTA = "account_id = :accountId AND created_at >= :afterCreatedAt "
+            + "AND (created_at > :afterCreatedAt OR id > :afterId) AND created_at <= :upTo";
+
+    private static final RowMapper<TransactionHistoryItemDto> ITEM = (row, rowNumber) -> new TransactionHistoryItemDto(
+            row.getLong("id"), TransactionType.valueOf(row.getString("type")), row.getBigDecimal("amount"),
+            row.getObject("created_at", LocalDateTime.class));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionArchiveRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        //statements are read from the cursor in chunks, as with the JPA stream
+        this.jdbcTemplate.getJdbcTemplate().setFetchSize(500);
+    }
+
+    @Override
+    @Transactional
+    public Optional<ArchivedChunk> archiveChunk(LocalDateTime cutoff, LocalDateTime afterCreatedAt, long afterId, int chunkSize) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("cutoff", cutoff)
+                .addValue("afterCreatedAt", afterCreatedAt)
+                .addValue("afterId", afterId)
+                .addValue("limit", chunkSize);
+        List<Position> chunk = jdbcTemplate.query("SELECT id, created_at FROM transactions "
+                        + "WHERE created_at < :cutoff AND created_at >= :afterCreatedAt "
+                        + "AND (created_at > :afterCreatedAt OR id > :afterId) "
+                        + "ORDER BY created_at, id LIMIT :limit", parameters,
+                (row, rowNumber) -> new Position(row.getObject("created_at", LocalDateTime.class), row.getLong("id")));
+        if (chunk.isEmpty()) {
+            return Optional.empty();
+        }
+
+        //transactions are never updated, so the chunk cannot change between the copy and the delete
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", chunk.stream().map(Position::id).toList());
+        int copied = jdbcTemplate.update("INSERT INTO transactions_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM transactions WHERE id IN (:ids)", ids);
+        int deleted = jdbcTemplate.update("DELETE FROM transactions WHERE id IN (:ids)", ids);
+        if (copied != chunk.size() || deleted != chunk.size()) {
+            throw new IncorrectResultSizeDataAccessException("Archived " + copied + " and deleted " + deleted
+                    + " of " + chunk.size() + " transactions", chunk.size());
+        }
+        Position last = chunk.get(chunk.size() - 1);
+        return Optional.of(new ArchivedChunk(chunk.size(), last.createdAt(), last.id()));
+    }
+
+    @Override
+    public List<TransactionHistoryItemDto> findTieredHistoryPage(Long accountId, TransactionType type, LocalDateTime from,
+                                                                LocalDateTime beforeCreatedAt, long beforeId, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("accountId", accountId)
+                .addValue("from", from)
+                .addValue("beforeCreatedAt", beforeCreatedAt)
+                .addValue("beforeId", beforeId)
+                .addValue("limit", limit);
+        String condition = String.format(HISTORY_PAGE, type == null ? "" : " AND type = :type");
+        if (type != null) {
+            parameters.addValue("type", type.name());
+        }
+
+        //each tier returns at most one page from its own index before the pages are merged
+        return jdbcTemplate.query("(SELECT " + ITEM_COLUMNS + " FROM transactions WHERE " + condition + ") "
+                + "UNION ALL (SELECT " + ITEM_COLUMNS + " FROM transactions_archive WHERE " + condition + ") "
+                + "ORDER BY created_at DESC, id DESC LIMIT :limit", parameters, ITEM);
+    }
+
+    @Override
+    public Stream<TransactionHistoryItemDto> streamTieredStatement(Long accountId, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("accountId", accountId)
+                .addValue("from", from)
+                .addValue("to", to);
+        return jdbcTemplate.queryForStream("SELECT " + ITEM_COLUMNS + " FROM transactions WHERE " + STATEMENT
+                + " UNION ALL SELECT " + ITEM_COLUMNS + " FROM transactions_archive WHERE " + STATEMENT
+                + " ORDER BY created_at, id", parameters, ITEM);
+    }
+
+    @Override
+    public LedgerDeltaDto sumTieredLedgerDelta(Long accountId, LocalDateTime afterCreatedAt, long afterId, LocalDateTime upTo) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("accountId", accountId)
+                .addValue("afterCreatedAt", afterCreatedAt)
+                .addValue("afterId", afterId)
+                .addValue("upTo", upTo);
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) AS entries, COALESCE(SUM(CASE WHEN type = 'DEPOSIT' "
+                        + "THEN amount ELSE -amount END), 0) AS amount FROM ("
+                        + "SELECT type, amount FROM transactions WHERE " + LEDGER_DELTA
+                        + " UNION ALL SELECT type, amount FROM transactions_archive WHERE " + LEDGER_DELTA + ") tiers",
+                parameters, (row, rowNumber) -> new LedgerDeltaDto(row.getLong("entries"), row.getBigDecimal("amount")));
+    }
+
+    private record Position(LocalDateTime createdAt, long id) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.Transaction;
+
+import java.util.List;
+
+public interface TransactionBatchRepository {
+    /**
+     * Persists the transactions in JDBC batches of {@code hibernate.jdbc.batch_size} and sets their ids.
+     * The persistence context is flushed and cleared as it goes.
+     */
+    void batchInsert(List<Transaction> transactions);
+}
@@ -1,19 +1,72 @@
 package com.sparksmatrix.bank.repository;
 
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
 import com.sparksmatrix.bank.enums.TransactionType;
 import com.sparksmatrix.bank.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.account.id = :accountId AND t.type = :transactionType AND CAST(t.createdAt AS DATE) = CURRENT_DATE")
-    int countTransactionForTodayByType(@Param("accountId") Long accountId, @Param("transactionType") TransactionType transactionType);
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionBatchRepository,
+        TransactionArchiveRepository {
+    /**
+     * One page of an account's history, newest first, starting strictly after the given
+     * (createdAt, id) position. The seek condition lets every page start with an index range
+     * scan, however deep it is.
+     */
+    @Query("SELECT new com.sparksmatrix.bank.dto.TransactionHistoryItemDto(t.id, t.type, t.amount, t.createdAt) " +
+            "FROM Transaction t WHERE t.account.id = :accountId AND t.createdAt >= :from AND t.createdAt <= :beforeCreatedAt " +
+            "AND (t.createdAt < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionHistoryItemDto> findHistoryPage(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                                    @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                    @Param("beforeId") Long beforeId, Limit limit);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.id = :accountId AND t.type = :transactionType AND CAST(t.createdAt AS DATE) = CURRENT_DATE")
-    BigDecimal sumTransactionForTodayByType(@Param("accountId") Long accountId, @Param("transactionType") TransactionType transactionType);
+    @Query("SELECT new com.sparksmatrix.bank.dto.TransactionHistoryItemDto(t.id, t.type, t.amount, t.createdAt) " +
+            "FROM Transaction t WHERE t.account.id = :accountId AND t.type = :transactionType " +
+            "AND t.createdAt >= :from AND t.createdAt <= :beforeCreatedAt " +
+            "AND (t.createdAt < :beforeCreatedAt OR t.id < :beforeId) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionHistoryItemDto> findHistoryPageByType(@Param("accountId") Long accountId,
+                                                          @Param("transactionType") TransactionType transactionType,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                          @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Streams an account's transactions in [from, to), oldest first, as projections so that nothing
+     * accumulates in the persistence context. Rows are pulled from the JDBC cursor in chunks of the
+     * fetch size while the stream is consumed; it must be closed inside a read-only transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.sparksmatrix.bank.dto.TransactionHistoryItemDto(t.id, t.type, t.amount, t.createdAt) " +
+            "FROM Transaction t WHERE t.account.id = :accountId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<TransactionHistoryItemDto> streamStatement(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                                      @Param("to") LocalDateTime to);
+
+    /**
+     * Net effect of the account's transactions after the (afterCreatedAt, afterId) position, up to
+     * and including {@code upTo}: deposits add and withdrawals subtract.
+     */
+    @Query("SELECT new com.sparksmatrix.bank.dto.LedgerDeltaDto(COUNT(t), COALESCE(SUM(CASE " +
+            "WHEN t.type = com.sparksmatrix.bank.enums.TransactionType.DEPOSIT THEN t.amount ELSE -t.amount END), 0)) " +
+            "FROM Transaction t WHERE t.account.id = :accountId AND t.createdAt >= :afterCreatedAt " +
+            "AND (t.createdAt > :afterCreatedAt OR t.id > :afterId) AND t.createdAt <= :upTo")
+    LedgerDeltaDto sumLedgerDelta(@Param("accountId") Long accountId, @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                  @Param("afterId") Long afterId, @Param("upTo") LocalDateTime upTo);
 }
@@ -1,14 +1,20 @@
 package com.sparksmatrix.bank.service;
 
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.datasource.ReadRouting;
 import com.sparksmatrix.bank.dto.AccountBalanceResponseDto;
 import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.metrics.LedgerMetrics.Stage;
 import com.sparksmatrix.bank.model.Account;
 import com.sparksmatrix.bank.repository.AccountRepository;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -19,10 +25,26 @@ public class AccountServiceImpl implements  AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Value("${replica.datasource.url:}")
+    private String replicaUrl;
+
     @Override
     public ResponseWrapper createAccount(AccountCreateDto accountCreateDto) {
-        Optional<Account> optionalAccount = accountRepository
-                .findByAccountNumber(accountCreateDto.getAccountNumber());
+        return ledgerMetrics.operation("create_account", () -> applyCreateAccount(accountCreateDto));
+    }
+
+    private ResponseWrapper applyCreateAccount(AccountCreateDto accountCreateDto) {
+        Optional<Account> optionalAccount = ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP,
+                () -> accountRepository.findByAccountNumber(accountCreateDto.getAccountNumber()));
         if (optionalAccount.isPresent()) {
             return ResponseWrapper.builder()
                     .code(HttpStatus.CONFLICT.value())
@@ -36,7 +58,7 @@ public class AccountServiceImpl implements  AccountService {
                 .balance(BigDecimal.ZERO)
                 .build();
 
-        var savedAccount = accountRepository.save(account);
+        var savedAccount = ledgerMetrics.stage(Stage.INSERT, () -> accountRepository.save(account));
 
         return ResponseWrapper.builder()
                 .code(HttpStatus.CREATED.value())
@@ -46,12 +68,26 @@ public class AccountServiceImpl implements  AccountService {
 
     @Override
     public ResponseWrapper getAccountBalance(String accountNumber) {
-        Optional<BigDecimal> optionalBalance = accountRepository.getAccountBalance(accountNumber);
-        if(optionalBalance.isEmpty()) {
-            return ResponseWrapper.builder()
-                    .code(HttpStatus.NOT_FOUND.value())
-                    .message("Account not found")
-                    .build();
+        return ledgerMetrics.operation("balance", () -> readAccountBalance(accountNumber));
+    }
+
+    private ResponseWrapper readAccountBalance(String accountNumber) {
+        //hot accounts are served from the cache without touching the database
+        Optional<BigDecimal> optionalBalance = balanceCache.get(accountNumber);
+        if (optionalBalance.isEmpty()) {
+            //a balance this instance wrote recently may have been evicted, so read-your-writes still applies
+            optionalBalance = ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP, () -> readRouting.forAccount(accountNumber,
+                    () -> accountRepository.getAccountBalance(accountNumber)));
+            if(optionalBalance.isEmpty()) {
+                return ResponseWrapper.builder()
+                        .code(HttpStatus.NOT_FOUND.value())
+                        .message("Account not found")
+                        .build();
+            }
+            //a replica read may already be replica.max-staleness old, and would be served for the cache's whole TTL
+            if (!StringUtils.hasText(replicaUrl)) {
+                balanceCache.putIfAbsent(accountNumber, optionalBalance.get());
+            }
         }
 
         AccountBalanceResponseDto accountBalanceResponseDto = AccountBalanceResponseDto
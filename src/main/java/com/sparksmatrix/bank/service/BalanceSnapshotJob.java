@@ -0,0 +1,70 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.repository.AccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Takes balance snapshots of busy accounts and thins out old ones in the background.
+ */
+@Slf4j
+@Component
+public class BalanceSnapshotJob {
+
+    private static final int ACCOUNT_PAGE_SIZE = 500;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerReplayService ledgerReplayService;
+
+    @Value("${snapshots.settle-delay:PT1M}")
+    private Duration settleDelay;
+
+    @Value("${snapshots.compaction-age:P30D}")
+    private Duration compactionAge;
+
+    @Scheduled(fixedDelayString = "${snapshots.interval:PT15M}", initialDelayString = "${snapshots.interval:PT15M}")
+    public void snapshotAccounts() {
+        //created_at is stamped before commit, so the newest transactions may not be visible yet; leave them to the next run
+        LocalDateTime upTo = LocalDateTime.now().minus(settleDelay);
+
+        int taken = 0;
+        List<Long> accountIds = accountRepository.findIdsAfter(Long.MIN_VALUE, Limit.of(ACCOUNT_PAGE_SIZE));
+        while (!accountIds.isEmpty()) {
+            for (Long accountId : accountIds) {
+                try {
+                    if (ledgerReplayService.takeSnapshot(accountId, upTo)) {
+                        taken++;
+                    }
+                } catch (DataAccessException ex) {
+                    //another instance took the same snapshot, or the account was removed meanwhile
+                    log.warn("Skipped balance snapshot of account {}: {}", accountId, ex.getMessage());
+                }
+            }
+            accountIds = accountRepository.findIdsAfter(accountIds.get(accountIds.size() - 1), Limit.of(ACCOUNT_PAGE_SIZE));
+        }
+
+        if (taken > 0) {
+            log.info("Took {} balance snapshots up to {}", taken, upTo);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${snapshots.compaction-interval:PT24H}", initialDelayString = "${snapshots.compaction-interval:PT24H}")
+    public void compactSnapshots() {
+        int removed = ledgerReplayService.compactSnapshots(LocalDateTime.now().minus(compactionAge));
+        if (removed > 0) {
+            log.info("Compacted {} old balance snapshots", removed);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sparksmatrix.bank.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Resolves business days in the configured business time zone. Audit timestamps are
+ * stored as local date-times of the JVM zone, so day boundaries are converted back to
+ * that zone before they are used in queries.
+ */
+@Component
+public class BusinessCalendar {
+
+    private final ZoneId businessZone;
+
+    public BusinessCalendar(@Value("${business.time-zone:}") String timeZone) {
+        this.businessZone = StringUtils.hasText(timeZone) ? ZoneId.of(timeZone) : ZoneId.systemDefault();
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(businessZone);
+    }
+
+    /**
+     * @return the business day containing the given JVM-zone local date-time
+     */
+    public LocalDate dayOf(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(businessZone)
+                .toLocalDate();
+    }
+
+    /**
+     * @return the first instant of the given business day, as a JVM-zone local date-time
+     */
+    public LocalDateTime startOfDay(LocalDate day) {
+        return day.atStartOfDay(businessZone)
+                .withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+    }
+
+    /**
+     * @return the first instant of the business day after the given one, as a JVM-zone local date-time
+     */
+    public LocalDateTime startOfNextDay(LocalDate day) {
+        return startOfDay(day.plusDays(1));
+    }
+}
@@ -0,0 +1,144 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.repository.DailyAccountSummaryRepository;
+import com.sparksmatrix.bank.repository.DailyBankSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Rolls closed business days up into {@code daily_account_summary} and {@code daily_bank_summary},
+ * oldest first. A day is closed once {@code reports.rollup.settle-delay} has passed since its end.
+ * <p>
+ * Each day is split into {@code reports.rollup.partitions} partitions by account id that are
+ * rolled up in parallel, each in its own transaction, and only accounts with transactions on the
+ * day are written. The bank-wide row is written once every partition has succeeded, so the last
+ * bank-wide row is the checkpoint: after a crash the job starts again at the day after it and
+ * replaces whatever rows the interrupted run left behind.
+ * <p>
+ * A transaction whose commit takes longer than the settle delay can still land in a day that is
+ * already rolled up. Each run therefore compares the last {@code reports.rollup.recheck-days}
+ * rolled up days with their transactions, and rolls them up again from the first day that gained
+ * any.
+ */
+@Slf4j
+@Component
+public class DailyRollupJob {
+
+    @Autowired
+    private DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+    @Autowired
+    private DailyBankSummaryRepository dailyBankSummaryRepository;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Value("${reports.rollup.partitions:4}")
+    private int partitions;
+
+    @Value("${reports.rollup.settle-delay:PT1M}")
+    private Duration settleDelay;
+
+    @Value("${reports.rollup.recheck-days:2}")
+    private int recheckDays;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newFixedThreadPool(partitions, Thread.ofPlatform().name("daily-rollup-", 0).factory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${reports.rollup.interval:PT15M}", initialDelayString = "${reports.rollup.interval:PT15M}")
+    public void rollUpClosedDays() {
+        //created_at is stamped before commit, so a day is only closed once its last transactions are visible
+        LocalDate lastClosed = businessCalendar.dayOf(LocalDateTime.now().minus(settleDelay)).minusDays(1);
+
+        Optional<LocalDate> next = dailyBankSummaryRepository.findLastBusinessDate()
+                .map(this::firstDayToRollUp)
+                .or(() -> dailyAccountSummaryRepository.findFirstTransactionAt().map(businessCalendar::dayOf));
+        if (next.isEmpty()) {
+            return;
+        }
+        for (LocalDate day = next.get(); !day.isAfter(lastClosed); day = day.plusDays(1)) {
+            if (!rollUpDay(day)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the day after the last rolled up one, or the first of the last {@code recheckDays}
+     * rolled up days that gained transactions since it was rolled up
+     */
+    private LocalDate firstDayToRollUp(LocalDate lastRolledUp) {
+        for (LocalDate day = lastRolledUp.minusDays(recheckDays - 1); !day.isAfter(lastRolledUp); day = day.plusDays(1)) {
+            LocalDateTime start = businessCalendar.startOfDay(day);
+            if (dailyAccountSummaryRepository.hasUncountedTransactions(day, start, businessCalendar.startOfNextDay(day),
+                    transactionArchiveService.reachesArchive(start))) {
+                //the later days are rolled up again as well, since their closing balances moved with it
+                log.info("Rolling up {} again for transactions that committed after it was rolled up", day);
+                return day;
+            }
+        }
+        return lastRolledUp.plusDays(1);
+    }
+
+    /**
+     * @return whether every partition and the bank-wide row of the day were written
+     */
+    boolean rollUpDay(LocalDate day) {
+        LocalDateTime start = businessCalendar.startOfDay(day);
+        LocalDateTime end = businessCalendar.startOfNextDay(day);
+        boolean includeArchive = transactionArchiveService.reachesArchive(start);
+
+        List<Future<Integer>> results = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            int current = partition;
+            results.add(executor.submit(() -> dailyAccountSummaryRepository.rollUpAccounts(day, start, end, current,
+                    partitions, includeArchive)));
+        }
+
+        int accounts = 0;
+        try {
+            for (Future<Integer> result : results) {
+                accounts += result.get();
+            }
+        } catch (ExecutionException ex) {
+            //the partitions that succeeded are rolled up again on the next run
+            log.warn("Daily rollup of {} failed, retrying on the next run", day, ex.getCause());
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        dailyAccountSummaryRepository.rollUpBank(day, end, includeArchive);
+        log.info("Rolled up {} accounts for {}", accounts, day);
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+package com.sparksmatrix.bank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.error.exception.InternalServerException;
+import com.sparksmatrix.bank.model.IdempotencyRecord;
+import com.sparksmatrix.bank.repository.IdempotencyRecordRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates deposits and withdrawals sent with an {@code Idempotency-Key} header.
+ * <p>
+ * Recent keys live in a bounded in-memory index that expires entries after
+ * {@code idempotency.memory-window}. A repeat that hits the index gets the original response, or
+ * waits on the original request if it is still running, without touching the database. Keys that
+ * are not in the index are looked up in the {@code idempotency_keys} table, which the ledger
+ * writes in the same transaction as the posting itself. Two instances racing on one key are
+ * settled by that table's primary key: the loser rolls back and replays the winner's response.
+ * <p>
+ * Only successful postings are recorded; a rejected request can be retried with the same key.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private static final String DIFFERENT_REQUEST = "The Idempotency-Key was already used for a different request.";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration retention;
+
+    private final Cache<String, Entry> index;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.memory-size:100000}") long memorySize,
+                              @Value("${idempotency.memory-window:PT10M}") Duration memoryWindow,
+                              @Value("${idempotency.retention:P1D}") Duration retention) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(memorySize)
+                .expireAfterWrite(memoryWindow)
+                .build();
+    }
+
+    public static String fingerprint(TransactionType transactionType, String accountNumber, int amount) {
+        return transactionType + ":" + accountNumber + ":" + amount;
+    }
+
+    /**
+     * Runs the operation once per idempotency key. The key is stored on the request so that the
+     * ledger records it together with the posting.
+     */
+    public CompletableFuture<ResponseWrapper> execute(String idempotencyKey, TransactionType transactionType,
+                                                      TransactionRequestDto transactionRequestDto,
+                                                      Supplier<CompletableFuture<ResponseWrapper>> operation) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("The Idempotency-Key header must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+        String fingerprint = fingerprint(transactionType, transactionRequestDto.getAccountNumber(),
+                transactionRequestDto.getAmount());
+
+        Entry entry = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = index.asMap().putIfAbsent(idempotencyKey, entry);
+        if (existing != null) {
+            return existing.matching(fingerprint);
+        }
+
+        //not seen recently by this instance: it may have been recorded before a restart or by another instance
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(idempotencyKey);
+        if (stored.isPresent()) {
+            completeFromRecord(idempotencyKey, entry, stored.get());
+            return entry.response();
+        }
+
+        transactionRequestDto.setIdempotencyKey(idempotencyKey);
+        CompletableFuture<ResponseWrapper> result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        result.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                if (response.getCode() != HttpStatus.OK.value()) {
+                    index.asMap().remove(idempotencyKey, entry);
+                }
+                entry.response().complete(response);
+                return;
+            }
+
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            Optional<IdempotencyRecord> winner = cause instanceof DataIntegrityViolationException
+                    ? idempotencyRecordRepository.findById(idempotencyKey) : Optional.empty();
+            if (winner.isPresent()) {
+                completeFromRecord(idempotencyKey, entry, winner.get());
+            } else {
+                index.asMap().remove(idempotencyKey, entry);
+                entry.response().completeExceptionally(cause);
+            }
+        });
+        return entry.response();
+    }
+
+    /**
+     * Persists the response of a successful posting. Must run in the posting's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String idempotencyKey, String fingerprint, ResponseWrapper response) {
+        String responseData;
+        try {
+            responseData = objectMapper.writeValueAsString(response.getData());
+        } catch (JsonProcessingException ex) {
+            throw new InternalServerException("Could not store the idempotent response", ex);
+        }
+
+        idempotencyRecordRepository.saveAndFlush(IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .requestFingerprint(fingerprint)
+                .responseCode(response.getCode())
+                .responseMessage(response.getMessage())
+                .responseData(responseData)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}", initialDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private void completeFromRecord(String idempotencyKey, Entry entry, IdempotencyRecord record) {
+        if (record.getRequestFingerprint().equals(entry.fingerprint())) {
+            entry.response().complete(replay(record));
+        } else {
+            index.asMap().remove(idempotencyKey, entry);
+            entry.response().completeExceptionally(new BadRequestException(DIFFERENT_REQUEST));
+        }
+    }
+
+    private ResponseWrapper replay(IdempotencyRecord record) {
+        try {
+            return ResponseWrapper.builder()
+                    .code(record.getResponseCode())
+                    .message(record.getResponseMessage())
+                    .data(record.getResponseData() == null ? null : objectMapper.readTree(record.getResponseData()))
+                    .build();
+        } catch (JsonProcessingException ex) {
+            throw new InternalServerException("Could not read the idempotent response", ex);
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseWrapper> response) {
+
+        private CompletableFuture<ResponseWrapper> matching(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                return CompletableFuture.failedFuture(new BadRequestException(DIFFERENT_REQUEST));
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.journal.JournalRecord;
+import com.sparksmatrix.bank.journal.LedgerJournal;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import com.sparksmatrix.bank.model.QuarantinedJournalRecord;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.JournalCheckpointRepository;
+import com.sparksmatrix.bank.repository.QuarantinedJournalRecordRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-ahead journal for the ledger shards. With {@code ledger.journal.enabled}, a shard appends
+ * the postings it accepts to a {@link LedgerJournal} and answers as soon as they are on disk,
+ * instead of writing them to the database itself. A background applier drains the journal into
+ * the {@code accounts}, {@code account_daily_usage}, {@code transactions} and
+ * {@code idempotency_keys} tables, up to {@code ledger.journal.apply-batch-size} records per
+ * transaction, and advances {@code journal_checkpoint} in the same transaction.
+ * <p>
+ * On startup every record past the checkpoint is applied before the shards accept a posting.
+ * Records are applied in journal order, so the tables always reflect a prefix of the journal.
+ * <p>
+ * A batch that fails because the database is unavailable is retried as it is. Any other failure,
+ * such as a constraint violation, would fail again on every retry, so the batch is halved until
+ * the record at fault is found. That record is moved to {@code journal_quarantine} and counted in
+ * {@code ledger.journal.quarantined}, and the records after it are applied as usual. A record
+ * whose account no longer exists is quarantined the same way.
+ */
+@Slf4j
+@Service
+@ConditionalOnExpression("'${ledger.execution-mode:DIRECT}' == 'SHARDED' and ${ledger.journal.enabled:false}")
+public class LedgerJournalService {
+
+    private static final Duration CATCH_UP_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JournalCheckpointRepository journalCheckpointRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionServiceImpl;
+
+    @Autowired
+    private QuarantinedJournalRecordRepository quarantinedJournalRecordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ledger.journal.directory:journal}")
+    private String directory;
+
+    @Value("${ledger.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+
+    @Value("${ledger.journal.apply-batch-size:5000}")
+    private int applyBatchSize;
+
+    private LedgerJournal journal;
+    private TransactionTemplate transactionTemplate;
+    private Thread applier;
+    private volatile long appliedSequence;
+
+    private final ReentrantLock progressLock = new ReentrantLock();
+    private final Condition progress = progressLock.newCondition();
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        appliedSequence = journalCheckpointRepository.findAppliedSequence();
+        journal = new LedgerJournal(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), appliedSequence);
+
+        long unapplied = journal.durableSequence() - appliedSequence;
+        while (appliedSequence < journal.durableSequence()) {
+            applyNext();
+        }
+        if (unapplied > 0) {
+            log.info("Replayed {} ledger journal records up to {}", unapplied, appliedSequence);
+        }
+
+        applier = new Thread(this::run, "ledger-journal-applier");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        applier.interrupt();
+        try {
+            applier.join();
+            //the shards are stopped, so this drains the journal for good
+            while (appliedSequence < journal.durableSequence()) {
+                applyNext();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.error("Ledger journal not fully applied at shutdown; it is replayed from {} on restart", appliedSequence, ex);
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Appends the records and returns once they are on disk. Shards appending at the same time
+     * share one fsync.
+     *
+     * @return the sequence of the last record
+     */
+    public long append(List<JournalRecord> records) {
+        long sequence = journal.append(records);
+        journal.sync(sequence);
+        signalProgress();
+        return sequence;
+    }
+
+    /**
+     * @return whether the record with the given sequence, and every record before it, is in the database
+     */
+    public boolean isApplied(long sequence) {
+        return appliedSequence >= sequence;
+    }
+
+    /**
+     * Waits until every record on disk has been applied, so that the database is up to date.
+     */
+    public void awaitApplied() {
+        long target = journal.durableSequence();
+        long remaining = CATCH_UP_TIMEOUT.toNanos();
+        progressLock.lock();
+        try {
+            while (appliedSequence < target) {
+                if (remaining <= 0) {
+                    throw new ConcurrencyFailureException("The ledger journal is " + (target - appliedSequence)
+                            + " records behind");
+                }
+                remaining = progress.awaitNanos(remaining);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrencyFailureException("Interrupted while waiting for the ledger journal", ex);
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (appliedSequence >= journal.durableSequence()) {
+                    progressLock.lock();
+                    try {
+                        progress.await(10, TimeUnit.MILLISECONDS);
+                    } finally {
+                        progressLock.unlock();
+                    }
+                    continue;
+                }
+                applyNext();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Failed to apply ledger journal records after {}", appliedSequence, ex);
+                try {
+                    Thread.sleep(RETRY_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void applyNext() {
+        long from = appliedSequence + 1;
+        long to = Math.min(journal.durableSequence(), appliedSequence + applyBatchSize);
+        applyOrIsolate(from, journal.read(from, to));
+    }
+
+    /**
+     * Applies the records starting at sequence {@code from}, halving them on a failure that a
+     * retry would not fix until the failing record can be quarantined.
+     */
+    private void applyOrIsolate(long from, List<JournalRecord> records) {
+        long to = from + records.size() - 1;
+        List<QuarantinedJournalRecord> unknownAccounts;
+        try {
+            unknownAccounts = transactionTemplate.execute(status -> apply(from, records));
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                throw ex;
+            }
+            if (records.size() == 1) {
+                quarantine(from, records.get(0), ex);
+                return;
+            }
+            int half = records.size() / 2;
+            applyOrIsolate(from, records.subList(0, half));
+            applyOrIsolate(from + half, records.subList(half, records.size()));
+            return;
+        }
+        for (QuarantinedJournalRecord unknownAccount : unknownAccounts) {
+            ledgerMetrics.journalRecordQuarantined();
+            log.error("Quarantined ledger journal record {} for account {}; it is acknowledged but not in the ledger: {}",
+                    unknownAccount.getSequence(), unknownAccount.getAccountId(), unknownAccount.getError());
+        }
+        advanceTo(to);
+    }
+
+    private void quarantine(long sequence, JournalRecord record, RuntimeException ex) {
+        transactionTemplate.executeWithoutResult(status -> {
+            quarantinedJournalRecordRepository.save(quarantined(sequence, record,
+                    NestedExceptionUtils.getMostSpecificCause(ex).toString()));
+            journalCheckpointRepository.updateAppliedSequence(sequence);
+        });
+        ledgerMetrics.journalRecordQuarantined();
+        log.error("Quarantined ledger journal record {} for account {}; it is acknowledged but not in the ledger",
+                sequence, record.accountId(), ex);
+        advanceTo(sequence);
+    }
+
+    private static QuarantinedJournalRecord quarantined(long sequence, JournalRecord record, String error) {
+        return QuarantinedJournalRecord.builder()
+                .sequence(sequence)
+                .accountId(record.accountId())
+                .type(record.type())
+                .amount(record.amount().toDecimal())
+                .balanceAfter(record.balanceAfter().toDecimal())
+                .usageDate(record.usageDate())
+                .acceptedAt(record.acceptedAt())
+                .idempotencyKey(record.idempotencyKey())
+                .error(error.length() > QuarantinedJournalRecord.MAX_ERROR_LENGTH
+                        ? error.substring(0, QuarantinedJournalRecord.MAX_ERROR_LENGTH) : error)
+                .build();
+    }
+
+    private void advanceTo(long sequence) {
+        appliedSequence = sequence;
+        journal.releaseThrough(sequence);
+        signalProgress();
+    }
+
+    /**
+     * @return whether the failure says nothing about the records, so the same batch may succeed later
+     */
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof TransactionException;
+    }
+
+    /**
+     * @return the records of accounts that no longer exist, quarantined in the same transaction
+     */
+    private List<QuarantinedJournalRecord> apply(long from, List<JournalRecord> records) {
+        Map<Long, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(records.stream().map(JournalRecord::accountId).distinct().toList())
+                .forEach(account -> accounts.put(account.getId(), account));
+
+        Map<Long, Money> deltas = new LinkedHashMap<>();
+        Map<AccountDailyUsageId, AccountDailyUsage> usage = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>(records.size());
+        List<JournalRecord> applied = new ArrayList<>(records.size());
+        List<QuarantinedJournalRecord> unknownAccounts = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            JournalRecord record = records.get(i);
+            Account account = accounts.get(record.accountId());
+            if (account == null) {
+                //only possible when the account was removed or the journal outlived its database
+                unknownAccounts.add(quarantined(from + i, record, "Account " + record.accountId() + " does not exist"));
+                continue;
+            }
+            deltas.merge(record.accountId(),
+                    record.type() == TransactionType.DEPOSIT ? record.amount() : record.amount().negate(), Money::plus);
+            AccountDailyUsage dayUsage = usage.computeIfAbsent(
+                    new AccountDailyUsageId(record.accountId(), record.usageDate(), record.type()), AccountDailyUsage::empty);
+            dayUsage.setTransactionCount(dayUsage.getTransactionCount() + 1);
+            dayUsage.setTransactionSum(dayUsage.getTransactionSum().add(record.amount().toDecimal()));
+
+            transactions.add(Transaction.builder()
+                    .account(ShardedTransactionService.snapshot(account, record.balanceAfter().toDecimal()))
+                    .type(record.type())
+                    .amount(record.amount().toDecimal())
+                    .acceptedAt(record.acceptedAt())
+                    .build());
+            applied.add(record);
+        }
+
+        deltas.forEach((accountId, delta) -> accountRepository.adjustBalance(accountId, delta.toDecimal()));
+        usage.forEach((id, dayUsage) -> transactionServiceImpl.recordDailyUsage(id.getAccountId(), id.getType(),
+                id.getUsageDate(), dayUsage.getTransactionCount(), dayUsage.getTransactionSum()));
+        transactionRepository.batchInsert(transactions);
+
+        for (int i = 0; i < applied.size(); i++) {
+            JournalRecord record = applied.get(i);
+            if (record.idempotencyKey() != null) {
+                Transaction transaction = transactions.get(i);
+                idempotencyService.record(record.idempotencyKey(), IdempotencyService.fingerprint(record.type(),
+                        transaction.getAccount().getAccountNumber(), record.amount().toDecimal().intValueExact()),
+                        ShardedTransactionService.response(record.type(), transaction));
+            }
+        }
+        quarantinedJournalRecordRepository.saveAll(unknownAccounts);
+        journalCheckpointRepository.updateAppliedSequence(from + records.size() - 1);
+        return unknownAccounts;
+    }
+
+    private void signalProgress() {
+        progressLock.lock();
+        try {
+            progress.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+
+import java.time.LocalDateTime;
+
+public interface LedgerReplayService {
+    ResponseWrapper getBalanceAt(String accountNumber, LocalDateTime at);
+
+    boolean takeSnapshot(Long accountId, LocalDateTime upTo);
+
+    int compactSnapshots(LocalDateTime cutoff);
+}
@@ -0,0 +1,142 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.PointInTimeBalanceDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.BalanceSnapshot;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.BalanceSnapshotRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Treats the transactions table as an append-only event log ordered by (created_at, id) and
+ * rebuilds balances from it. A balance at any point in time is the nearest snapshot at or before
+ * that point plus the net of the transactions after it, so the cost of a replay depends on the
+ * snapshot interval rather than on the size of the account's history.
+ * <p>
+ * {@code accounts.balance} remains the current balance the write path checks against; replays
+ * never change it.
+ */
+@Service
+public class LedgerReplayServiceImpl implements LedgerReplayService {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Value("${snapshots.min-entries:1000}")
+    private int minEntries;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWrapper getBalanceAt(String accountNumber, LocalDateTime at) {
+        return readRouting.forAccount(accountNumber, () -> readBalanceAt(accountNumber, at));
+    }
+
+    private ResponseWrapper readBalanceAt(String accountNumber, LocalDateTime at) {
+        Optional<Account> optionalAccount = accountRepository.findByAccountNumber(accountNumber);
+        if (optionalAccount.isEmpty()) {
+            return ResponseWrapper.builder()
+                    .code(HttpStatus.NOT_FOUND.value())
+                    .message("Account not found")
+                    .build();
+        }
+
+        Optional<BalanceSnapshot> snapshot = latestSnapshot(optionalAccount.get().getId(), at);
+        LedgerDeltaDto delta = deltaSince(optionalAccount.get().getId(), snapshot, at);
+
+        PointInTimeBalanceDto pointInTimeBalanceDto = PointInTimeBalanceDto.builder()
+                .balance(balanceOf(snapshot).add(delta.getAmount()))
+                .at(at)
+                .replayedEntries(delta.getEntries())
+                .build();
+
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Balance fetched successfully")
+                .data(pointInTimeBalanceDto).build();
+    }
+
+    /**
+     * Records the account's balance after its last transaction at or before {@code upTo}, unless
+     * fewer than {@code snapshots.min-entries} transactions were posted since the previous snapshot.
+     *
+     * @return whether a snapshot was written
+     */
+    @Override
+    @Transactional
+    public boolean takeSnapshot(Long accountId, LocalDateTime upTo) {
+        List<TransactionHistoryItemDto> lastEntry = transactionRepository.findHistoryPage(accountId,
+                TransactionHistoryServiceImpl.EARLIEST, upTo, Long.MAX_VALUE, Limit.of(1));
+        if (lastEntry.isEmpty() || transactionArchiveService.reachesArchive(lastEntry.get(0).getCreatedAt())) {
+            lastEntry = transactionRepository.findTieredHistoryPage(accountId, null,
+                    TransactionHistoryServiceImpl.EARLIEST, upTo, Long.MAX_VALUE, 1);
+        }
+        if (lastEntry.isEmpty()) {
+            return false;
+        }
+
+        Optional<BalanceSnapshot> previous = latestSnapshot(accountId, upTo);
+        LedgerDeltaDto delta = deltaSince(accountId, previous, upTo);
+        if (delta.getEntries() == 0 || delta.getEntries() < minEntries) {
+            return false;
+        }
+
+        balanceSnapshotRepository.saveAndFlush(BalanceSnapshot.builder()
+                .accountId(accountId)
+                .lastTransactionId(lastEntry.get(0).getId())
+                .lastTransactionAt(lastEntry.get(0).getCreatedAt())
+                .balance(balanceOf(previous).add(delta.getAmount()))
+                .createdAt(LocalDateTime.now())
+                .build());
+        return true;
+    }
+
+    @Override
+    public int compactSnapshots(LocalDateTime cutoff) {
+        return balanceSnapshotRepository.compactBefore(cutoff);
+    }
+
+    private Optional<BalanceSnapshot> latestSnapshot(Long accountId, LocalDateTime at) {
+        return balanceSnapshotRepository.findLatestAtOrBefore(accountId, at, Limit.of(1)).stream().findFirst();
+    }
+
+    private LedgerDeltaDto deltaSince(Long accountId, Optional<BalanceSnapshot> snapshot, LocalDateTime upTo) {
+        LocalDateTime afterCreatedAt = snapshot.map(BalanceSnapshot::getLastTransactionAt)
+                .orElse(TransactionHistoryServiceImpl.EARLIEST);
+        long afterId = snapshot.map(BalanceSnapshot::getLastTransactionId).orElse(Long.MIN_VALUE);
+        if (transactionArchiveService.reachesArchive(afterCreatedAt)) {
+            return transactionRepository.sumTieredLedgerDelta(accountId, afterCreatedAt, afterId, upTo);
+        }
+        return transactionRepository.sumLedgerDelta(accountId, afterCreatedAt, afterId, upTo);
+    }
+
+    private static BigDecimal balanceOf(Optional<BalanceSnapshot> snapshot) {
+        return snapshot.map(BalanceSnapshot::getBalance).orElse(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,13 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLedgerService {
+    Mono<ResponseWrapper> createAccount(AccountCreateDto accountCreateDto);
+    Mono<ResponseWrapper> getAccountBalance(String accountNumber);
+    Mono<ResponseWrapper> deposit(TransactionRequestDto transactionRequestDto);
+    Mono<ResponseWrapper> withdraw(TransactionRequestDto transactionRequestDto);
+}
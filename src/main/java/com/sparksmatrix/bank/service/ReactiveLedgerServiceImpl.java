@@ -0,0 +1,197 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.AccountBalanceResponseDto;
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.metrics.LedgerMetrics.Rejection;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.ReactiveAccountDailyUsageRepository;
+import com.sparksmatrix.bank.repository.ReactiveAccountRepository;
+import com.sparksmatrix.bank.repository.ReactiveTransactionRepository;
+import com.sparksmatrix.bank.utils.Money;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The account API of the {@code reactive} profile, on R2DBC instead of JPA.
+ * <p>
+ * Limits are checked by the same {@link TransactionServiceImpl} rules as on the servlet stack. A
+ * posting locks its account row with {@code SELECT ... FOR UPDATE} for the length of its
+ * transaction, so the limit and balance checks cannot race a concurrent posting.
+ */
+@Profile("reactive")
+@Service
+public class ReactiveLedgerServiceImpl implements ReactiveLedgerService {
+
+    @Autowired
+    private ReactiveAccountRepository reactiveAccountRepository;
+
+    @Autowired
+    private ReactiveTransactionRepository reactiveTransactionRepository;
+
+    @Autowired
+    private ReactiveAccountDailyUsageRepository reactiveAccountDailyUsageRepository;
+
+    @Autowired
+    private TransactionServiceImpl transactionServiceImpl;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired
+    private TransactionalOperator reactiveTransactionalOperator;
+
+    @Override
+    public Mono<ResponseWrapper> createAccount(AccountCreateDto accountCreateDto) {
+        return ledgerMetrics.operation("create_account", applyCreateAccount(accountCreateDto));
+    }
+
+    private Mono<ResponseWrapper> applyCreateAccount(AccountCreateDto accountCreateDto) {
+        return reactiveAccountRepository.findByAccountNumber(accountCreateDto.getAccountNumber())
+                .<ResponseWrapper>map(existing -> ResponseWrapper.builder()
+                        .code(HttpStatus.CONFLICT.value())
+                        .message("Account already exists")
+                        .build())
+                .switchIfEmpty(Mono.defer(() -> reactiveAccountRepository.save(Account.builder()
+                                .name(accountCreateDto.getName())
+                                .accountNumber(accountCreateDto.getAccountNumber())
+                                .balance(BigDecimal.ZERO)
+                                .build())
+                        .<ResponseWrapper>map(savedAccount -> ResponseWrapper.builder()
+                                .code(HttpStatus.CREATED.value())
+                                .message("Account created successfully")
+                                .data(savedAccount).build())));
+    }
+
+    @Override
+    public Mono<ResponseWrapper> getAccountBalance(String accountNumber) {
+        return ledgerMetrics.operation("balance", readAccountBalance(accountNumber));
+    }
+
+    private Mono<ResponseWrapper> readAccountBalance(String accountNumber) {
+        //hot accounts are served from the cache without touching the database
+        Mono<BigDecimal> balance = Mono.justOrEmpty(balanceCache.get(accountNumber))
+                .switchIfEmpty(Mono.defer(() -> reactiveAccountRepository.getAccountBalance(accountNumber)
+                        .doOnNext(loaded -> balanceCache.putIfAbsent(accountNumber, loaded))));
+
+        return balance
+                .<ResponseWrapper>map(found -> ResponseWrapper.builder()
+                        .code(HttpStatus.OK.value())
+                        .message("Balance fetched successfully")
+                        .data(AccountBalanceResponseDto.builder().balance(found).build()).build())
+                .defaultIfEmpty(notFound());
+    }
+
+    @Override
+    public Mono<ResponseWrapper> deposit(TransactionRequestDto transactionRequestDto) {
+        return ledgerMetrics.operation("deposit",
+                post(transactionRequestDto, TransactionType.DEPOSIT, "Deposit successful"));
+    }
+
+    @Override
+    public Mono<ResponseWrapper> withdraw(TransactionRequestDto transactionRequestDto) {
+        return ledgerMetrics.operation("withdraw",
+                post(transactionRequestDto, TransactionType.WITHDRAWAL, "Withdrawal successful"));
+    }
+
+    private Mono<ResponseWrapper> post(TransactionRequestDto transactionRequestDto, TransactionType transactionType,
+                                       String message) {
+        return Mono.defer(() -> {
+            //check max amount per transaction isn't exceeded
+            transactionServiceImpl.validateTransactionAmount(transactionType, transactionRequestDto.getAmount());
+
+            Money amount = Money.ofMajor(transactionRequestDto.getAmount());
+            LocalDate today = businessCalendar.today();
+            return reactiveAccountRepository.findByAccountNumberForUpdate(transactionRequestDto.getAccountNumber())
+                    .flatMap(account -> {
+                        AccountDailyUsageId usageId = new AccountDailyUsageId(account.getId(), today, transactionType);
+                        return reactiveAccountDailyUsageRepository.findById(usageId)
+                                .defaultIfEmpty(AccountDailyUsage.empty(usageId))
+                                .flatMap(usage -> {
+                                    //validate frequency and max daily amount
+                                    transactionServiceImpl.validateDailyLimits(transactionType, amount,
+                                            usage.getTransactionCount(), Money.of(usage.getTransactionSum()));
+                                    return persistTransactionAndUpdateBalance(account, amount, transactionType, today);
+                                });
+                    })
+                    .as(reactiveTransactionalOperator::transactional)
+                    .doOnNext(transaction -> balanceCache.put(transaction.getAccount().getAccountNumber(),
+                            transaction.getAccount().getBalance(), transaction.getAccount().getVersion()))
+                    .<ResponseWrapper>map(transaction -> ResponseWrapper.builder()
+                            .code(HttpStatus.OK.value())
+                            .message(message)
+                            .data(transaction).build())
+                    .defaultIfEmpty(notFound());
+        });
+    }
+
+    private Mono<Transaction> persistTransactionAndUpdateBalance(Account account, Money amount,
+                                                                 TransactionType transactionType, LocalDate today) {
+        //the account row is locked, so its balance and version are exact
+        Money openingBalance = Money.of(account.getBalance());
+        if (transactionType == TransactionType.WITHDRAWAL && openingBalance.isLessThan(amount)) {
+            ledgerMetrics.rejected(Rejection.INSUFFICIENT_BALANCE, TransactionType.WITHDRAWAL);
+            return Mono.error(new BadRequestException("Insufficient balance."));
+        }
+
+        BigDecimal postedAmount = amount.toDecimal();
+        Mono<Long> balanceUpdate = transactionType == TransactionType.DEPOSIT
+                ? reactiveAccountRepository.creditBalance(account.getAccountNumber(), postedAmount)
+                : reactiveAccountRepository.debitBalance(account.getAccountNumber(), postedAmount);
+
+        return balanceUpdate
+                .flatMap(updated -> {
+                    Money balance = transactionType == TransactionType.DEPOSIT
+                            ? openingBalance.plus(amount) : openingBalance.minus(amount);
+                    account.setBalance(balance.toDecimal());
+                    account.setVersion(account.getVersion() + 1);
+                    return reactiveTransactionRepository.save(Transaction.builder()
+                            .account(account)
+                            .type(transactionType)
+                            .amount(postedAmount)
+                            .build());
+                })
+                .flatMap(transaction -> recordDailyUsage(account.getId(), transactionType, today, postedAmount)
+                        .thenReturn(transaction));
+    }
+
+    private Mono<Void> recordDailyUsage(Long accountId, TransactionType transactionType, LocalDate today,
+                                        BigDecimal amount) {
+        return reactiveAccountDailyUsageRepository.incrementUsage(accountId, today, transactionType, 1, amount)
+                .flatMap(updated -> updated > 0 ? Mono.<Long>empty() : reactiveAccountDailyUsageRepository.insert(
+                        AccountDailyUsage.builder()
+                                .id(new AccountDailyUsageId(accountId, today, transactionType))
+                                .transactionCount(1)
+                                .transactionSum(amount)
+                                .build()))
+                .then();
+    }
+
+    private static ResponseWrapper notFound() {
+        return ResponseWrapper.builder()
+                .code(HttpStatus.NOT_FOUND.value())
+                .message("Account not found")
+                .build();
+    }
+}
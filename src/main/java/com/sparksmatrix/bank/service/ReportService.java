@@ -0,0 +1,9 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+
+import java.time.LocalDate;
+
+public interface ReportService {
+    ResponseWrapper getDailyReport(LocalDate date, Long afterAccountId, Integer limit);
+}
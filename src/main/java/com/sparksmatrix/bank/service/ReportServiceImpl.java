@@ -0,0 +1,81 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.DailyAccountSummaryDto;
+import com.sparksmatrix.bank.dto.DailyReportDto;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.DailyBankSummary;
+import com.sparksmatrix.bank.repository.DailyAccountSummaryRepository;
+import com.sparksmatrix.bank.repository.DailyBankSummaryRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Serves the daily report from the rollups written by {@link DailyRollupJob}; it never reads
+ * the ledger itself. Days that have not been rolled up yet are reported as not found.
+ */
+@Service
+public class ReportServiceImpl implements ReportService {
+
+    @Autowired
+    private DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+    @Autowired
+    private DailyBankSummaryRepository dailyBankSummaryRepository;
+
+    @Value("${reports.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${reports.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWrapper getDailyReport(LocalDate date, Long afterAccountId, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("The limit must be between 1 and " + maxPageSize + ".");
+        }
+
+        Optional<DailyBankSummary> optionalTotals = dailyBankSummaryRepository.findById(date);
+        if (optionalTotals.isEmpty()) {
+            return ResponseWrapper.builder()
+                    .code(HttpStatus.NOT_FOUND.value())
+                    .message("No daily report for " + date + " yet")
+                    .build();
+        }
+
+        //one extra row tells whether there is a next page
+        List<DailyAccountSummaryDto> accounts = dailyAccountSummaryRepository.findPage(date,
+                afterAccountId == null ? Long.MIN_VALUE : afterAccountId, Limit.of(pageSize + 1));
+        Long nextAfterAccountId = null;
+        if (accounts.size() > pageSize) {
+            accounts = accounts.subList(0, pageSize);
+            nextAfterAccountId = accounts.get(pageSize - 1).getAccountId();
+        }
+
+        DailyBankSummary totals = optionalTotals.get();
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Daily report fetched successfully")
+                .data(DailyReportDto.builder()
+                        .date(date)
+                        .activeAccounts(totals.getActiveAccounts())
+                        .depositCount(totals.getDepositCount())
+                        .depositSum(totals.getDepositSum())
+                        .withdrawalCount(totals.getWithdrawalCount())
+                        .withdrawalSum(totals.getWithdrawalSum())
+                        .closingBalance(totals.getClosingBalance())
+                        .accounts(accounts)
+                        .nextAfterAccountId(nextAfterAccountId)
+                        .build()).build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.error.exception.InternalServerException;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link TransactionServiceImpl} operations in a fresh database transaction per attempt and
+ * retries them on optimistic or pessimistic locking conflicts, with exponential backoff and full
+ * jitter between attempts. Used when {@code ledger.execution-mode} is {@code DIRECT}, the default.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "ledger.execution-mode", havingValue = "DIRECT", matchIfMissing = true)
+public class RetryingTransactionService implements TransactionService {
+
+    private final TransactionServiceImpl delegate;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public RetryingTransactionService(TransactionServiceImpl delegate,
+                                      @Value("${account.retry.max-attempts:5}") int maxAttempts,
+                                      @Value("${account.retry.initial-backoff-ms:5}") long initialBackoffMillis,
+                                      @Value("${account.retry.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    @Override
+    public ResponseWrapper deposit(TransactionRequestDto transactionRequestDto) {
+        return execute(() -> delegate.deposit(transactionRequestDto));
+    }
+
+    @Override
+    public ResponseWrapper withdraw(TransactionRequestDto transactionRequestDto) {
+        return execute(() -> delegate.withdraw(transactionRequestDto));
+    }
+
+    @Override
+    public ResponseWrapper postBatch(List<BatchTransactionItemDto> transactionItems) {
+        return execute(() -> delegate.postBatch(transactionItems));
+    }
+
+    @Override
+    public ResponseWrapper transfer(TransferRequestDto transferRequestDto) {
+        return execute(() -> delegate.transfer(transferRequestDto));
+    }
+
+    /**
+     * @return the number of attempts that have been retried since startup
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    private ResponseWrapper execute(Supplier<ResponseWrapper> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up after {} attempts: {}", attempt, ex.getMessage());
+                    throw ex;
+                }
+                retryCount.incrementAndGet();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Interrupted while waiting to retry", ex);
+        }
+    }
+}
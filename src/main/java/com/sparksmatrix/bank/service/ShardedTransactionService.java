@@ -0,0 +1,595 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.BatchTransactionResultDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.error.exception.InternalServerException;
+import com.sparksmatrix.bank.journal.JournalRecord;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountDailyUsageRepository;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.AppConstants;
+import com.sparksmatrix.bank.utils.Money;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Serializes ledger writes per account without database row locks. Every deposit and withdrawal
+ * is routed by the hash of its account number to one of {@code ledger.shards} single-threaded
+ * shards. A shard owns the balance and daily usage of its accounts in memory, so limit checks
+ * need no locks or re-reads, and it writes whatever queued up while it was busy as one
+ * micro-batch in a single database transaction. Futures complete after that transaction commits.
+ * A shard keeps up to {@code ledger.shard.max-accounts} accounts, and drops the least recently
+ * used ones once the database has caught up with them.
+ * <p>
+ * A transfer touches accounts that may belong to two shards. It pauses the shards that own them,
+ * in shard order so that concurrent transfers cannot wait on each other in a cycle, posts through
+ * {@link TransactionServiceImpl} while they are idle, and lets them reload both accounts afterwards.
+ * <p>
+ * With {@code ledger.journal.enabled}, a shard hands its micro-batch to the
+ * {@link LedgerJournalService} instead, and futures complete once the batch is in the journal on
+ * disk. The database catches up in the background; a transfer waits for it before posting.
+ * <p>
+ * If the micro-batch transaction fails, its postings are retried one at a time, so that one bad
+ * posting only fails its own caller.
+ * <p>
+ * Used when {@code ledger.execution-mode} is {@code SHARDED}. The shards assume they are the only
+ * writers of the balances and daily usage they cache, and balances are written as unconditional
+ * deltas, so a second writer is not detected: two instances could each accept withdrawals against
+ * the same balance and overdraw it. Sharded mode therefore needs exactly one instance writing to
+ * the ledger; other instances may serve reads, but must not post deposits, withdrawals or transfers
+ * in any mode.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "ledger.execution-mode", havingValue = "SHARDED")
+public class ShardedTransactionService implements TransactionService {
+
+    @Autowired
+    private TransactionServiceImpl transactionServiceImpl;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountDailyUsageRepository accountDailyUsageRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
+    @Autowired(required = false)
+    private LedgerJournalService ledgerJournalService;
+
+    @Value("${ledger.shards:0}")
+    private int shardCount;
+
+    @Value("${ledger.shard.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ledger.shard.max-batch-size:256}")
+    private int maxBatchSize;
+
+    @Value("${ledger.shard.max-accounts:100000}")
+    private int maxAccounts;
+
+    @Value("${batch.max-items:1000}")
+    private int maxBatchItems;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    public void start() {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, transactionTemplate);
+            shards[i].thread.start();
+        }
+        log.info("Started {} ledger shards", count);
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            List<Command> abandoned = new ArrayList<>();
+            shard.queue.drainTo(abandoned);
+            abandoned.forEach(command -> command.result().completeExceptionally(
+                    new InternalServerException("The ledger is shutting down")));
+        }
+    }
+
+    @Override
+    public ResponseWrapper deposit(TransactionRequestDto transactionRequestDto) {
+        return join(depositAsync(transactionRequestDto));
+    }
+
+    @Override
+    public ResponseWrapper withdraw(TransactionRequestDto transactionRequestDto) {
+        return join(withdrawAsync(transactionRequestDto));
+    }
+
+    @Override
+    public CompletableFuture<ResponseWrapper> depositAsync(TransactionRequestDto transactionRequestDto) {
+        return submit(TransactionType.DEPOSIT, transactionRequestDto.getAccountNumber(), transactionRequestDto.getAmount(),
+                transactionRequestDto.getIdempotencyKey());
+    }
+
+    @Override
+    public CompletableFuture<ResponseWrapper> withdrawAsync(TransactionRequestDto transactionRequestDto) {
+        return submit(TransactionType.WITHDRAWAL, transactionRequestDto.getAccountNumber(), transactionRequestDto.getAmount(),
+                transactionRequestDto.getIdempotencyKey());
+    }
+
+    @Override
+    public ResponseWrapper postBatch(List<BatchTransactionItemDto> transactionItems) {
+        if (transactionItems == null || transactionItems.isEmpty()) {
+            throw new BadRequestException("Please provide at least one transaction.");
+        }
+        if (transactionItems.size() > maxBatchItems) {
+            throw new BadRequestException("A batch can contain at most " + maxBatchItems + " transactions.");
+        }
+
+        //submitting in input order keeps each account's items in order, since they share a shard
+        List<CompletableFuture<ResponseWrapper>> submitted = new ArrayList<>();
+        for (BatchTransactionItemDto item : transactionItems) {
+            if (item == null) {
+                submitted.add(CompletableFuture.failedFuture(new BadRequestException(TransactionServiceImpl.MISSING_BATCH_ITEM)));
+                continue;
+            }
+            Set<ConstraintViolation<BatchTransactionItemDto>> violations = validator.validate(item);
+            submitted.add(violations.isEmpty()
+                    ? submit(item.getType(), item.getAccountNumber(), item.getAmount(), null)
+                    : CompletableFuture.failedFuture(new BadRequestException(violations.iterator().next().getMessage())));
+        }
+
+        List<BatchTransactionResultDto> results = new ArrayList<>();
+        for (int index = 0; index < transactionItems.size(); index++) {
+            BatchTransactionItemDto item = transactionItems.get(index);
+            try {
+                ResponseWrapper response = join(submitted.get(index));
+                results.add(response.getCode() == HttpStatus.OK.value()
+                        ? BatchTransactionResultDto.accepted(index, item, ((Transaction) response.getData()).getId())
+                        : BatchTransactionResultDto.rejected(index, item, HttpStatus.valueOf(response.getCode()), response.getMessage()));
+            } catch (BadRequestException ex) {
+                results.add(BatchTransactionResultDto.rejected(index, item, HttpStatus.BAD_REQUEST, ex.getMessage()));
+            } catch (RuntimeException ex) {
+                //the other items may already be committed on their shards, so the batch still answers for each one
+                log.warn("Batch item {} for account {} failed", index, item.getAccountNumber(), ex);
+                results.add(rejected(index, item, ex));
+            }
+        }
+
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Batch processed")
+                .data(results).build();
+    }
+
+    @Override
+    public ResponseWrapper transfer(TransferRequestDto transferRequestDto) {
+        String fromAccountNumber = transferRequestDto.getFromAccountNumber();
+        String toAccountNumber = transferRequestDto.getToAccountNumber();
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw new BadRequestException("Cannot transfer to the same account.");
+        }
+
+        int first = shardIndex(fromAccountNumber);
+        int second = shardIndex(toAccountNumber);
+        int[] owners = first == second ? new int[]{first} : new int[]{Math.min(first, second), Math.max(first, second)};
+
+        Pause pause = new Pause(fromAccountNumber, toAccountNumber, new CountDownLatch(1));
+        try {
+            for (int owner : owners) {
+                //a shard is idle once it reaches the pause, with everything queued before it committed
+                CompletableFuture<ResponseWrapper> paused = new CompletableFuture<>();
+                Shard shard = shards[owner];
+                if (!shard.queue.offer(new Command(null, null, 0, null, paused, pause))) {
+                    throw new ConcurrencyFailureException("Ledger shard " + shard.index + " is full");
+                }
+                join(paused);
+            }
+            if (ledgerJournalService != null) {
+                ledgerJournalService.awaitApplied();
+            }
+            return transactionServiceImpl.transfer(transferRequestDto);
+        } finally {
+            pause.resume().countDown();
+        }
+    }
+
+    private CompletableFuture<ResponseWrapper> submit(TransactionType type, String accountNumber, int amount,
+                                                      String idempotencyKey) {
+        CompletableFuture<ResponseWrapper> result = new CompletableFuture<>();
+        Shard shard = shards[shardIndex(accountNumber)];
+        if (!shard.queue.offer(new Command(type, accountNumber, amount, idempotencyKey, result, null))) {
+            result.completeExceptionally(new ConcurrencyFailureException("Ledger shard " + shard.index + " is full"));
+        }
+        return result;
+    }
+
+    private int shardIndex(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), shards.length);
+    }
+
+    private static ResponseWrapper join(CompletableFuture<ResponseWrapper> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * A posting, or a pause of the shard while a transfer runs when {@code pause} is set.
+     */
+    private record Command(TransactionType type, String accountNumber, int amount, String idempotencyKey,
+                           CompletableFuture<ResponseWrapper> result, Pause pause) {
+    }
+
+    private record Pause(String fromAccountNumber, String toAccountNumber, CountDownLatch resume) {
+    }
+
+    private record Posting(Command command, Transaction transaction) {
+    }
+
+    /**
+     * In-memory view of one account, owned by the shard thread it hashes to.
+     */
+    private static final class AccountState {
+        private final Account account;
+        private Money balance;
+        private long version;
+        private Money pendingDelta = Money.ZERO;
+        private long journaledThrough;
+        private final Map<TransactionType, AccountDailyUsage> usage = new EnumMap<>(TransactionType.class);
+        private final Map<TransactionType, AccountDailyUsage> pendingUsage = new EnumMap<>(TransactionType.class);
+
+        private AccountState(Account account) {
+            this.account = account;
+            this.balance = Money.of(account.getBalance());
+            this.version = account.getVersion();
+        }
+
+        private void clearPending() {
+            pendingDelta = Money.ZERO;
+            pendingUsage.clear();
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final int index;
+        private final BlockingQueue<Command> queue;
+        private final Thread thread;
+        private final TransactionTemplate transactionTemplate;
+        private final Map<String, AccountState> accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AccountState> eldest) {
+                return size() > maxAccounts && isSettled(eldest.getValue());
+            }
+        };
+
+        private Shard(int index, TransactionTemplate transactionTemplate) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.transactionTemplate = transactionTemplate;
+            this.thread = new Thread(this, "ledger-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(maxBatchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                int start = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (batch.get(i).pause() != null) {
+                        processSafely(batch.subList(start, i));
+                        pause(batch.get(i));
+                        start = i + 1;
+                    }
+                }
+                processSafely(batch.subList(start, batch.size()));
+                batch.clear();
+            }
+        }
+
+        private void processSafely(List<Command> commands) {
+            if (commands.isEmpty()) {
+                return;
+            }
+            try {
+                process(commands);
+            } catch (RuntimeException ex) {
+                log.error("Ledger shard {} failed to process a batch", index, ex);
+                commands.forEach(command -> command.result().completeExceptionally(ex));
+            }
+        }
+
+        private void pause(Command command) {
+            command.result().complete(null);
+            try {
+                command.pause().resume().await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            //the transfer changed these balances and usage behind the shard's back
+            accounts.remove(command.pause().fromAccountNumber());
+            accounts.remove(command.pause().toAccountNumber());
+        }
+
+        private void process(List<Command> batch) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = businessCalendar.dayOf(now);
+            List<Posting> postings = new ArrayList<>();
+            Set<AccountState> touched = new LinkedHashSet<>();
+
+            for (Command command : batch) {
+                AccountState state = findAccount(command.accountNumber());
+                if (state == null) {
+                    command.result().complete(ResponseWrapper.builder()
+                            .code(HttpStatus.NOT_FOUND.value())
+                            .message("Account not found")
+                            .build());
+                    continue;
+                }
+
+                Money amount = Money.ofMajor(command.amount());
+                try {
+                    transactionServiceImpl.validateTransactionAmount(command.type(), command.amount());
+                    AccountDailyUsage usage = todayUsage(state, command.type(), today);
+                    transactionServiceImpl.validateDailyLimits(command.type(), amount,
+                            usage.getTransactionCount(), Money.of(usage.getTransactionSum()));
+                    if (command.type() == TransactionType.WITHDRAWAL && state.balance.isLessThan(amount)) {
+                        ledgerMetrics.rejected(LedgerMetrics.Rejection.INSUFFICIENT_BALANCE, TransactionType.WITHDRAWAL);
+                        throw new BadRequestException("Insufficient balance.");
+                    }
+                } catch (BadRequestException ex) {
+                    command.result().completeExceptionally(ex);
+                    continue;
+                }
+
+                Money signedAmount = command.type() == TransactionType.DEPOSIT ? amount : amount.negate();
+                state.balance = state.balance.plus(signedAmount);
+                state.pendingDelta = state.pendingDelta.plus(signedAmount);
+                BigDecimal postedAmount = amount.toDecimal();
+                addUsage(state.usage.get(command.type()), postedAmount);
+                addUsage(state.pendingUsage.computeIfAbsent(command.type(), type -> AccountDailyUsage.empty(
+                        new AccountDailyUsageId(state.account.getId(), today, type))), postedAmount);
+                touched.add(state);
+
+                postings.add(new Posting(command, Transaction.builder()
+                        .account(snapshot(state.account, state.balance.toDecimal()))
+                        .type(command.type())
+                        .amount(postedAmount)
+                        .acceptedAt(now)
+                        .build()));
+            }
+
+            if (postings.isEmpty()) {
+                return;
+            }
+            if (ledgerJournalService != null) {
+                journal(postings, touched, today);
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (AccountState state : touched) {
+                        accountRepository.adjustBalance(state.account.getId(), state.pendingDelta.toDecimal());
+                        state.pendingUsage.forEach((type, usage) -> transactionServiceImpl.recordDailyUsage(
+                                state.account.getId(), type, today, usage.getTransactionCount(), usage.getTransactionSum()));
+                    }
+                    transactionRepository.batchInsert(postings.stream().map(Posting::transaction).toList());
+                    for (Posting posting : postings) {
+                        Command command = posting.command();
+                        if (command.idempotencyKey() != null) {
+                            idempotencyService.record(command.idempotencyKey(), IdempotencyService.fingerprint(
+                                    command.type(), command.accountNumber(), command.amount()), response(posting));
+                        }
+                    }
+                });
+            } catch (RuntimeException ex) {
+                //the in-memory state ran ahead of the database; reload these accounts on next use
+                touched.forEach(state -> accounts.remove(state.account.getAccountNumber()));
+                if (postings.size() == 1) {
+                    postings.get(0).command().result().completeExceptionally(ex);
+                    return;
+                }
+                //one bad posting, such as a reused idempotency key, must not fail the unrelated ones
+                log.warn("Ledger shard {} failed a batch of {} postings; posting them one at a time", index,
+                        postings.size(), ex);
+                postings.forEach(posting -> process(List.of(posting.command())));
+                return;
+            }
+
+            for (AccountState state : touched) {
+                //each flushed account got exactly one balance update, which bumped its version
+                state.version++;
+                state.clearPending();
+                balanceCache.put(state.account.getAccountNumber(), state.balance.toDecimal(), state.version);
+            }
+            postings.forEach(posting -> posting.command().result().complete(response(posting)));
+        }
+
+        private void journal(List<Posting> postings, Set<AccountState> touched, LocalDate today) {
+            long sequence;
+            try {
+                sequence = ledgerJournalService.append(postings.stream().map(posting -> new JournalRecord(
+                        posting.transaction().getAccount().getId(),
+                        posting.command().type(),
+                        Money.of(posting.transaction().getAmount()),
+                        Money.of(posting.transaction().getAccount().getBalance()),
+                        today,
+                        posting.transaction().getAcceptedAt(),
+                        posting.command().idempotencyKey())).toList());
+            } catch (RuntimeException ex) {
+                //the journal takes no more writes after a failure; a restart replays what reached the disk
+                touched.forEach(state -> accounts.remove(state.account.getAccountNumber()));
+                postings.forEach(posting -> posting.command().result().completeExceptionally(ex));
+                return;
+            }
+
+            for (AccountState state : touched) {
+                //the database version only moves when the journal is applied, so the cached version stays put
+                state.clearPending();
+                state.journaledThrough = sequence;
+                balanceCache.put(state.account.getAccountNumber(), state.balance.toDecimal(), state.version);
+            }
+            postings.forEach(posting -> posting.command().result().complete(response(posting)));
+        }
+
+        /**
+         * @return whether the database has caught up with the account, so that it may be evicted
+         * and reloaded later
+         */
+        private boolean isSettled(AccountState state) {
+            return state.pendingUsage.isEmpty()
+                    && (ledgerJournalService == null || ledgerJournalService.isApplied(state.journaledThrough));
+        }
+
+        private AccountState findAccount(String accountNumber) {
+            AccountState state = accounts.get(accountNumber);
+            if (state == null) {
+                //unknown accounts are not cached, so an account created later is picked up
+                Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
+                if (account.isEmpty()) {
+                    return null;
+                }
+                state = new AccountState(account.get());
+                accounts.put(accountNumber, state);
+            }
+            return state;
+        }
+
+        private AccountDailyUsage todayUsage(AccountState state, TransactionType type, LocalDate today) {
+            AccountDailyUsage usage = state.usage.get(type);
+            if (usage == null || !usage.getId().getUsageDate().equals(today)) {
+                AccountDailyUsageId usageId = new AccountDailyUsageId(state.account.getId(), today, type);
+                usage = accountDailyUsageRepository.findById(usageId)
+                        .orElseGet(() -> AccountDailyUsage.empty(usageId));
+                state.usage.put(type, usage);
+            }
+            return usage;
+        }
+    }
+
+    private static BatchTransactionResultDto rejected(int index, BatchTransactionItemDto item, RuntimeException ex) {
+        if (ex instanceof ConcurrencyFailureException) {
+            return BatchTransactionResultDto.rejected(index, item, HttpStatus.CONFLICT, "The account is busy, please try again");
+        }
+        if (ex instanceof CannotCreateTransactionException || ex instanceof DataAccessResourceFailureException) {
+            return BatchTransactionResultDto.rejected(index, item, HttpStatus.SERVICE_UNAVAILABLE,
+                    "The service is busy, please try again");
+        }
+        return BatchTransactionResultDto.rejected(index, item, HttpStatus.INTERNAL_SERVER_ERROR,
+                AppConstants.ServerResponses.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseWrapper response(Posting posting) {
+        return response(posting.command().type(), posting.transaction());
+    }
+
+    static ResponseWrapper response(TransactionType type, Transaction transaction) {
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message(type == TransactionType.DEPOSIT ? "Deposit successful" : "Withdrawal successful")
+                .data(transaction).build();
+    }
+
+    private static void addUsage(AccountDailyUsage usage, BigDecimal amount) {
+        usage.setTransactionCount(usage.getTransactionCount() + 1);
+        usage.setTransactionSum(usage.getTransactionSum().add(amount));
+    }
+
+    static Account snapshot(Account account, BigDecimal balance) {
+        Account copy = Account.builder()
+                .id(account.getId())
+                .name(account.getName())
+                .accountNumber(account.getAccountNumber())
+                .balance(balance)
+                .version(account.getVersion())
+                .build();
+        copy.setCreatedAt(account.getCreatedAt());
+        copy.setUpdatedAt(account.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,10 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.enums.StatementFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+public interface StatementService {
+    StreamingResponseBody exportStatement(String accountNumber, LocalDate from, LocalDate to, StatementFormat format);
+}
@@ -0,0 +1,124 @@
+package com.sparksmatrix.bank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.enums.StatementFormat;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.error.exception.EntityNotFoundException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Streams statements row by row from a JDBC cursor straight into the response, so memory use does
+ * not grow with the number of rows. The header is flushed before the query runs and the output is
+ * flushed every {@value #FLUSH_EVERY_ROWS} rows, so the client starts receiving data right away.
+ * CBOR statements are a CBOR sequence: one self-delimiting CBOR map per row, with no header or
+ * separators.
+ */
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String CSV_HEADER = "id,type,amount,createdAt";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Override
+    public StreamingResponseBody exportStatement(String accountNumber, LocalDate from, LocalDate to, StatementFormat format) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("The statement end date must not be before its start date.");
+        }
+
+        //resolved before streaming starts, so an unknown account is still a 404
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+        LocalDateTime start = businessCalendar.startOfDay(from);
+        LocalDateTime end = businessCalendar.startOfNextDay(to);
+
+        boolean tiered = transactionArchiveService.reachesArchive(start);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        ObjectWriter rowWriter = (format == StatementFormat.CBOR ? objectMapper.copyWith(new CBORFactory()) : objectMapper)
+                .writerFor(TransactionHistoryItemDto.class);
+
+        return outputStream -> {
+            OutputStream output = new BufferedOutputStream(outputStream);
+            if (format == StatementFormat.CSV) {
+                output.write((CSV_HEADER + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            output.flush();
+
+            try {
+                readRouting.forAccount(accountNumber, () -> readOnly.executeWithoutResult(status -> {
+                    try (Stream<TransactionHistoryItemDto> rows = tiered
+                            ? transactionRepository.streamTieredStatement(account.getId(), start, end)
+                            : transactionRepository.streamStatement(account.getId(), start, end)) {
+                        int written = 0;
+                        for (TransactionHistoryItemDto row : (Iterable<TransactionHistoryItemDto>) rows::iterator) {
+                            output.write(encode(format, rowWriter, row));
+                            if (++written % FLUSH_EVERY_ROWS == 0) {
+                                output.flush();
+                            }
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            output.flush();
+        };
+    }
+
+    private static byte[] encode(StatementFormat format, ObjectWriter rowWriter, TransactionHistoryItemDto row)
+            throws IOException {
+        return switch (format) {
+            case CSV -> (csvLine(row) + '\n').getBytes(StandardCharsets.UTF_8);
+            case NDJSON -> (rowWriter.writeValueAsString(row) + '\n').getBytes(StandardCharsets.UTF_8);
+            case CBOR -> rowWriter.writeValueAsBytes(row);
+        };
+    }
+
+    private static String csvLine(TransactionHistoryItemDto row) {
+        return row.getId() + "," + row.getType() + "," + row.getAmount().toPlainString() + "," + row.getCreatedAt();
+    }
+}
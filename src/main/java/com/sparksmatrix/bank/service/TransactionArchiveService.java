@@ -0,0 +1,77 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.repository.TransactionArchiveRepository.ArchivedChunk;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps the {@code transactions} table to the last {@code archive.horizon} of the ledger. A
+ * background job moves older transactions to {@code transactions_archive} in chunks of
+ * {@code archive.chunk-size}, oldest first, each in its own short transaction and with a pause of
+ * {@code archive.chunk-pause} between chunks so that it never holds locks or the connection pool
+ * for long.
+ * <p>
+ * Every archived transaction is older than the horizon, so reads that start at or after it only
+ * need the {@code transactions} table. Reads reaching further back query both tiers.
+ */
+@Slf4j
+@Service
+public class TransactionArchiveService {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Value("${archive.horizon:P90D}")
+    private Duration horizon;
+
+    @Value("${archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${archive.chunk-pause:PT0.1S}")
+    private Duration chunkPause;
+
+    /**
+     * @return whether transactions created at or after {@code from} may have been archived
+     */
+    public boolean reachesArchive(LocalDateTime from) {
+        return from.isBefore(LocalDateTime.now().minus(horizon));
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval:PT1H}", initialDelayString = "${archive.interval:PT1H}")
+    public void archiveTransactions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(horizon);
+
+        long archived = 0;
+        LocalDateTime afterCreatedAt = TransactionHistoryServiceImpl.EARLIEST;
+        long afterId = Long.MIN_VALUE;
+        while (!Thread.currentThread().isInterrupted()) {
+            Optional<ArchivedChunk> chunk = transactionRepository.archiveChunk(cutoff, afterCreatedAt, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            archived += chunk.get().rows();
+            if (chunk.get().rows() < chunkSize) {
+                break;
+            }
+            afterCreatedAt = chunk.get().lastCreatedAt();
+            afterId = chunk.get().lastId();
+            try {
+                Thread.sleep(chunkPause.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} transactions created before {}", archived, cutoff);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+
+import java.time.LocalDateTime;
+
+public interface TransactionHistoryService {
+    ResponseWrapper getTransactions(String accountNumber, TransactionType type, LocalDateTime from, LocalDateTime to,
+                                    String cursor, Integer limit);
+}
@@ -0,0 +1,136 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryPageDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class TransactionHistoryServiceImpl implements TransactionHistoryService {
+
+    static final LocalDateTime EARLIEST = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Value("${history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${history.max-page-size:500}")
+    private int maxPageSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWrapper getTransactions(String accountNumber, TransactionType type, LocalDateTime from,
+                                           LocalDateTime to, String cursor, Integer limit) {
+        return readRouting.forAccount(accountNumber, () -> readTransactions(accountNumber, type, from, to, cursor, limit));
+    }
+
+    private ResponseWrapper readTransactions(String accountNumber, TransactionType type, LocalDateTime from,
+                                             LocalDateTime to, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new BadRequestException("The limit must be between 1 and " + maxPageSize + ".");
+        }
+
+        Optional<Account> optionalAccount = accountRepository.findByAccountNumber(accountNumber);
+        if (optionalAccount.isEmpty()) {
+            return ResponseWrapper.builder()
+                    .code(HttpStatus.NOT_FOUND.value())
+                    .message("Account not found")
+                    .build();
+        }
+
+        //the page ends at the cursor, or at the exclusive upper bound of the date range on the first page
+        LocalDateTime lowerBound = from == null ? EARLIEST : from;
+        LocalDateTime beforeCreatedAt = to == null ? LATEST : to;
+        long beforeId = Long.MIN_VALUE;
+        if (cursor != null) {
+            Cursor position = Cursor.decode(cursor);
+            if (position.createdAt().isBefore(beforeCreatedAt)) {
+                beforeCreatedAt = position.createdAt();
+                beforeId = position.id();
+            }
+        }
+
+        //one extra row tells whether there is a next page
+        Long accountId = optionalAccount.get().getId();
+        Limit fetch = Limit.of(pageSize + 1);
+        List<TransactionHistoryItemDto> items = type == null
+                ? transactionRepository.findHistoryPage(accountId, lowerBound, beforeCreatedAt, beforeId, fetch)
+                : transactionRepository.findHistoryPageByType(accountId, type, lowerBound, beforeCreatedAt, beforeId, fetch);
+
+        //archived rows are older than any that may not have been, so a full page that stops short of them is complete
+        LocalDateTime reachedBack = items.size() > pageSize ? items.get(pageSize).getCreatedAt() : lowerBound;
+        if (transactionArchiveService.reachesArchive(reachedBack)) {
+            items = transactionRepository.findTieredHistoryPage(accountId, type, lowerBound, beforeCreatedAt, beforeId,
+                    fetch.max());
+        }
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            TransactionHistoryItemDto last = items.get(pageSize - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Transactions fetched successfully")
+                .data(TransactionHistoryPageDto.builder()
+                        .items(items)
+                        .nextCursor(nextCursor)
+                        .build()).build();
+    }
+
+    /**
+     * Position of the last row of a page, passed to clients as an opaque URL-safe token.
+     */
+    record Cursor(LocalDateTime createdAt, long id) {
+
+        String encode() {
+            String position = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = position.indexOf('|');
+                return new Cursor(LocalDateTime.parse(position.substring(0, separator)),
+                        Long.parseLong(position.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException ex) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+        }
+    }
+}
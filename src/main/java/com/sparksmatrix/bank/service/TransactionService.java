@@ -1,9 +1,32 @@
 package com.sparksmatrix.bank.service;
 
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
 import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface TransactionService {
     ResponseWrapper deposit(TransactionRequestDto transactionRequestDto);
     ResponseWrapper withdraw(TransactionRequestDto transactionRequestDto);
+    ResponseWrapper postBatch(List<BatchTransactionItemDto> transactionItems);
+    ResponseWrapper transfer(TransferRequestDto transferRequestDto);
+
+    /**
+     * Deposit that completes once the transaction is committed. Runs on the calling thread
+     * unless the implementation hands the work off.
+     */
+    default CompletableFuture<ResponseWrapper> depositAsync(TransactionRequestDto transactionRequestDto) {
+        return CompletableFuture.completedFuture(deposit(transactionRequestDto));
+    }
+
+    /**
+     * Withdrawal that completes once the transaction is committed. Runs on the calling thread
+     * unless the implementation hands the work off.
+     */
+    default CompletableFuture<ResponseWrapper> withdrawAsync(TransactionRequestDto transactionRequestDto) {
+        return CompletableFuture.completedFuture(withdraw(transactionRequestDto));
+    }
 }
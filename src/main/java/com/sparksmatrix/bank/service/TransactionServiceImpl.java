@@ -1,31 +1,77 @@
 package com.sparksmatrix.bank.service;
 
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.BatchTransactionResultDto;
 import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.dto.TransferResponseDto;
+import com.sparksmatrix.bank.enums.LockingStrategy;
 import com.sparksmatrix.bank.enums.TransactionType;
 import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.error.exception.EntityNotFoundException;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.metrics.LedgerMetrics.Rejection;
+import com.sparksmatrix.bank.metrics.LedgerMetrics.Stage;
 import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
 import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountDailyUsageRepository;
 import com.sparksmatrix.bank.repository.AccountRepository;
 import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.Money;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    static final String MISSING_BATCH_ITEM = "Please provide the transaction";
+
     @Autowired
     private TransactionRepository transactionRepository;
 
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private AccountDailyUsageRepository accountDailyUsageRepository;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private BalanceCache balanceCache;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private LedgerMetrics ledgerMetrics;
+
     @Value("${deposit.daily-max-amount}")
     private int dailyDepositMaxAmount;
 
@@ -44,12 +90,21 @@ public class TransactionServiceImpl implements TransactionService {
     @Value("${withdrawal.daily-max-frequency}")
     private int dailyMaxWithdrawalFrequency;
 
+    @Value("${account.locking-strategy:OPTIMISTIC}")
+    private LockingStrategy lockingStrategy;
+
+    @Value("${batch.max-items:1000}")
+    private int maxBatchSize;
+
     @Override
     @Transactional
     public ResponseWrapper deposit(TransactionRequestDto transactionRequestDto) {
+        return ledgerMetrics.operation("deposit", () -> applyDeposit(transactionRequestDto));
+    }
+
+    private ResponseWrapper applyDeposit(TransactionRequestDto transactionRequestDto) {
         //check account exists
-        Optional<Account> optionalAccount = accountRepository
-                .findByAccountNumber(transactionRequestDto.getAccountNumber());
+        Optional<Account> optionalAccount = loadAccount(transactionRequestDto.getAccountNumber());
         if(optionalAccount.isEmpty()) {
             return ResponseWrapper.builder()
                     .code(HttpStatus.NOT_FOUND.value())
@@ -58,42 +113,34 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         //check max deposit amount per transaction isn't exceeded
-        if(transactionRequestDto.getAmount() > maxDepositTransactionAmount) {
-            throw new BadRequestException("You have exceeded the maximum deposit amount.");
-        }
+        validateTransactionAmount(TransactionType.DEPOSIT, transactionRequestDto.getAmount());
 
-        //validate deposit frequency
+        //validate deposit frequency and max daily deposit
         Account account = optionalAccount.get();
-        long depositsToday = transactionRepository.countTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
-        if(depositsToday >= dailyMaxDepositFrequency) {
-            throw new BadRequestException("You have reached the maximum number of transactions for today.");
-        }
-
-        //validate max daily deposit
-        BigDecimal todayDepositedSum =
-                transactionRepository.sumTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
-        BigDecimal totalSumAfterDeposit = todayDepositedSum.add(BigDecimal.valueOf(transactionRequestDto.getAmount()));
-        BigDecimal dailyDepositMaxAmountBigDecimal = BigDecimal.valueOf(dailyDepositMaxAmount);
-        if (totalSumAfterDeposit.compareTo(dailyDepositMaxAmountBigDecimal) >= 0) {
-            // Today’s deposit sum is greater than or equal to the max daily deposit amount
-            throw new BadRequestException("You have exceeded the maximum daily deposit limit");
-        }
+        AccountDailyUsage depositUsage = findTodayUsage(account.getId(), TransactionType.DEPOSIT);
+        Money amount = Money.ofMajor(transactionRequestDto.getAmount());
+        validateDailyLimits(TransactionType.DEPOSIT, amount,
+                depositUsage.getTransactionCount(), Money.of(depositUsage.getTransactionSum()));
 
-        Transaction savedTransaction = persistTransactionAndUpdateBalance(account,
-                BigDecimal.valueOf(transactionRequestDto.getAmount()), TransactionType.DEPOSIT);
+        Transaction savedTransaction = persistTransactionAndUpdateBalance(account, amount, TransactionType.DEPOSIT);
 
-        return ResponseWrapper.builder()
+        ResponseWrapper response = ResponseWrapper.builder()
                 .code(HttpStatus.OK.value())
                 .message("Deposit successful")
                 .data(savedTransaction).build();
+        recordIdempotencyKey(transactionRequestDto, TransactionType.DEPOSIT, response);
+        return response;
     }
 
     @Override
     @Transactional
     public ResponseWrapper withdraw(TransactionRequestDto transactionRequestDto) {
+        return ledgerMetrics.operation("withdraw", () -> applyWithdrawal(transactionRequestDto));
+    }
+
+    private ResponseWrapper applyWithdrawal(TransactionRequestDto transactionRequestDto) {
         //check account exists
-        Optional<Account> optionalAccount = accountRepository
-                .findByAccountNumber(transactionRequestDto.getAccountNumber());
+        Optional<Account> optionalAccount = loadAccount(transactionRequestDto.getAccountNumber());
         if(optionalAccount.isEmpty()) {
             return ResponseWrapper.builder()
                     .code(HttpStatus.NOT_FOUND.value())
@@ -102,59 +149,369 @@ public class TransactionServiceImpl implements TransactionService {
         }
 
         //check max withdrawal amount per transaction isn't exceeded
-        if(transactionRequestDto.getAmount() > maxWithdrawalTransactionAmount) {
-            throw new BadRequestException("You have exceeded the maximum withdrawal amount.");
-        }
+        validateTransactionAmount(TransactionType.WITHDRAWAL, transactionRequestDto.getAmount());
 
-        //validate withdrawal frequency
+        //validate withdrawal frequency and max daily withdrawal
         Account account = optionalAccount.get();
-        long withdrawalsToday = transactionRepository.countTransactionForTodayByType(account.getId(), TransactionType.WITHDRAWAL);
-        if(withdrawalsToday >= dailyMaxWithdrawalFrequency) {
-            throw new BadRequestException("You have reached the maximum number of transactions for today.");
+        AccountDailyUsage withdrawalUsage = findTodayUsage(account.getId(), TransactionType.WITHDRAWAL);
+        Money amount = Money.ofMajor(transactionRequestDto.getAmount());
+        validateDailyLimits(TransactionType.WITHDRAWAL, amount,
+                withdrawalUsage.getTransactionCount(), Money.of(withdrawalUsage.getTransactionSum()));
+
+        //the balance check is part of the conditional debit in persistTransactionAndUpdateBalance
+        Transaction savedTransaction = persistTransactionAndUpdateBalance(account, amount, TransactionType.WITHDRAWAL);
+
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Withdrawal successful")
+                .data(savedTransaction).build();
+        recordIdempotencyKey(transactionRequestDto, TransactionType.WITHDRAWAL, response);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public ResponseWrapper postBatch(List<BatchTransactionItemDto> transactionItems) {
+        return ledgerMetrics.operation("post_batch", () -> applyBatch(transactionItems));
+    }
+
+    private ResponseWrapper applyBatch(List<BatchTransactionItemDto> transactionItems) {
+        if (transactionItems == null || transactionItems.isEmpty()) {
+            throw rejection(Rejection.INVALID_REQUEST, null, "Please provide at least one transaction.");
+        }
+        if (transactionItems.size() > maxBatchSize) {
+            throw rejection(Rejection.INVALID_REQUEST, null, "A batch can contain at most " + maxBatchSize + " transactions.");
         }
 
-        //validate max daily withdrawal
-        BigDecimal todayWithdrawnSum = transactionRepository.sumTransactionForTodayByType(account.getId(), TransactionType.WITHDRAWAL);
-        BigDecimal totalWithdrawnPlusAmount = todayWithdrawnSum.add(BigDecimal.valueOf(transactionRequestDto.getAmount()));
-        BigDecimal dailyWithdrawalMaxAmountBigDecimal = BigDecimal.valueOf(dailyWithdrawalMaxAmount);
-        if (totalWithdrawnPlusAmount.compareTo(dailyWithdrawalMaxAmountBigDecimal) >= 0) {
-            // Today’s deposit sum is greater than or equal to the max daily deposit amount
-            throw new BadRequestException("You have exceeded the maximum daily withdrawal limit");
+        //validate each item and group the valid ones by account, keeping input order within an account
+        BatchTransactionResultDto[] results = new BatchTransactionResultDto[transactionItems.size()];
+        Map<String, List<Integer>> itemIndexesByAccount = new LinkedHashMap<>();
+        for (int index = 0; index < transactionItems.size(); index++) {
+            BatchTransactionItemDto item = transactionItems.get(index);
+            if (item == null) {
+                ledgerMetrics.rejected(Rejection.INVALID_REQUEST, null);
+                results[index] = BatchTransactionResultDto.rejected(index, null, HttpStatus.BAD_REQUEST, MISSING_BATCH_ITEM);
+                continue;
+            }
+            Set<ConstraintViolation<BatchTransactionItemDto>> violations = validator.validate(item);
+            if (!violations.isEmpty()) {
+                ledgerMetrics.rejected(Rejection.INVALID_REQUEST, item.getType());
+                results[index] = BatchTransactionResultDto.rejected(index, item, HttpStatus.BAD_REQUEST,
+                        violations.iterator().next().getMessage());
+                continue;
+            }
+            itemIndexesByAccount.computeIfAbsent(item.getAccountNumber(), accountNumber -> new ArrayList<>()).add(index);
         }
 
-        //check balance is greater than or equal to amount
-        BigDecimal withdrawalAmount = BigDecimal.valueOf(transactionRequestDto.getAmount());
-        if (account.getBalance().compareTo(withdrawalAmount) < 0) {
-            throw new BadRequestException("Insufficient balance.");
+        //lock the accounts in id order so that concurrent batches cannot deadlock each other
+        List<Account> accounts = new ArrayList<>(ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP,
+                () -> accountRepository.findByAccountNumberIn(itemIndexesByAccount.keySet())));
+        accounts.sort(Comparator.comparing(Account::getId));
+
+        List<Transaction> acceptedTransactions = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (Account unlocked : accounts) {
+            Account account = lockAccount(unlocked.getId());
+            List<Integer> itemIndexes = itemIndexesByAccount.remove(account.getAccountNumber());
+
+            AccountDailyUsage depositUsage = findTodayUsage(account.getId(), TransactionType.DEPOSIT);
+            AccountDailyUsage withdrawalUsage = findTodayUsage(account.getId(), TransactionType.WITHDRAWAL);
+            int depositCount = 0;
+            int withdrawalCount = 0;
+            Money depositUsedToday = Money.of(depositUsage.getTransactionSum());
+            Money withdrawalUsedToday = Money.of(withdrawalUsage.getTransactionSum());
+            Money depositSum = Money.ZERO;
+            Money withdrawalSum = Money.ZERO;
+            Money openingBalance = Money.of(account.getBalance());
+            Money balance = openingBalance;
+
+            //apply the account's items in input order against the running usage and balance
+            for (int index : itemIndexes) {
+                BatchTransactionItemDto item = transactionItems.get(index);
+                Money amount = Money.ofMajor(item.getAmount());
+                try {
+                    validateTransactionAmount(item.getType(), item.getAmount());
+                    if (item.getType() == TransactionType.DEPOSIT) {
+                        validateDailyLimits(TransactionType.DEPOSIT, amount,
+                                depositUsage.getTransactionCount() + depositCount,
+                                depositUsedToday.plus(depositSum));
+                        depositCount++;
+                        depositSum = depositSum.plus(amount);
+                        balance = balance.plus(amount);
+                    } else {
+                        validateDailyLimits(TransactionType.WITHDRAWAL, amount,
+                                withdrawalUsage.getTransactionCount() + withdrawalCount,
+                                withdrawalUsedToday.plus(withdrawalSum));
+                        if (balance.isLessThan(amount)) {
+                            throw rejection(Rejection.INSUFFICIENT_BALANCE, TransactionType.WITHDRAWAL, "Insufficient balance.");
+                        }
+                        withdrawalCount++;
+                        withdrawalSum = withdrawalSum.plus(amount);
+                        balance = balance.minus(amount);
+                    }
+                } catch (BadRequestException ex) {
+                    results[index] = BatchTransactionResultDto.rejected(index, item, HttpStatus.BAD_REQUEST, ex.getMessage());
+                    continue;
+                }
+                acceptedTransactions.add(Transaction.builder()
+                        .account(account)
+                        .type(item.getType())
+                        .amount(amount.toDecimal())
+                        .build());
+                acceptedIndexes.add(index);
+            }
+
+            //one balance update and one usage update per type for the whole account
+            if (depositCount > 0 || withdrawalCount > 0) {
+                Money delta = balance.minus(openingBalance);
+                ledgerMetrics.stage(Stage.BALANCE_UPDATE, () -> accountRepository.adjustBalance(account.getId(), delta.toDecimal()));
+                balanceCache.putAfterCommit(account.getAccountNumber(), balance.toDecimal(), account.getVersion() + 1);
+            }
+            if (depositCount > 0) {
+                recordDailyUsage(account.getId(), TransactionType.DEPOSIT, depositCount, depositSum.toDecimal());
+            }
+            if (withdrawalCount > 0) {
+                recordDailyUsage(account.getId(), TransactionType.WITHDRAWAL, withdrawalCount, withdrawalSum.toDecimal());
+            }
         }
 
-        Transaction savedTransaction = persistTransactionAndUpdateBalance(account,
-                BigDecimal.valueOf(transactionRequestDto.getAmount()), TransactionType.WITHDRAWAL);
+        //whatever is left refers to accounts that do not exist
+        itemIndexesByAccount.values().forEach(itemIndexes -> itemIndexes.forEach(index ->
+                results[index] = BatchTransactionResultDto.rejected(index, transactionItems.get(index),
+                        HttpStatus.NOT_FOUND, "Account not found")));
+
+        ledgerMetrics.stage(Stage.INSERT, () -> transactionRepository.batchInsert(acceptedTransactions));
+        for (int i = 0; i < acceptedIndexes.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = BatchTransactionResultDto.accepted(index, transactionItems.get(index),
+                    acceptedTransactions.get(i).getId());
+        }
 
         return ResponseWrapper.builder()
                 .code(HttpStatus.OK.value())
-                .message("Withdrawal successful")
-                .data(savedTransaction).build();
+                .message("Batch processed")
+                .data(Arrays.asList(results)).build();
     }
 
-    public Transaction persistTransactionAndUpdateBalance(Account account, BigDecimal amount, TransactionType transactionType) {
-        //Persist the new transaction
-        Transaction transaction = Transaction.builder()
+    @Override
+    @Transactional
+    public ResponseWrapper transfer(TransferRequestDto transferRequestDto) {
+        return ledgerMetrics.operation("transfer", () -> applyTransfer(transferRequestDto));
+    }
+
+    private ResponseWrapper applyTransfer(TransferRequestDto transferRequestDto) {
+        String fromAccountNumber = transferRequestDto.getFromAccountNumber();
+        String toAccountNumber = transferRequestDto.getToAccountNumber();
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw rejection(Rejection.SAME_ACCOUNT, null, "Cannot transfer to the same account.");
+        }
+
+        //the transfer is a withdrawal from one account and a deposit into the other, so both sets of limits apply
+        validateTransactionAmount(TransactionType.WITHDRAWAL, transferRequestDto.getAmount());
+        validateTransactionAmount(TransactionType.DEPOSIT, transferRequestDto.getAmount());
+        Money amount = Money.ofMajor(transferRequestDto.getAmount());
+
+        List<Account> accounts = new ArrayList<>(ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP,
+                () -> accountRepository.findByAccountNumberIn(List.of(fromAccountNumber, toAccountNumber))));
+        if (accounts.size() < 2) {
+            return ResponseWrapper.builder()
+                    .code(HttpStatus.NOT_FOUND.value())
+                    .message("Account not found")
+                    .build();
+        }
+
+        //lock both accounts in id order, as batches do, so that opposite transfers cannot deadlock each other
+        accounts.sort(Comparator.comparing(Account::getId));
+        Map<String, Account> lockedAccounts = new LinkedHashMap<>();
+        for (Account unlocked : accounts) {
+            Account account = lockAccount(unlocked.getId());
+            lockedAccounts.put(account.getAccountNumber(), account);
+        }
+        Account source = lockedAccounts.get(fromAccountNumber);
+        Account destination = lockedAccounts.get(toAccountNumber);
+
+        AccountDailyUsage withdrawalUsage = findTodayUsage(source.getId(), TransactionType.WITHDRAWAL);
+        validateDailyLimits(TransactionType.WITHDRAWAL, amount,
+                withdrawalUsage.getTransactionCount(), Money.of(withdrawalUsage.getTransactionSum()));
+        AccountDailyUsage depositUsage = findTodayUsage(destination.getId(), TransactionType.DEPOSIT);
+        validateDailyLimits(TransactionType.DEPOSIT, amount,
+                depositUsage.getTransactionCount(), Money.of(depositUsage.getTransactionSum()));
+
+        if (Money.of(source.getBalance()).isLessThan(amount)) {
+            throw rejection(Rejection.INSUFFICIENT_BALANCE, TransactionType.WITHDRAWAL, "Insufficient balance.");
+        }
+
+        String transferReference = UUID.randomUUID().toString();
+        Transaction withdrawal = postTransferLeg(source, TransactionType.WITHDRAWAL, amount, transferReference);
+        Transaction deposit = postTransferLeg(destination, TransactionType.DEPOSIT, amount, transferReference);
+        ledgerMetrics.stage(Stage.INSERT, () -> transactionRepository.batchInsert(List.of(withdrawal, deposit)));
+
+        TransferResponseDto transferResponseDto = TransferResponseDto.builder()
+                .transferReference(transferReference)
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
+                .amount(transferRequestDto.getAmount())
+                .withdrawalTransactionId(withdrawal.getId())
+                .depositTransactionId(deposit.getId())
+                .build();
+
+        return ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Transfer successful")
+                .data(transferResponseDto).build();
+    }
+
+    private Transaction postTransferLeg(Account account, TransactionType transactionType, Money amount,
+                                        String transferReference) {
+        //the account is locked, so its balance and version are exact
+        Money delta = transactionType == TransactionType.DEPOSIT ? amount : amount.negate();
+        ledgerMetrics.stage(Stage.BALANCE_UPDATE, () -> accountRepository.adjustBalance(account.getId(), delta.toDecimal()));
+        balanceCache.putAfterCommit(account.getAccountNumber(), Money.of(account.getBalance()).plus(delta).toDecimal(),
+                account.getVersion() + 1);
+        BigDecimal postedAmount = amount.toDecimal();
+        recordDailyUsage(account.getId(), transactionType, 1, postedAmount);
+
+        return Transaction.builder()
                 .account(account)
                 .type(transactionType)
-                .amount(amount)
+                .amount(postedAmount)
+                .transferReference(transferReference)
                 .build();
-        Transaction savedTransaction = transactionRepository.save(transaction);
+    }
+
+    public Transaction persistTransactionAndUpdateBalance(Account account, Money amount, TransactionType transactionType) {
+        //the amount only becomes a DECIMAL here, where it is written
+        BigDecimal postedAmount = amount.toDecimal();
+        int updated = ledgerMetrics.stage(Stage.BALANCE_UPDATE, () -> {
+            //Under optimistic locking, claim the version the limit checks were made against
+            if (lockingStrategy == LockingStrategy.OPTIMISTIC
+                    && accountRepository.claimVersion(account.getId(), account.getVersion()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, account.getId());
+            }
 
-        //Update the account balance
-        BigDecimal balance = account.getBalance();
-        balance = switch (transactionType) {
-            case TransactionType.DEPOSIT -> balance.add(amount);
-            case TransactionType.WITHDRAWAL -> balance.subtract(amount);
+            //Update the account balance in a single statement; a debit only applies when the balance covers it
+            return switch (transactionType) {
+                case TransactionType.DEPOSIT -> accountRepository.creditBalance(account.getAccountNumber(), postedAmount);
+                case TransactionType.WITHDRAWAL -> accountRepository.debitBalance(account.getAccountNumber(), postedAmount);
+            };
+        });
+        if (updated == 0) {
+            if (transactionType == TransactionType.WITHDRAWAL) {
+                throw rejection(Rejection.INSUFFICIENT_BALANCE, TransactionType.WITHDRAWAL, "Insufficient balance.");
+            }
+            throw new EntityNotFoundException("Account not found");
+        }
+
+        //The update detached the account, so this only reflects the new balance in the response.
+        //The account was claimed or locked above, so the balance and version are exact.
+        Money openingBalance = Money.of(account.getBalance());
+        BigDecimal balance = switch (transactionType) {
+            case TransactionType.DEPOSIT -> openingBalance.plus(amount).toDecimal();
+            case TransactionType.WITHDRAWAL -> openingBalance.minus(amount).toDecimal();
         };
+        long version = account.getVersion() + (lockingStrategy == LockingStrategy.OPTIMISTIC ? 2 : 1);
         account.setBalance(balance);
-        accountRepository.save(account);
+        account.setVersion(version);
+        balanceCache.putAfterCommit(account.getAccountNumber(), balance, version);
+
+        //Persist the new transaction
+        Transaction transaction = Transaction.builder()
+                .account(account)
+                .type(transactionType)
+                .amount(postedAmount)
+                .build();
+        Transaction savedTransaction = ledgerMetrics.stage(Stage.INSERT, () -> transactionRepository.save(transaction));
+
+        //Update today's usage counters for the limit checks
+        recordDailyUsage(account.getId(), transactionType, 1, postedAmount);
 
         return savedTransaction;
     }
+
+    private void recordIdempotencyKey(TransactionRequestDto transactionRequestDto, TransactionType transactionType,
+                                      ResponseWrapper response) {
+        //Stored in this transaction, so a duplicate key rolls the whole posting back
+        if (transactionRequestDto.getIdempotencyKey() != null) {
+            ledgerMetrics.stage(Stage.IDEMPOTENCY_RECORD, () -> idempotencyService.record(
+                    transactionRequestDto.getIdempotencyKey(), IdempotencyService.fingerprint(transactionType,
+                            transactionRequestDto.getAccountNumber(), transactionRequestDto.getAmount()), response));
+        }
+    }
+
+    private Optional<Account> loadAccount(String accountNumber) {
+        return ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP, () -> lockingStrategy == LockingStrategy.PESSIMISTIC
+                ? accountRepository.findByAccountNumberForUpdate(accountNumber)
+                : accountRepository.findByAccountNumber(accountNumber));
+    }
+
+    private Account lockAccount(Long accountId) {
+        return ledgerMetrics.stage(Stage.ACCOUNT_LOOKUP, () -> accountRepository.findByIdForUpdate(accountId))
+                .orElseThrow(() -> new EntityNotFoundException("Account not found"));
+    }
+
+    private AccountDailyUsage findTodayUsage(Long accountId, TransactionType transactionType) {
+        AccountDailyUsageId usageId = new AccountDailyUsageId(accountId, businessCalendar.today(), transactionType);
+        return ledgerMetrics.stage(Stage.LIMIT_QUERY, () -> accountDailyUsageRepository.findById(usageId))
+                .orElseGet(() -> AccountDailyUsage.empty(usageId));
+    }
+
+    private BadRequestException rejection(Rejection reason, TransactionType transactionType, String message) {
+        ledgerMetrics.rejected(reason, transactionType);
+        return new BadRequestException(message);
+    }
+
+    public void validateTransactionAmount(TransactionType transactionType, int amount) {
+        switch (transactionType) {
+            case TransactionType.DEPOSIT -> {
+                if (amount > maxDepositTransactionAmount) {
+                    throw rejection(Rejection.TRANSACTION_AMOUNT, transactionType, "You have exceeded the maximum deposit amount.");
+                }
+            }
+            case TransactionType.WITHDRAWAL -> {
+                if (amount > maxWithdrawalTransactionAmount) {
+                    throw rejection(Rejection.TRANSACTION_AMOUNT, transactionType, "You have exceeded the maximum withdrawal amount.");
+                }
+            }
+        }
+    }
+
+    public void validateDailyLimits(TransactionType transactionType, Money amount, int countToday, Money sumToday) {
+        int dailyMaxFrequency = transactionType == TransactionType.DEPOSIT
+                ? dailyMaxDepositFrequency : dailyMaxWithdrawalFrequency;
+        if (countToday >= dailyMaxFrequency) {
+            throw rejection(Rejection.DAILY_FREQUENCY, transactionType, "You have reached the maximum number of transactions for today.");
+        }
+
+        Money totalSumAfterTransaction = sumToday.plus(amount);
+        int dailyMaxAmount = transactionType == TransactionType.DEPOSIT
+                ? dailyDepositMaxAmount : dailyWithdrawalMaxAmount;
+        if (!totalSumAfterTransaction.isLessThan(Money.ofMajor(dailyMaxAmount))) {
+            // Today's sum would reach the max daily amount
+            throw rejection(Rejection.DAILY_AMOUNT, transactionType, transactionType == TransactionType.DEPOSIT
+                    ? "You have exceeded the maximum daily deposit limit"
+                    : "You have exceeded the maximum daily withdrawal limit");
+        }
+    }
+
+    public void recordDailyUsage(Long accountId, TransactionType transactionType, int count, BigDecimal amount) {
+        recordDailyUsage(accountId, transactionType, businessCalendar.today(), count, amount);
+    }
+
+    /**
+     * Adds to the usage of a given business day, for postings accepted before they are written.
+     */
+    public void recordDailyUsage(Long accountId, TransactionType transactionType, LocalDate usageDate, int count,
+                                 BigDecimal amount) {
+        ledgerMetrics.stage(Stage.USAGE_UPDATE, () -> {
+            int updated = accountDailyUsageRepository.incrementUsage(accountId, usageDate, transactionType, count, amount);
+            if (updated == 0) {
+                // First transaction of this type that day
+                accountDailyUsageRepository.save(AccountDailyUsage.builder()
+                        .id(new AccountDailyUsageId(accountId, usageDate, transactionType))
+                        .transactionCount(count)
+                        .transactionSum(amount)
+                        .build());
+            }
+        });
+    }
 }
@@ -0,0 +1,62 @@
+package com.sparksmatrix.bank.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money held as a count of minor units (cents), matching the two decimal places of
+ * the ledger's DECIMAL columns.
+ * <p>
+ * Limit checks and balance arithmetic on the posting path use this instead of {@link BigDecimal},
+ * so they are plain {@code long} operations. Arithmetic fails with an {@link ArithmeticException}
+ * rather than wrapping on overflow. Amounts are converted to and from {@link BigDecimal} only where
+ * they are read from or written to the database.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    private static final long MINOR_UNITS_PER_MAJOR = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMajor(long majorUnits) {
+        return new Money(Math.multiplyExact(majorUnits, MINOR_UNITS_PER_MAJOR));
+    }
+
+    /**
+     * Converts a database amount. Fails if the amount has more than two decimal places.
+     */
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,17 @@
+-- Periodic per-account balances, from which point-in-time balances are replayed
+CREATE SEQUENCE balance_snapshots_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE balance_snapshots
+(
+    id BIGINT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    last_transaction_id BIGINT NOT NULL,
+    last_transaction_at TIMESTAMP NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_balance_snapshots_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    CONSTRAINT uk_balance_snapshots_account_transaction UNIQUE (account_id, last_transaction_id)
+);
+
+-- Finds the nearest snapshot at or before a point in time
+CREATE INDEX idx_balance_snapshots_account_position ON balance_snapshots (account_id, last_transaction_at, last_transaction_id);
@@ -0,0 +1,2 @@
+-- Links the withdrawal and deposit rows written by one transfer
+ALTER TABLE transactions ADD COLUMN transfer_reference VARCHAR(36);
@@ -0,0 +1,8 @@
+-- Sequence of the last ledger journal record applied to the ledger tables, advanced in the same transaction
+CREATE TABLE journal_checkpoint
+(
+    id INT PRIMARY KEY,
+    applied_sequence BIGINT NOT NULL
+);
+
+INSERT INTO journal_checkpoint (id, applied_sequence) VALUES (1, 0);
@@ -0,0 +1,8 @@
+-- Time of the last heartbeat written on the primary; its replicated value gives the replica lag
+CREATE TABLE replica_heartbeat
+(
+    id INT PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, 0);
@@ -0,0 +1,19 @@
+-- Transactions moved out of the transactions table once they are older than archive.horizon
+CREATE TABLE transactions_archive
+(
+    id BIGINT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    transfer_reference VARCHAR(36),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_transactions_archive_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
+-- Same keyset order as idx_transactions_account_created_at_id, for history, statements and replays
+CREATE INDEX idx_transactions_archive_account_created_at_id ON transactions_archive (account_id, created_at, id);
+
+-- Lets the archival job walk the oldest transactions in (created_at, id) order
+CREATE INDEX idx_transactions_created_at_id ON transactions (created_at, id);
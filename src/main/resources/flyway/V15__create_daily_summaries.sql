@@ -0,0 +1,27 @@
+-- End-of-day rollups written by DailyRollupJob, one row per account with transactions on the business day
+CREATE TABLE daily_account_summary
+(
+    account_id BIGINT NOT NULL,
+    business_date DATE NOT NULL,
+    deposit_count INT NOT NULL,
+    deposit_sum DECIMAL(15, 2) NOT NULL,
+    withdrawal_count INT NOT NULL,
+    withdrawal_sum DECIMAL(15, 2) NOT NULL,
+    closing_balance DECIMAL(15, 2) NOT NULL,
+    rolled_up_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (business_date, account_id),
+    CONSTRAINT fk_daily_account_summary_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
+-- Bank-wide totals, one row per business day; the last row is the job's checkpoint
+CREATE TABLE daily_bank_summary
+(
+    business_date DATE PRIMARY KEY,
+    active_accounts INT NOT NULL,
+    deposit_count BIGINT NOT NULL,
+    deposit_sum DECIMAL(19, 2) NOT NULL,
+    withdrawal_count BIGINT NOT NULL,
+    withdrawal_sum DECIMAL(19, 2) NOT NULL,
+    closing_balance DECIMAL(19, 2) NOT NULL,
+    rolled_up_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,14 @@
+-- Ledger journal records the applier could not write, set aside so that the records after them are applied
+CREATE TABLE journal_quarantine
+(
+    sequence BIGINT PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    balance_after DECIMAL(15, 2) NOT NULL,
+    usage_date DATE NOT NULL,
+    accepted_at TIMESTAMP NOT NULL,
+    idempotency_key VARCHAR(64),
+    error VARCHAR(1000) NOT NULL,
+    quarantined_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
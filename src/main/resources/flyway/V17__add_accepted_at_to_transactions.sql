@@ -0,0 +1,3 @@
+-- Acceptance time of postings written after they were accepted, such as those applied from the ledger journal
+ALTER TABLE transactions ADD COLUMN accepted_at TIMESTAMP;
+ALTER TABLE transactions_archive ADD COLUMN accepted_at TIMESTAMP;
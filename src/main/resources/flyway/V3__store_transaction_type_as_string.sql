@@ -0,0 +1,3 @@
+-- Store transaction types by name instead of enum ordinal
+UPDATE transactions
+SET type = CASE type WHEN '0' THEN 'DEPOSIT' WHEN '1' THEN 'WITHDRAWAL' ELSE type END;
@@ -0,0 +1,17 @@
+-- Create the per-account daily usage table backing the deposit/withdrawal limit checks
+CREATE TABLE account_daily_usage
+(
+    account_id BIGINT NOT NULL,
+    usage_date DATE NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    transaction_count INT NOT NULL DEFAULT 0,
+    transaction_sum DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (account_id, usage_date, type),
+    CONSTRAINT fk_account_daily_usage_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+);
+
+-- Backfill usage from the existing transactions
+INSERT INTO account_daily_usage (account_id, usage_date, type, transaction_count, transaction_sum)
+SELECT account_id, CAST(created_at AS DATE), type, COUNT(*), SUM(amount)
+FROM transactions
+GROUP BY account_id, CAST(created_at AS DATE), type;
@@ -0,0 +1,2 @@
+-- Covering index for the per-account, per-type day window queries
+CREATE INDEX idx_transactions_account_type_created_at ON transactions (account_id, type, created_at, amount);
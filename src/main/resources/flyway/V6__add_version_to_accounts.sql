@@ -0,0 +1,3 @@
+-- Add optimistic locking version column to accounts table
+ALTER TABLE accounts
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
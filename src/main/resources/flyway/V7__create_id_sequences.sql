@@ -0,0 +1,8 @@
+-- Sequences backing the pooled-lo id generators of accounts and transactions.
+-- The increment must match the entities' allocationSize: each value handed out reserves a block of 50 ids.
+CREATE SEQUENCE accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE transactions_seq START WITH 1 INCREMENT BY 50;
+
+-- Move the sequences past any ids already assigned by the identity columns
+ALTER SEQUENCE accounts_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM accounts);
+ALTER SEQUENCE transactions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM transactions);
@@ -0,0 +1,13 @@
+-- Responses of deposits and withdrawals made with an Idempotency-Key header, replayed on retries
+CREATE TABLE idempotency_keys
+(
+    idempotency_key VARCHAR(64) PRIMARY KEY,
+    request_fingerprint VARCHAR(255) NOT NULL,
+    response_code INT NOT NULL,
+    response_message VARCHAR(255),
+    response_data CLOB,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Supports purging keys past the retention period
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,2 @@
+-- Supports keyset pagination of an account's history, newest first, on (created_at, id)
+CREATE INDEX idx_transactions_account_created_at_id ON transactions (account_id, created_at, id);
@@ -0,0 +1,127 @@
+package com.sparksmatrix.bank;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.DailyRollupJob;
+import com.sparksmatrix.bank.service.TransactionArchiveService;
+import com.sparksmatrix.bank.service.TransactionService;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the application on the schema built by the Flyway migrations instead of the Hibernate DDL
+ * the other tests use. Rows are written through the identity columns of the first migrations
+ * before the rest are applied, as on a database that predates the id sequences.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:flyway-migrations;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.defer-datasource-initialization=false",
+        "spring.sql.init.mode=never",
+        "spring.jpa.show-sql=false"
+})
+class FlywayMigrationTest {
+
+    private static final String LEGACY_ACCOUNT_NUMBER = "000400000001";
+    private static final LocalDate LEGACY_DAY = LocalDate.now().minusDays(120);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+
+    @Autowired
+    private DailyRollupJob dailyRollupJob;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldPostArchiveAndRollUpOnTheMigratedSchema() {
+        //V3 rewrote the enum ordinals written before it by name
+        assertEquals(List.of("DEPOSIT", "WITHDRAWAL"),
+                jdbcTemplate.queryForList("SELECT type FROM transactions ORDER BY id", String.class));
+        long legacyAccountId = accountRepository.findByAccountNumber(LEGACY_ACCOUNT_NUMBER).orElseThrow().getId();
+        long lastLegacyTransactionId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM transactions", Long.class);
+
+        //V7 moved the sequences past the identity ids, so new rows do not collide with the legacy ones
+        ResponseWrapper created = accountService.createAccount(new AccountCreateDto("Flyway", "000400000002"));
+        assertEquals(HttpStatus.CREATED.value(), created.getCode());
+        assertTrue(accountRepository.findByAccountNumber("000400000002").orElseThrow().getId() > legacyAccountId);
+
+        ResponseWrapper deposited = transactionService.deposit(new TransactionRequestDto(LEGACY_ACCOUNT_NUMBER, 1000));
+        assertEquals(HttpStatus.OK.value(), deposited.getCode());
+        List<Long> newIds = jdbcTemplate.queryForList("SELECT id FROM transactions WHERE id > ?", Long.class,
+                lastLegacyTransactionId);
+        assertEquals(1, newIds.size());
+
+        //the legacy transactions are past the archive horizon
+        transactionArchiveService.archiveTransactions();
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions_archive", Integer.class));
+        assertEquals(newIds, jdbcTemplate.queryForList("SELECT id FROM transactions", Long.class));
+
+        dailyRollupJob.rollUpClosedDays();
+        Map<String, Object> summary = jdbcTemplate.queryForMap("SELECT deposit_count, withdrawal_count, "
+                + "closing_balance FROM daily_account_summary WHERE business_date = ? AND account_id = ?",
+                LEGACY_DAY, legacyAccountId);
+        assertEquals(1, ((Number) summary.get("deposit_count")).intValue());
+        assertEquals(1, ((Number) summary.get("withdrawal_count")).intValue());
+        assertEquals(0, new BigDecimal("300.00").compareTo((BigDecimal) summary.get("closing_balance")));
+        assertEquals(LocalDate.now().minusDays(1), jdbcTemplate.queryForObject(
+                "SELECT MAX(business_date) FROM daily_bank_summary", LocalDate.class));
+    }
+
+    @TestConfiguration
+    static class LegacyRowsConfig {
+
+        /**
+         * Migrates up to V2, writes an account and two transactions the way the application did
+         * then, with identity ids and ordinal types, and applies the remaining migrations.
+         */
+        @Bean
+        FlywayMigrationStrategy legacyRowsMigrationStrategy() {
+            return flyway -> {
+                Flyway.configure().configuration(flyway.getConfiguration()).target("2").load().migrate();
+
+                JdbcTemplate legacy = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                legacy.update("INSERT INTO accounts (name, account_number, balance) VALUES (?, ?, ?)",
+                        "Legacy", LEGACY_ACCOUNT_NUMBER, new BigDecimal("300.00"));
+                Long accountId = legacy.queryForObject("SELECT id FROM accounts WHERE account_number = ?", Long.class,
+                        LEGACY_ACCOUNT_NUMBER);
+                LocalDateTime createdAt = LEGACY_DAY.atTime(12, 0);
+                legacy.update("INSERT INTO transactions (account_id, amount, type, created_at) VALUES (?, ?, ?, ?)",
+                        accountId, new BigDecimal("500.00"), "0", createdAt);
+                legacy.update("INSERT INTO transactions (account_id, amount, type, created_at) VALUES (?, ?, ?, ?)",
+                        accountId, new BigDecimal("200.00"), "1", createdAt.plusHours(1));
+
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.sparksmatrix.bank.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCacheTest {
+
+    BalanceCache balanceCache;
+
+    @BeforeEach
+    void setUp() {
+        balanceCache = new BalanceCache(100, Duration.ofMinutes(5), Duration.ofMinutes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldNotReplaceNewerVersion() {
+        balanceCache.put("123456789", BigDecimal.valueOf(200), 6);
+        balanceCache.put("123456789", BigDecimal.valueOf(100), 5);
+
+        assertEquals(Optional.of(BigDecimal.valueOf(200)), balanceCache.get("123456789"));
+    }
+
+    @Test
+    void shouldNotLetDatabaseReadReplaceWrittenBalance() {
+        balanceCache.put("123456789", BigDecimal.valueOf(200), 6);
+        balanceCache.putIfAbsent("123456789", BigDecimal.valueOf(100));
+
+        assertEquals(Optional.of(BigDecimal.valueOf(200)), balanceCache.get("123456789"));
+    }
+
+    @Test
+    void shouldOnlyCacheAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        balanceCache.putAfterCommit("123456789", BigDecimal.valueOf(300), 7);
+        assertEquals(Optional.empty(), balanceCache.get("123456789"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(Optional.of(BigDecimal.valueOf(300)), balanceCache.get("123456789"));
+    }
+
+    @Test
+    void shouldNotCacheRolledBackBalance() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        balanceCache.putAfterCommit("123456789", BigDecimal.valueOf(300), 7);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(Optional.empty(), balanceCache.get("123456789"));
+        assertEquals(1, balanceCache.stats().missCount());
+    }
+
+    @Test
+    void shouldOnlyReportBalancesPutByWritersAsWritten() {
+        balanceCache.putIfAbsent("123456789", BigDecimal.valueOf(100));
+        assertFalse(balanceCache.isWrittenWithin("123456789", Duration.ofMinutes(1)));
+
+        balanceCache.put("123456789", BigDecimal.valueOf(200), 6);
+        assertTrue(balanceCache.isWrittenWithin("123456789", Duration.ofMinutes(1)));
+        assertFalse(balanceCache.isWrittenWithin("123456789", Duration.ZERO));
+        assertEquals(0, balanceCache.stats().requestCount());
+    }
+
+    @Test
+    void shouldRememberWritesAfterTheBalanceIsEvicted() {
+        balanceCache.put("123456789", BigDecimal.valueOf(200), 6);
+        balanceCache.evict("123456789");
+
+        assertEquals(Optional.empty(), balanceCache.get("123456789"));
+        assertTrue(balanceCache.isWrittenWithin("123456789", Duration.ofMinutes(1)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.sparksmatrix.bank.configuration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GatedDataSourceTest {
+
+    @Mock
+    DataSource pool;
+
+    @Mock
+    Connection connection;
+
+    GatedDataSource gatedDataSource;
+
+    @BeforeEach
+    void setUp() {
+        gatedDataSource = new GatedDataSource(pool, 1, 10, Duration.ofMillis(20));
+    }
+
+    @Test
+    void shouldHoldPermitUntilConnectionIsClosed() throws SQLException {
+        when(pool.getConnection()).thenReturn(connection);
+
+        Connection first = gatedDataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, gatedDataSource::getConnection);
+
+        first.close();
+        first.close();
+        verify(connection, times(2)).close();
+
+        //closing twice released a single permit
+        Connection second = gatedDataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, gatedDataSource::getConnection);
+        second.close();
+    }
+
+    @Test
+    void shouldReleasePermitWhenPoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted")).thenReturn(connection);
+
+        assertThrows(SQLException.class, gatedDataSource::getConnection);
+
+        assertNotNull(gatedDataSource.getConnection());
+    }
+
+    @Test
+    void shouldRejectAtOnceWhenTooManyAreWaiting() throws Exception {
+        gatedDataSource = new GatedDataSource(pool, 1, 1, Duration.ofSeconds(30));
+        when(pool.getConnection()).thenReturn(connection);
+        Connection held = gatedDataSource.getConnection();
+
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                gatedDataSource.getConnection().close();
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        while (gatedDataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+
+        SQLTransientConnectionException exception = assertThrows(SQLTransientConnectionException.class,
+                gatedDataSource::getConnection);
+        assertEquals("Too many requests are waiting for a database connection", exception.getMessage());
+
+        held.close();
+        waiter.join();
+        assertEquals(0, gatedDataSource.getWaiting());
+    }
+}
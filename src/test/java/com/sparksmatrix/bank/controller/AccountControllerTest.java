@@ -1,11 +1,23 @@
 package com.sparksmatrix.bank.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.sparksmatrix.bank.configuration.JpaAuditingConfig;
 import com.sparksmatrix.bank.dto.AccountBalanceResponseDto;
 import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
 import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.enums.StatementFormat;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.TooManyRequestsException;
+import com.sparksmatrix.bank.ratelimit.EndpointRateLimiter;
 import com.sparksmatrix.bank.service.AccountService;
+import com.sparksmatrix.bank.service.IdempotencyService;
+import com.sparksmatrix.bank.service.LedgerReplayService;
+import com.sparksmatrix.bank.service.StatementService;
+import com.sparksmatrix.bank.service.TransactionHistoryService;
 import com.sparksmatrix.bank.service.TransactionService;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
 import org.junit.jupiter.api.Test;
@@ -16,15 +28,28 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AccountController.class)
@@ -40,6 +65,21 @@ class AccountControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private TransactionHistoryService transactionHistoryService;
+
+    @MockitoBean
+    private StatementService statementService;
+
+    @MockitoBean
+    private LedgerReplayService ledgerReplayService;
+
+    @MockitoBean
+    private EndpointRateLimiter endpointRateLimiter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -104,14 +144,18 @@ class AccountControllerTest {
                 .data(null)
                 .build();
 
-        when(transactionService.deposit(requestDto)).thenReturn(response);
+        when(transactionService.depositAsync(requestDto)).thenReturn(CompletableFuture.completedFuture(response));
 
-        mockMvc.perform(post("/api/account/deposit")
+        MvcResult result = mockMvc.perform(post("/api/account/deposit")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
 
-        verify(transactionService, times(1)).deposit(requestDto);
+        verify(transactionService, times(1)).depositAsync(requestDto);
     }
 
     @Test
@@ -126,14 +170,209 @@ class AccountControllerTest {
                 .data(null)
                 .build();
 
-        when(transactionService.withdraw(requestDto)).thenReturn(response);
+        when(transactionService.withdrawAsync(requestDto)).thenReturn(CompletableFuture.completedFuture(response));
 
         // Act & Assert
-        mockMvc.perform(post("/api/account/withdraw")
+        MvcResult result = mockMvc.perform(post("/api/account/withdraw")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(transactionService, times(1)).withdrawAsync(requestDto);
+    }
+
+    @Test
+    void testDepositFundsInCbor() throws Exception {
+        TransactionRequestDto requestDto = new TransactionRequestDto();
+        requestDto.setAccountNumber("123456789");
+        requestDto.setAmount(500);
+
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Deposit successful")
+                .data(null)
+                .build();
+
+        when(transactionService.depositAsync(requestDto)).thenReturn(CompletableFuture.completedFuture(response));
+
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        MvcResult result = mockMvc.perform(post("/api/account/deposit")
+                        .contentType("application/cbor")
+                        .accept("application/cbor")
+                        .content(cborMapper.writeValueAsBytes(requestDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult dispatched = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        JsonNode body = cborMapper.readTree(dispatched.getResponse().getContentAsByteArray());
+        assertEquals("Deposit successful", body.get("message").asText());
+        verify(transactionService, times(1)).depositAsync(requestDto);
+    }
+
+    @Test
+    void testDepositFundsRateLimited() throws Exception {
+        TransactionRequestDto requestDto = new TransactionRequestDto();
+        requestDto.setAccountNumber("123456789");
+        requestDto.setAmount(200);
+
+        doThrow(new TooManyRequestsException(Duration.ofMillis(1500)))
+                .when(endpointRateLimiter).checkAccount("deposit", "123456789");
+
+        mockMvc.perform(post("/api/account/deposit")
+                        .header("X-Client-Id", "integrator-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"));
+
+        //the header does not come from a trusted proxy, so the client is its address
+        verify(endpointRateLimiter, times(1)).checkClient("deposit", "127.0.0.1");
+        verifyNoInteractions(transactionService, idempotencyService);
+    }
+
+    @Test
+    void testPostTransactionBatch() throws Exception {
+        List<BatchTransactionItemDto> items = List.of(
+                new BatchTransactionItemDto("123456789", 500, TransactionType.DEPOSIT),
+                new BatchTransactionItemDto("123456789", 200, TransactionType.WITHDRAWAL));
+
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Batch processed")
+                .data(List.of())
+                .build();
+
+        when(transactionService.postBatch(items)).thenReturn(response);
+
+        mockMvc.perform(post("/api/account/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk());
+
+        verify(endpointRateLimiter, times(1)).checkAccounts(Map.of(
+                "deposit", Map.of("123456789", 1),
+                "withdraw", Map.of("123456789", 1)));
+        verify(transactionService, times(1)).postBatch(items);
+    }
+
+    @Test
+    void testDepositFundsWithIdempotencyKey() throws Exception {
+        TransactionRequestDto requestDto = new TransactionRequestDto("123456789", 500);
+
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Deposit successful")
+                .build();
+
+        when(idempotencyService.execute(eq("retry-1"), eq(TransactionType.DEPOSIT), any(TransactionRequestDto.class), any()))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult result = mockMvc.perform(post("/api/account/deposit")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        verify(idempotencyService, times(1))
+                .execute(eq("retry-1"), eq(TransactionType.DEPOSIT), any(TransactionRequestDto.class), any());
+        verify(transactionService, never()).depositAsync(any(TransactionRequestDto.class));
+    }
+
+    @Test
+    void testGetTransactions() throws Exception {
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Transactions fetched successfully")
+                .build();
+
+        when(transactionHistoryService.getTransactions("123456789", TransactionType.DEPOSIT,
+                LocalDateTime.of(2025, 1, 1, 0, 0), null, "abc", 20)).thenReturn(response);
+
+        mockMvc.perform(get("/api/account/{accountNumber}/transactions", "123456789")
+                        .param("type", "DEPOSIT")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk());
+
+        verify(transactionHistoryService, times(1)).getTransactions("123456789", TransactionType.DEPOSIT,
+                LocalDateTime.of(2025, 1, 1, 0, 0), null, "abc", 20);
+    }
+
+    @Test
+    void testExportStatement() throws Exception {
+        StreamingResponseBody body = outputStream ->
+                outputStream.write("id,type,amount,createdAt\n".getBytes(StandardCharsets.UTF_8));
+        when(statementService.exportStatement("123456789", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                StatementFormat.CSV)).thenReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/api/account/{accountNumber}/statement", "123456789")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"statement-123456789-2025-01-01-2025-01-31.csv\""))
+                .andExpect(content().string("id,type,amount,createdAt\n"));
+    }
+
+    @Test
+    void testExportStatementRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/account/{accountNumber}/statement", "123456789")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(statementService);
+    }
+
+    @Test
+    void testGetBalanceAtPointInTime() throws Exception {
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Balance fetched successfully")
+                .build();
+
+        when(ledgerReplayService.getBalanceAt("123456789", LocalDateTime.of(2025, 1, 27, 18, 0))).thenReturn(response);
+
+        mockMvc.perform(get("/api/account/balance/{accountNumber}", "123456789")
+                        .param("at", "2025-01-27T18:00:00"))
+                .andExpect(status().isOk());
+
+        verify(accountService, never()).getAccountBalance(any());
+    }
+
+    @Test
+    void testTransfer() throws Exception {
+        TransferRequestDto requestDto = new TransferRequestDto("123456789", "987654321", 500);
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Transfer successful")
+                .build();
+
+        when(transactionService.transfer(requestDto)).thenReturn(response);
+
+        mockMvc.perform(post("/api/account/transfer")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isOk());
 
-        verify(transactionService, times(1)).withdraw(requestDto);
+        verify(transactionService, times(1)).transfer(requestDto);
     }
-}
\ No newline at end of file
+}
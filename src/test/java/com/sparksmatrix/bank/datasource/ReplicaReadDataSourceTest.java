@@ -0,0 +1,68 @@
+package com.sparksmatrix.bank.datasource;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaReadDataSourceTest {
+
+    private static final Duration MAX_STALENESS = Duration.ofSeconds(5);
+
+    @Mock
+    DataSource primary;
+
+    @Mock
+    DataSource replica;
+
+    @Mock
+    ReplicaLagMonitor lagMonitor;
+
+    @Mock
+    BalanceCache balanceCache;
+
+    ReplicaReadDataSource replicaReadDataSource;
+
+    ReadRouting readRouting;
+
+    @BeforeEach
+    void setUp() {
+        replicaReadDataSource = new ReplicaReadDataSource(primary, replica, lagMonitor, MAX_STALENESS);
+        readRouting = new ReadRouting(balanceCache, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldReadFromReplicaWithinMaxStaleness() {
+        when(lagMonitor.isWithin(MAX_STALENESS)).thenReturn(true);
+
+        assertSame(replica, readRouting.forAccount("123456789", replicaReadDataSource::target));
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhileReplicaIsTooFarBehind() {
+        when(lagMonitor.isWithin(MAX_STALENESS)).thenReturn(false);
+
+        assertSame(primary, replicaReadDataSource.target());
+    }
+
+    @Test
+    void shouldReadRecentlyWrittenAccountFromPrimary() {
+        when(balanceCache.isWrittenWithin("123456789", Duration.ofSeconds(5))).thenReturn(true);
+
+        assertSame(primary, readRouting.forAccount("123456789", replicaReadDataSource::target));
+        verifyNoInteractions(lagMonitor);
+
+        //the primary is only requested for the duration of the read
+        when(lagMonitor.isWithin(MAX_STALENESS)).thenReturn(true);
+        assertSame(replica, replicaReadDataSource.target());
+    }
+}
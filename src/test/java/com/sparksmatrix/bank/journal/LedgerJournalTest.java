@@ -0,0 +1,96 @@
+package com.sparksmatrix.bank.journal;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.utils.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    //four records per segment
+    private static final int SEGMENT_SIZE = 4 * JournalRecord.SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadBackDurableRecordsAcrossSegments() {
+        LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, 0);
+
+        long last = journal.append(List.of(record(1, "key-1"), record(2, null), record(3, "ключ"),
+                record(4, null), record(5, null), record(6, null)));
+        assertEquals(6, last);
+        assertEquals(0, journal.durableSequence());
+        assertThrows(IllegalArgumentException.class, () -> journal.read(1, 6));
+
+        journal.sync(last);
+
+        assertEquals(6, journal.durableSequence());
+        assertEquals(List.of(record(3, "ключ"), record(4, null), record(5, null)), journal.read(3, 5));
+    }
+
+    @Test
+    void shouldResumeAfterLastIntactRecordOnReopen() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, 0);
+        journal.sync(journal.append(List.of(record(1, null), record(2, null), record(3, null))));
+        journal.close();
+
+        //tear the second record, as a crash halfway through writing it would
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentFile(0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), JournalRecord.SIZE + 20);
+        }
+
+        LedgerJournal reopened = new LedgerJournal(directory, SEGMENT_SIZE, 0);
+        assertEquals(1, reopened.durableSequence());
+
+        //the torn record and the one after it were zeroed, so the next append becomes record 2
+        reopened.sync(reopened.append(List.of(record(7, null))));
+        reopened.close();
+        assertEquals(List.of(record(1, null), record(7, null)), new LedgerJournal(directory, SEGMENT_SIZE, 0).read(1, 2));
+    }
+
+    @Test
+    void shouldDropAppliedSegments() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, SEGMENT_SIZE, 0);
+        journal.sync(journal.append(List.of(record(1, null), record(2, null), record(3, null), record(4, null),
+                record(5, null), record(6, null), record(7, null), record(8, null), record(9, null))));
+
+        journal.releaseThrough(6);
+        assertEquals(List.of(segmentFile(1), segmentFile(2)), segmentFiles());
+
+        journal.close();
+        LedgerJournal reopened = new LedgerJournal(directory, SEGMENT_SIZE, 8);
+        assertEquals(List.of(segmentFile(2)), segmentFiles());
+        assertEquals(9, reopened.durableSequence());
+        assertEquals(List.of(record(9, null)), reopened.read(9, 9));
+    }
+
+    private static JournalRecord record(long accountId, String idempotencyKey) {
+        return new JournalRecord(accountId, accountId % 2 == 0 ? TransactionType.WITHDRAWAL : TransactionType.DEPOSIT,
+                Money.ofMajor(accountId), Money.ofMajor(100 - accountId), LocalDate.of(2026, 1, 15),
+                LocalDateTime.of(2026, 1, 15, 23, 59, 59, 999_999_000), idempotencyKey);
+    }
+
+    private static String segmentFile(long segment) {
+        return String.format("%020d.journal", segment);
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+}
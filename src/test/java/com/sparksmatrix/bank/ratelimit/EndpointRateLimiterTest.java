@@ -0,0 +1,39 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import com.sparksmatrix.bank.error.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointRateLimiterTest {
+
+    EndpointRateLimiter endpointRateLimiter = new EndpointRateLimiter(properties());
+
+    @Test
+    void shouldTakeNoTokensWhenOneAccountOfABatchIsLimited() {
+        Map<String, Integer> accounts = new LinkedHashMap<>();
+        accounts.put("111111111", 1);
+        accounts.put("222222222", 3);
+
+        //the second account asks for three requests but only has two
+        assertThrows(TooManyRequestsException.class, () -> endpointRateLimiter.checkAccounts(Map.of("deposit", accounts)));
+
+        //so the first account still has both of its tokens
+        assertDoesNotThrow(() -> endpointRateLimiter.checkAccounts(Map.of("deposit", Map.of("111111111", 2))));
+        assertThrows(TooManyRequestsException.class, () -> endpointRateLimiter.checkAccount("deposit", "111111111"));
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(2);
+        limit.setRefillPerSecond(0.001);
+        RateLimitProperties.EndpointLimits limits = new RateLimitProperties.EndpointLimits();
+        limits.setAccount(limit);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getEndpoints().put("deposit", limits);
+        return properties;
+    }
+}
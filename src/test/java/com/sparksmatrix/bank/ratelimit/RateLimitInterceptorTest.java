@@ -0,0 +1,64 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+class RateLimitInterceptorTest {
+
+    EndpointRateLimiter endpointRateLimiter = mock(EndpointRateLimiter.class);
+
+    RateLimitInterceptor interceptor = new RateLimitInterceptor(endpointRateLimiter, "X-Client-Id", Set.of("10.0.0.1"));
+
+    @Test
+    void shouldIgnoreClientHeaderFromUntrustedAddress() throws Exception {
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.addHeader("X-Client-Id", "rotated-1");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler());
+
+        verify(endpointRateLimiter).checkClient("deposit", "203.0.113.7");
+    }
+
+    @Test
+    void shouldUseClientHeaderFromTrustedProxy() throws Exception {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Client-Id", "integrator-1");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler());
+
+        verify(endpointRateLimiter).checkClient("deposit", "integrator-1");
+    }
+
+    @Test
+    void shouldPreferTheAuthenticatedPrincipal() throws Exception {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Client-Id", "integrator-1");
+        request.setUserPrincipal(() -> "integrator-2");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler());
+
+        verify(endpointRateLimiter).checkClient("deposit", "integrator-2");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/account/deposit");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private static HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(new Handler(), Handler.class.getMethod("deposit"));
+    }
+
+    static class Handler {
+        @RateLimited("deposit")
+        public void deposit() {
+        }
+    }
+}
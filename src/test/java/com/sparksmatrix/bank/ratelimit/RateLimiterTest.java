@@ -0,0 +1,102 @@
+package com.sparksmatrix.bank.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void shouldAdmitBurstThenRefillAtTheConfiguredRate() {
+        //three tokens, one every 100ms
+        RateLimiter limiter = new RateLimiter(3, 10, 100, Duration.ofMinutes(1));
+        long now = 5 * SECOND;
+
+        assertEquals(0, limiter.tryAcquire("client", now));
+        assertEquals(0, limiter.tryAcquire("client", now));
+        assertEquals(0, limiter.tryAcquire("client", now));
+        assertEquals(SECOND / 10, limiter.tryAcquire("client", now));
+        //a rejected request takes no token
+        assertEquals(SECOND / 20, limiter.tryAcquire("client", now + SECOND / 20));
+
+        assertEquals(0, limiter.tryAcquire("client", now + SECOND / 10));
+        assertTrue(limiter.tryAcquire("client", now + SECOND / 10) > 0);
+        //other keys have buckets of their own
+        assertEquals(0, limiter.tryAcquire("other", now));
+
+        //an idle bucket fills up to its capacity, not beyond
+        long later = now + 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("client", later));
+        }
+        assertTrue(limiter.tryAcquire("client", later) > 0);
+    }
+
+    @Test
+    void shouldTakeSeveralTokensAtOnceOrNone() {
+        //three tokens, one every 100ms
+        RateLimiter limiter = new RateLimiter(3, 10, 100, Duration.ofMinutes(1));
+        long now = 5 * SECOND;
+
+        assertEquals(0, limiter.tryAcquire("account", 2, now));
+        //one token is left, so a request for two takes nothing
+        assertEquals(SECOND / 10, limiter.tryAcquire("account", 2, now));
+        assertEquals(0, limiter.tryAcquire("account", now));
+        assertTrue(limiter.tryAcquire("account", now) > 0);
+
+        //tokens given back can be taken again
+        limiter.release("account", 2);
+        assertEquals(0, limiter.tryAcquire("account", 2, now));
+        assertTrue(limiter.tryAcquire("account", now) > 0);
+    }
+
+    @Test
+    void shouldNotAdmitMoreThanCapacityUnderContention() throws Exception {
+        RateLimiter limiter = new RateLimiter(1000, 0.001, 100, Duration.ofMinutes(1));
+        AtomicInteger admitted = new AtomicInteger();
+        long now = SECOND;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            Future<?>[] workers = new Future<?>[8];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        if (limiter.tryAcquire("client", now) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        assertEquals(1000, admitted.get());
+    }
+
+    @Test
+    void shouldBoundTheNumberOfBuckets() {
+        RateLimiter limiter = new RateLimiter(1, 1, 100, Duration.ofMinutes(1));
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("client-" + i, SECOND);
+        }
+
+        assertTrue(limiter.size() <= 100);
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, 100, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, 100, Duration.ofMinutes(1)));
+    }
+}
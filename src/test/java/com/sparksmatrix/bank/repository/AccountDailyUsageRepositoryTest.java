@@ -0,0 +1,78 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class AccountDailyUsageRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AccountDailyUsageRepository accountDailyUsageRepository;
+
+    Account account;
+    AccountDailyUsageId usageId;
+
+    @BeforeEach
+    void setUp() {
+        account = Account.builder()
+                .name("Test Account")
+                .accountNumber("123456789")
+                .balance(BigDecimal.valueOf(1000))
+                .build();
+        account = entityManager.persistAndFlush(account);
+
+        usageId = new AccountDailyUsageId(account.getId(), LocalDate.now(), TransactionType.DEPOSIT);
+        entityManager.persistAndFlush(AccountDailyUsage.builder()
+                .id(usageId)
+                .transactionCount(1)
+                .transactionSum(BigDecimal.valueOf(500))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        account = null;
+        accountDailyUsageRepository.deleteAll();
+    }
+
+    @Test
+    void shouldIncrementExistingUsage() {
+        int updated = accountDailyUsageRepository.incrementUsage(account.getId(), LocalDate.now(),
+                TransactionType.DEPOSIT, 1, BigDecimal.valueOf(250));
+        entityManager.clear();
+
+        Optional<AccountDailyUsage> usage = accountDailyUsageRepository.findById(usageId);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(usage).isPresent();
+        assertThat(usage.get().getTransactionCount()).isEqualTo(2);
+        assertThat(usage.get().getTransactionSum()).isEqualByComparingTo(BigDecimal.valueOf(750));
+    }
+
+    @Test
+    void shouldNotIncrementMissingUsage() {
+        int updated = accountDailyUsageRepository.incrementUsage(account.getId(), LocalDate.now(),
+                TransactionType.WITHDRAWAL, 1, BigDecimal.valueOf(250));
+
+        assertThat(updated).isZero();
+        assertThat(accountDailyUsageRepository.findById(
+                new AccountDailyUsageId(account.getId(), LocalDate.now(), TransactionType.WITHDRAWAL))).isEmpty();
+    }
+}
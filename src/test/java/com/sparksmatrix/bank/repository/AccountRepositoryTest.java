@@ -75,4 +75,33 @@ class AccountRepositoryTest {
 
         assertThat(balance).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreditBalance() {
+        int updated = accountRepository.creditBalance("000553245765", BigDecimal.valueOf(500));
+
+        assertEquals(1, updated);
+        assertThat(accountRepository.getAccountBalance("000553245765").get())
+                .isEqualByComparingTo(BigDecimal.valueOf(500));
+    }
+
+    @Test
+    void testDebitBalance_WhenBalanceIsSufficient() {
+        accountRepository.creditBalance("000553245765", BigDecimal.valueOf(500));
+
+        int updated = accountRepository.debitBalance("000553245765", BigDecimal.valueOf(200));
+
+        assertEquals(1, updated);
+        assertThat(accountRepository.getAccountBalance("000553245765").get())
+                .isEqualByComparingTo(BigDecimal.valueOf(300));
+    }
+
+    @Test
+    void testDebitBalance_WhenBalanceIsInsufficient() {
+        int updated = accountRepository.debitBalance("000553245765", BigDecimal.valueOf(200));
+
+        assertEquals(0, updated);
+        assertThat(accountRepository.getAccountBalance("000553245765").get())
+                .isEqualByComparingTo(BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,62 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.model.BalanceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BalanceSnapshotRepositoryTest {
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    LocalDateTime oldDay = LocalDateTime.now().minusDays(60).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        balanceSnapshotRepository.saveAllAndFlush(List.of(
+                snapshot(1L, oldDay.withHour(10), 100),
+                snapshot(2L, oldDay.withHour(12), 200),
+                snapshot(3L, oldDay.plusDays(1).withHour(9), 300),
+                snapshot(4L, LocalDateTime.now().minusHours(1), 400)));
+    }
+
+    private BalanceSnapshot snapshot(long lastTransactionId, LocalDateTime lastTransactionAt, int balance) {
+        return BalanceSnapshot.builder()
+                .accountId(1L)
+                .lastTransactionId(lastTransactionId)
+                .lastTransactionAt(lastTransactionAt)
+                .balance(BigDecimal.valueOf(balance))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void shouldFindNearestSnapshotAtOrBefore() {
+        List<BalanceSnapshot> nearest = balanceSnapshotRepository.findLatestAtOrBefore(1L, oldDay.withHour(11), Limit.of(1));
+        List<BalanceSnapshot> none = balanceSnapshotRepository.findLatestAtOrBefore(1L, oldDay.withHour(9), Limit.of(1));
+
+        assertThat(nearest).hasSize(1);
+        assertThat(nearest.get(0).getLastTransactionId()).isEqualTo(1L);
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void shouldKeepLastSnapshotOfEachOldDay() {
+        int removed = balanceSnapshotRepository.compactBefore(LocalDateTime.now().minusDays(30));
+
+        assertThat(removed).isEqualTo(1);
+        assertThat(balanceSnapshotRepository.findAll())
+                .extracting(BalanceSnapshot::getLastTransactionId)
+                .containsExactlyInAnyOrder(2L, 3L, 4L);
+    }
+}
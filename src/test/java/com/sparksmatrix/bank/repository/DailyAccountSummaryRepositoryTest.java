@@ -0,0 +1,140 @@
+package com.sparksmatrix.bank.repository;
+
+import com.sparksmatrix.bank.dto.DailyAccountSummaryDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.DailyBankSummary;
+import com.sparksmatrix.bank.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class DailyAccountSummaryRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+    @Autowired
+    private DailyBankSummaryRepository dailyBankSummaryRepository;
+
+    LocalDate yesterday = LocalDate.now().minusDays(1);
+    LocalDateTime startOfYesterday = yesterday.atStartOfDay();
+    LocalDateTime startOfToday = startOfYesterday.plusDays(1);
+
+    Account busy;
+    Account quiet;
+
+    @BeforeEach
+    void setUp() {
+        //balances as left by the transactions below
+        busy = entityManager.persistAndFlush(Account.builder()
+                .name("Busy Account")
+                .accountNumber("123456789")
+                .balance(BigDecimal.valueOf(600))
+                .build());
+        quiet = entityManager.persistAndFlush(Account.builder()
+                .name("Quiet Account")
+                .accountNumber("987654321")
+                .balance(BigDecimal.valueOf(300))
+                .build());
+
+        postYesterday(busy, TransactionType.DEPOSIT, 500);
+        postYesterday(busy, TransactionType.WITHDRAWAL, 100);
+        post(busy, TransactionType.DEPOSIT, 200);
+        post(quiet, TransactionType.DEPOSIT, 300);
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldRollUpAccountsWithTransactionsOnTheDay() {
+        int rolledUp = 0;
+        for (int partition = 0; partition < 2; partition++) {
+            rolledUp += dailyAccountSummaryRepository.rollUpAccounts(yesterday, startOfYesterday, startOfToday,
+                    partition, 2, false);
+        }
+        //rolling a partition up again replaces its rows
+        dailyAccountSummaryRepository.rollUpAccounts(yesterday, startOfYesterday, startOfToday,
+                (int) (busy.getId() % 2), 2, false);
+
+        assertEquals(1, rolledUp);
+        List<DailyAccountSummaryDto> page = dailyAccountSummaryRepository.findPage(yesterday, Long.MIN_VALUE, Limit.of(10));
+        assertThat(page).hasSize(1);
+        DailyAccountSummaryDto summary = page.get(0);
+        assertEquals("123456789", summary.getAccountNumber());
+        assertEquals(1, summary.getDepositCount());
+        assertThat(summary.getDepositSum()).isEqualByComparingTo(BigDecimal.valueOf(500));
+        assertEquals(1, summary.getWithdrawalCount());
+        assertThat(summary.getWithdrawalSum()).isEqualByComparingTo(BigDecimal.valueOf(100));
+        //today's deposit came after the day closed
+        assertThat(summary.getClosingBalance()).isEqualByComparingTo(BigDecimal.valueOf(400));
+        assertThat(dailyAccountSummaryRepository.findPage(yesterday, busy.getId(), Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    void shouldRollUpBankTotalsFromAccountRollups() {
+        assertTrue(dailyBankSummaryRepository.findLastBusinessDate().isEmpty());
+        assertEquals(startOfYesterday.plusHours(1), dailyAccountSummaryRepository.findFirstTransactionAt().orElseThrow());
+
+        dailyAccountSummaryRepository.rollUpAccounts(yesterday, startOfYesterday, startOfToday, 0, 1, false);
+        dailyAccountSummaryRepository.rollUpBank(yesterday, startOfToday, false);
+        dailyAccountSummaryRepository.rollUpBank(yesterday, startOfToday, false);
+
+        assertEquals(yesterday, dailyBankSummaryRepository.findLastBusinessDate().orElseThrow());
+        DailyBankSummary totals = dailyBankSummaryRepository.findById(yesterday).orElseThrow();
+        assertEquals(1, totals.getActiveAccounts());
+        assertEquals(1, totals.getDepositCount());
+        assertThat(totals.getDepositSum()).isEqualByComparingTo(BigDecimal.valueOf(500));
+        assertEquals(1, totals.getWithdrawalCount());
+        //the quiet account had nothing before today
+        assertThat(totals.getClosingBalance()).isEqualByComparingTo(BigDecimal.valueOf(400));
+    }
+
+    @Test
+    void shouldFindTransactionsAddedToADayAfterItWasRolledUp() {
+        dailyAccountSummaryRepository.rollUpAccounts(yesterday, startOfYesterday, startOfToday, 0, 1, false);
+        assertFalse(dailyAccountSummaryRepository.hasUncountedTransactions(yesterday, startOfYesterday, startOfToday, false));
+
+        //a slow commit lands in the day after it was rolled up
+        postYesterday(quiet, TransactionType.WITHDRAWAL, 50);
+        entityManager.clear();
+
+        assertTrue(dailyAccountSummaryRepository.hasUncountedTransactions(yesterday, startOfYesterday, startOfToday, false));
+        dailyAccountSummaryRepository.rollUpAccounts(yesterday, startOfYesterday, startOfToday, 0, 1, false);
+        assertFalse(dailyAccountSummaryRepository.hasUncountedTransactions(yesterday, startOfYesterday, startOfToday, false));
+        assertThat(dailyAccountSummaryRepository.findPage(yesterday, Long.MIN_VALUE, Limit.of(10))).hasSize(2);
+    }
+
+    private void post(Account account, TransactionType type, long amount) {
+        entityManager.persistAndFlush(Transaction.builder()
+                .account(account)
+                .amount(BigDecimal.valueOf(amount))
+                .type(type)
+                .build());
+    }
+
+    private void postYesterday(Account account, TransactionType type, long amount) {
+        post(account, type, amount);
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE transactions SET created_at = :createdAt WHERE account_id = :accountId "
+                        + "AND type = :type")
+                .setParameter("createdAt", startOfYesterday.plusHours(1))
+                .setParameter("accountId", account.getId())
+                .setParameter("type", type.name())
+                .executeUpdate();
+    }
+}
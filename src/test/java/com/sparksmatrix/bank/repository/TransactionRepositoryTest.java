@@ -1,18 +1,30 @@
 package com.sparksmatrix.bank.repository;
 
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
 import com.sparksmatrix.bank.enums.TransactionType;
 import com.sparksmatrix.bank.model.Account;
 import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.TransactionArchiveRepository.ArchivedChunk;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +41,8 @@ class TransactionRepositoryTest {
 
     Account account;
     Transaction transaction;
+    LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+    LocalDateTime startOfNextDay = startOfDay.plusDays(1);
 
     @BeforeEach
     void setUp() {
@@ -72,34 +86,142 @@ class TransactionRepositoryTest {
     }
 
     @Test
-    void testCountTransactionForTodayByType() {
-        int count = transactionRepository.countTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
-
-        assertThat(count).isEqualTo(2);
+    void shouldBatchInsertTransactionsWithSequenceIds() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            transactions.add(Transaction.builder()
+                    .account(account)
+                    .amount(BigDecimal.valueOf(10))
+                    .type(TransactionType.DEPOSIT)
+                    .build());
+        }
+
+        transactionRepository.batchInsert(transactions);
+
+        Set<Long> ids = new HashSet<>();
+        transactions.forEach(inserted -> ids.add(inserted.getId()));
+        assertThat(ids).hasSize(120).doesNotContainNull();
+        assertThat(transactionRepository.count()).isEqualTo(123);
     }
 
     @Test
-    void testCountTransactionForTodayByTypeWhenEmpty() {
-        transactionRepository.deleteAll();
+    void shouldSeekThroughHistoryNewestFirst() {
+        LocalDateTime earliest = LocalDateTime.of(1900, 1, 1, 0, 0);
+        LocalDateTime latest = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+        List<TransactionHistoryItemDto> firstPage = transactionRepository.findHistoryPage(
+                account.getId(), earliest, latest, Long.MIN_VALUE, Limit.of(2));
+        TransactionHistoryItemDto last = firstPage.get(1);
+        List<TransactionHistoryItemDto> secondPage = transactionRepository.findHistoryPage(
+                account.getId(), earliest, last.getCreatedAt(), last.getId(), Limit.of(2));
+
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).hasSize(1);
+        assertThat(firstPage.get(0).getType()).isEqualTo(TransactionType.WITHDRAWAL);
+        assertThat(secondPage.get(0).getAmount()).isEqualByComparingTo(BigDecimal.valueOf(500));
+    }
 
-        int count = transactionRepository.countTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
+    @Test
+    void shouldFilterHistoryByType() {
+        List<TransactionHistoryItemDto> deposits = transactionRepository.findHistoryPageByType(account.getId(),
+                TransactionType.DEPOSIT, startOfDay, startOfNextDay, Long.MIN_VALUE, Limit.of(10));
 
-        assertThat(count).isEqualTo(0);
+        assertThat(deposits).hasSize(2).allMatch(item -> item.getType() == TransactionType.DEPOSIT);
     }
 
     @Test
-    void shouldReturnSumOfTransactionsForTodayByType() {
-        BigDecimal sum = transactionRepository.sumTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
-
-        assertThat(sum).isEqualByComparingTo(BigDecimal.valueOf(600));
+    void shouldStreamStatementOldestFirst() {
+        try (Stream<TransactionHistoryItemDto> rows = transactionRepository.streamStatement(account.getId(),
+                startOfDay, startOfNextDay)) {
+            List<TransactionHistoryItemDto> statement = rows.toList();
+
+            assertThat(statement).hasSize(3);
+            assertThat(statement.get(0).getAmount()).isEqualByComparingTo(BigDecimal.valueOf(500));
+            assertThat(statement.get(2).getType()).isEqualTo(TransactionType.WITHDRAWAL);
+        }
     }
 
     @Test
-    void shouldReturnZeroIfNoTransaction() {
-        transactionRepository.deleteAll();
+    void shouldSumLedgerDeltaAfterPosition() {
+        List<TransactionHistoryItemDto> oldestFirst = transactionRepository.findHistoryPage(account.getId(), startOfDay,
+                startOfNextDay, Long.MAX_VALUE, Limit.of(3)).reversed();
+        TransactionHistoryItemDto first = oldestFirst.get(0);
+
+        LedgerDeltaDto all = transactionRepository.sumLedgerDelta(account.getId(), LocalDateTime.of(1900, 1, 1, 0, 0),
+                Long.MIN_VALUE, startOfNextDay);
+        LedgerDeltaDto afterFirst = transactionRepository.sumLedgerDelta(account.getId(), first.getCreatedAt(),
+                first.getId(), startOfNextDay);
+
+        assertEquals(3L, all.getEntries());
+        assertThat(all.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(400));
+        assertEquals(2L, afterFirst.getEntries());
+        assertThat(afterFirst.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(-100));
+    }
 
-        BigDecimal sum = transactionRepository.sumTransactionForTodayByType(account.getId(), TransactionType.DEPOSIT);
+    @Test
+    void shouldReplayTransactionsAppliedAfterASnapshotWasTaken() {
+        //a snapshot up to now has seen the three transactions from setUp
+        TransactionHistoryItemDto snapshotted = transactionRepository.findHistoryPage(account.getId(), startOfDay,
+                LocalDateTime.now(), Long.MAX_VALUE, Limit.of(1)).get(0);
+        LocalDateTime acceptedAt = snapshotted.getCreatedAt().minusHours(1);
+
+        //then the journal applier catches up with a deposit accepted an hour before
+        transactionRepository.batchInsert(List.of(Transaction.builder()
+                .account(account)
+                .amount(BigDecimal.valueOf(50))
+                .type(TransactionType.DEPOSIT)
+                .acceptedAt(acceptedAt)
+                .build()));
+
+        LedgerDeltaDto sinceSnapshot = transactionRepository.sumLedgerDelta(account.getId(),
+                snapshotted.getCreatedAt(), snapshotted.getId(), startOfNextDay);
+        assertEquals(1L, sinceSnapshot.getEntries());
+        assertThat(sinceSnapshot.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(50));
+        Transaction applied = transactionRepository.findAll().stream()
+                .filter(candidate -> candidate.getAcceptedAt() != null).findFirst().orElseThrow();
+        assertEquals(acceptedAt, applied.getAcceptedAt());
+        assertThat(applied.getCreatedAt()).isAfterOrEqualTo(snapshotted.getCreatedAt());
+    }
 
-        assertThat(sum).isEqualByComparingTo(BigDecimal.valueOf(0));
+    @Test
+    void shouldArchiveOldTransactionsInChunksAndReadBothTiers() {
+        LocalDateTime earliest = LocalDateTime.of(1900, 1, 1, 0, 0);
+        LocalDateTime latest = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+        List<TransactionHistoryItemDto> oldestFirst = transactionRepository.findHistoryPage(account.getId(), startOfDay,
+                startOfNextDay, Long.MAX_VALUE, Limit.of(3)).reversed();
+        //the two deposits become a year old
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE transactions SET created_at = :createdAt WHERE id IN (:ids)")
+                .setParameter("createdAt", startOfDay.minusYears(1))
+                .setParameter("ids", List.of(oldestFirst.get(0).getId(), oldestFirst.get(1).getId()))
+                .executeUpdate();
+        entityManager.clear();
+
+        Optional<ArchivedChunk> first = transactionRepository.archiveChunk(startOfDay, earliest, Long.MIN_VALUE, 1);
+        assertEquals(1, first.orElseThrow().rows());
+        assertEquals(oldestFirst.get(0).getId(), first.get().lastId());
+        Optional<ArchivedChunk> second = transactionRepository.archiveChunk(startOfDay, first.get().lastCreatedAt(),
+                first.get().lastId(), 10);
+        assertEquals(1, second.orElseThrow().rows());
+        assertTrue(transactionRepository.archiveChunk(startOfDay, second.get().lastCreatedAt(), second.get().lastId(), 10)
+                .isEmpty());
+
+        assertThat(transactionRepository.findHistoryPage(account.getId(), earliest, latest, Long.MIN_VALUE, Limit.of(10)))
+                .hasSize(1);
+        assertThat(transactionRepository.findTieredHistoryPage(account.getId(), null, earliest, latest, Long.MIN_VALUE, 10))
+                .extracting(TransactionHistoryItemDto::getId)
+                .containsExactly(oldestFirst.get(2).getId(), oldestFirst.get(1).getId(), oldestFirst.get(0).getId());
+        assertThat(transactionRepository.findTieredHistoryPage(account.getId(), TransactionType.DEPOSIT, earliest, latest,
+                Long.MIN_VALUE, 10)).hasSize(2);
+
+        LedgerDeltaDto all = transactionRepository.sumTieredLedgerDelta(account.getId(), earliest, Long.MIN_VALUE, startOfNextDay);
+        assertEquals(3L, all.getEntries());
+        assertThat(all.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(400));
+
+        try (Stream<TransactionHistoryItemDto> rows = transactionRepository.streamTieredStatement(account.getId(),
+                earliest, startOfNextDay)) {
+            assertThat(rows.map(TransactionHistoryItemDto::getId).toList())
+                    .containsExactly(oldestFirst.get(0).getId(), oldestFirst.get(1).getId(), oldestFirst.get(2).getId());
+        }
     }
-}
\ No newline at end of file
+}
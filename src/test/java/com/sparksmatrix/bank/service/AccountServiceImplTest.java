@@ -1,10 +1,14 @@
 package com.sparksmatrix.bank.service;
 
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.datasource.ReadRouting;
 import com.sparksmatrix.bank.dto.AccountBalanceResponseDto;
 import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
 import com.sparksmatrix.bank.model.Account;
 import com.sparksmatrix.bank.repository.AccountRepository;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +17,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +36,15 @@ class AccountServiceImplTest {
     @Mock
     AccountRepository accountRepository;
 
+    @Mock
+    BalanceCache balanceCache;
+
+    @Spy
+    LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    ReadRouting readRouting = new ReadRouting(Mockito.mock(BalanceCache.class), Duration.ofSeconds(5));
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -119,6 +135,34 @@ class AccountServiceImplTest {
         assertThat(actualResponse).usingRecursiveComparison().isEqualTo(expectedResponse);
 
         Mockito.verify(accountRepository, times(1)).getAccountBalance(accountNumber);
+        Mockito.verify(balanceCache, times(1)).putIfAbsent(accountNumber, expectedBalance);
+    }
+
+    @Test
+    void shouldNotCacheBalanceReadFromReplica() {
+        String accountNumber = "123456";
+        ReflectionTestUtils.setField(accountService, "replicaUrl", "jdbc:h2:mem:replica");
+        Mockito.when(accountRepository.getAccountBalance(accountNumber))
+                .thenReturn(Optional.of(BigDecimal.valueOf(5000.00)));
+
+        ResponseWrapper response = accountService.getAccountBalance(accountNumber);
+
+        assertThat(response.getCode()).isEqualTo(HttpStatus.OK.value());
+        Mockito.verify(balanceCache, Mockito.never()).putIfAbsent(Mockito.anyString(), Mockito.any(BigDecimal.class));
+    }
+
+    @Test
+    void shouldReturnCachedBalanceWithoutQueryingTheDatabase() {
+        String accountNumber = "123456";
+        BigDecimal cachedBalance = BigDecimal.valueOf(7500.00);
+
+        Mockito.when(balanceCache.get(accountNumber)).thenReturn(Optional.of(cachedBalance));
+
+        ResponseWrapper response = accountService.getAccountBalance(accountNumber);
+
+        assertThat(response.getCode()).isEqualTo(HttpStatus.OK.value());
+        assertThat(((AccountBalanceResponseDto) response.getData()).getBalance()).isEqualTo(cachedBalance);
+        Mockito.verifyNoInteractions(accountRepository);
     }
 
     @Test
@@ -0,0 +1,126 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.repository.DailyAccountSummaryRepository;
+import com.sparksmatrix.bank.repository.DailyBankSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyRollupJobTest {
+
+    @Mock
+    DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+    @Mock
+    DailyBankSummaryRepository dailyBankSummaryRepository;
+
+    @Mock
+    TransactionArchiveService transactionArchiveService;
+
+    @Spy
+    BusinessCalendar businessCalendar = new BusinessCalendar("");
+
+    @InjectMocks
+    DailyRollupJob dailyRollupJob;
+
+    LocalDate today = businessCalendar.today();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dailyRollupJob, "partitions", 2);
+        ReflectionTestUtils.setField(dailyRollupJob, "settleDelay", Duration.ZERO);
+        dailyRollupJob.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dailyRollupJob.stop();
+    }
+
+    @Test
+    void shouldRollUpEveryClosedDayAfterTheLastOne() {
+        when(dailyBankSummaryRepository.findLastBusinessDate()).thenReturn(Optional.of(today.minusDays(3)));
+        when(dailyAccountSummaryRepository.rollUpAccounts(any(), any(), any(), anyInt(), eq(2), anyBoolean()))
+                .thenReturn(5);
+
+        dailyRollupJob.rollUpClosedDays();
+
+        for (LocalDate day : new LocalDate[]{today.minusDays(2), today.minusDays(1)}) {
+            for (int partition = 0; partition < 2; partition++) {
+                verify(dailyAccountSummaryRepository).rollUpAccounts(day, businessCalendar.startOfDay(day),
+                        businessCalendar.startOfNextDay(day), partition, 2, false);
+            }
+            verify(dailyAccountSummaryRepository).rollUpBank(day, businessCalendar.startOfNextDay(day), false);
+        }
+        //today is still open
+        verify(dailyAccountSummaryRepository, never()).rollUpBank(eq(today), any(), anyBoolean());
+        verify(dailyAccountSummaryRepository, never()).findFirstTransactionAt();
+    }
+
+    @Test
+    void shouldStartAtTheDayOfTheFirstTransaction() {
+        LocalDate first = today.minusDays(1);
+        when(dailyBankSummaryRepository.findLastBusinessDate()).thenReturn(Optional.empty());
+        when(dailyAccountSummaryRepository.findFirstTransactionAt())
+                .thenReturn(Optional.of(businessCalendar.startOfDay(first).plusHours(12)));
+        when(transactionArchiveService.reachesArchive(businessCalendar.startOfDay(first))).thenReturn(true);
+
+        dailyRollupJob.rollUpClosedDays();
+
+        verify(dailyAccountSummaryRepository, times(2)).rollUpAccounts(eq(first), any(), any(), anyInt(), eq(2), eq(true));
+        verify(dailyAccountSummaryRepository).rollUpBank(first, businessCalendar.startOfNextDay(first), true);
+    }
+
+    @Test
+    void shouldStopBeforeTheBankRowWhenAPartitionFails() {
+        LocalDate day = today.minusDays(2);
+        when(dailyBankSummaryRepository.findLastBusinessDate()).thenReturn(Optional.of(day.minusDays(1)));
+        when(dailyAccountSummaryRepository.rollUpAccounts(eq(day), any(), any(), eq(0), eq(2), anyBoolean()))
+                .thenReturn(5);
+        when(dailyAccountSummaryRepository.rollUpAccounts(eq(day), any(), any(), eq(1), eq(2), anyBoolean()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        dailyRollupJob.rollUpClosedDays();
+
+        //the day stays the next one to roll up and later days wait for it
+        verify(dailyAccountSummaryRepository, never()).rollUpBank(any(), any(), anyBoolean());
+        verify(dailyAccountSummaryRepository, never()).rollUpAccounts(eq(today.minusDays(1)), any(), any(), anyInt(),
+                anyInt(), anyBoolean());
+    }
+
+    @Test
+    void shouldRollUpAgainFromARecentDayThatGainedTransactions() {
+        ReflectionTestUtils.setField(dailyRollupJob, "recheckDays", 2);
+        LocalDate changed = today.minusDays(2);
+        when(dailyBankSummaryRepository.findLastBusinessDate()).thenReturn(Optional.of(today.minusDays(1)));
+        when(dailyAccountSummaryRepository.hasUncountedTransactions(changed, businessCalendar.startOfDay(changed),
+                businessCalendar.startOfNextDay(changed), false)).thenReturn(true);
+
+        dailyRollupJob.rollUpClosedDays();
+
+        //the day after it is rolled up again too, since its closing balances include the late transactions
+        verify(dailyAccountSummaryRepository).rollUpBank(changed, businessCalendar.startOfNextDay(changed), false);
+        verify(dailyAccountSummaryRepository).rollUpBank(today.minusDays(1), businessCalendar.startOfNextDay(today.minusDays(1)),
+                false);
+        verify(dailyAccountSummaryRepository, never()).hasUncountedTransactions(eq(today.minusDays(1)), any(), any(),
+                anyBoolean());
+    }
+}
@@ -0,0 +1,136 @@
+package com.sparksmatrix.bank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.IdempotencyRecord;
+import com.sparksmatrix.bank.repository.IdempotencyRecordRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    IdempotencyRecordRepository idempotencyRecordRepository;
+
+    IdempotencyService idempotencyService;
+
+    TransactionRequestDto request;
+
+    AtomicInteger executions;
+
+    ResponseWrapper deposited;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new ObjectMapper(),
+                100, Duration.ofMinutes(10), Duration.ofDays(1));
+        request = new TransactionRequestDto("123456789", 100);
+        executions = new AtomicInteger();
+        deposited = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Deposit successful")
+                .build();
+    }
+
+    private Supplier<CompletableFuture<ResponseWrapper>> deposit() {
+        return () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(deposited);
+        };
+    }
+
+    @Test
+    void shouldReturnOriginalResponseForRepeatedKey() {
+        ResponseWrapper first = idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, deposit()).join();
+        ResponseWrapper second = idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, deposit()).join();
+
+        assertSame(first, second);
+        assertEquals(1, executions.get());
+        assertEquals("retry-1", request.getIdempotencyKey());
+        verify(idempotencyRecordRepository, times(1)).findById("retry-1");
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, deposit()).join();
+
+        CompletableFuture<ResponseWrapper> reused = idempotencyService.execute("retry-1", TransactionType.WITHDRAWAL,
+                request, deposit());
+
+        CompletionException exception = assertThrows(CompletionException.class, reused::join);
+        assertInstanceOf(BadRequestException.class, exception.getCause());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void shouldReplayPersistedResponseWithoutExecuting() {
+        when(idempotencyRecordRepository.findById("retry-1")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .idempotencyKey("retry-1")
+                .requestFingerprint("DEPOSIT:123456789:100")
+                .responseCode(200)
+                .responseMessage("Deposit successful")
+                .responseData("{\"id\":7}")
+                .createdAt(LocalDateTime.now())
+                .build()));
+
+        ResponseWrapper response = idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, deposit()).join();
+
+        assertEquals(200, response.getCode());
+        assertEquals("Deposit successful", response.getMessage());
+        assertEquals("{\"id\":7}", response.getData().toString());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void shouldReleaseKeyWhenRequestFails() {
+        Supplier<CompletableFuture<ResponseWrapper>> rejected = () -> {
+            executions.incrementAndGet();
+            throw new BadRequestException("You have exceeded the maximum deposit amount.");
+        };
+
+        CompletableFuture<ResponseWrapper> first = idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, rejected);
+        assertThrows(CompletionException.class, first::join);
+
+        idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request, deposit()).join();
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void shouldReplayWinnerWhenAnotherInstanceRecordedTheKeyFirst() {
+        when(idempotencyRecordRepository.findById("retry-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(IdempotencyRecord.builder()
+                        .idempotencyKey("retry-1")
+                        .requestFingerprint("DEPOSIT:123456789:100")
+                        .responseCode(200)
+                        .responseMessage("Deposit successful")
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+
+        ResponseWrapper response = idempotencyService.execute("retry-1", TransactionType.DEPOSIT, request,
+                () -> CompletableFuture.failedFuture(new DataIntegrityViolationException("duplicate key"))).join();
+
+        assertEquals(200, response.getCode());
+        verify(idempotencyRecordRepository, times(2)).findById("retry-1");
+    }
+}
@@ -0,0 +1,183 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.journal.JournalRecord;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.QuarantinedJournalRecord;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.JournalCheckpointRepository;
+import com.sparksmatrix.bank.repository.QuarantinedJournalRecordRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerJournalServiceTest {
+
+    private static final LocalDateTime ACCEPTED_AT = LocalDateTime.of(2026, 1, 15, 23, 59, 59, 999_999_000);
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    JournalCheckpointRepository journalCheckpointRepository;
+
+    @Mock
+    QuarantinedJournalRecordRepository quarantinedJournalRecordRepository;
+
+    @Mock
+    TransactionServiceImpl transactionServiceImpl;
+
+    @Mock
+    IdempotencyService idempotencyService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Spy
+    LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    LedgerJournalService ledgerJournalService;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledgerJournalService, "directory", directory.toString());
+        ReflectionTestUtils.setField(ledgerJournalService, "segmentSize", DataSize.ofKilobytes(64));
+        ReflectionTestUtils.setField(ledgerJournalService, "applyBatchSize", 8);
+        lenient().when(accountRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> Account.builder().id(id).accountNumber("00000000" + id)
+                    .balance(BigDecimal.ZERO).version(0L).build()).toList();
+        });
+        ledgerJournalService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerJournalService.stop();
+    }
+
+    @Test
+    void shouldApplyRecordsWithTheTimeTheyWereAccepted() {
+        List<Transaction> inserted = new ArrayList<>();
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0)))
+                .when(transactionRepository).batchInsert(anyList());
+
+        ledgerJournalService.append(List.of(record(1), record(2)));
+        ledgerJournalService.awaitApplied();
+
+        assertEquals(2, inserted.size());
+        inserted.forEach(transaction -> assertEquals(ACCEPTED_AT, transaction.getAcceptedAt()));
+        verify(transactionServiceImpl).recordDailyUsage(1L, TransactionType.DEPOSIT, LocalDate.of(2026, 1, 15),
+                1, new BigDecimal("1.00"));
+        verify(journalCheckpointRepository).updateAppliedSequence(2);
+    }
+
+    @Test
+    void shouldQuarantineARecordThatCannotBeAppliedAndApplyTheRest() {
+        List<Long> applied = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.stream().anyMatch(transaction -> transaction.getAccount().getId() == 3L)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            transactions.forEach(transaction -> applied.add(transaction.getAccount().getId()));
+            return null;
+        }).when(transactionRepository).batchInsert(anyList());
+
+        ledgerJournalService.append(List.of(record(1), record(2), record(3), record(4), record(5)));
+        ledgerJournalService.awaitApplied();
+
+        assertEquals(List.of(1L, 2L, 4L, 5L), applied);
+        ArgumentCaptor<QuarantinedJournalRecord> quarantined = ArgumentCaptor.forClass(QuarantinedJournalRecord.class);
+        verify(quarantinedJournalRecordRepository).save(quarantined.capture());
+        assertEquals(3L, quarantined.getValue().getSequence());
+        assertEquals(3L, quarantined.getValue().getAccountId());
+        assertEquals(ACCEPTED_AT, quarantined.getValue().getAcceptedAt());
+        assertTrue(quarantined.getValue().getError().contains("duplicate key"));
+        verify(ledgerMetrics).journalRecordQuarantined();
+        verify(journalCheckpointRepository).updateAppliedSequence(5);
+    }
+
+    @Test
+    void shouldQuarantineARecordOfAnUnknownAccount() {
+        when(accountRepository.findAllById(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 2L).map(id -> Account.builder().id(id).accountNumber("00000000" + id)
+                    .balance(BigDecimal.ZERO).version(0L).build()).toList();
+        });
+        List<Transaction> inserted = new ArrayList<>();
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0)))
+                .when(transactionRepository).batchInsert(anyList());
+
+        ledgerJournalService.append(List.of(record(1), record(2), record(3)));
+        ledgerJournalService.awaitApplied();
+
+        assertEquals(List.of(1L, 3L), inserted.stream().map(transaction -> transaction.getAccount().getId()).toList());
+        ArgumentCaptor<List<QuarantinedJournalRecord>> quarantined = ArgumentCaptor.captor();
+        verify(quarantinedJournalRecordRepository).saveAll(quarantined.capture());
+        assertEquals(1, quarantined.getValue().size());
+        assertEquals(2L, quarantined.getValue().get(0).getSequence());
+        assertEquals(2L, quarantined.getValue().get(0).getAccountId());
+        verify(ledgerMetrics).journalRecordQuarantined();
+        verify(journalCheckpointRepository).updateAppliedSequence(3);
+    }
+
+    @Test
+    void shouldRetryTheWholeBatchWhileTheDatabaseIsUnavailable() {
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (failed.compareAndSet(false, true)) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            return null;
+        }).when(transactionRepository).batchInsert(anyList());
+
+        ledgerJournalService.append(List.of(record(1), record(2)));
+        ledgerJournalService.awaitApplied();
+
+        verify(transactionRepository, times(2)).batchInsert(argThat(transactions -> transactions.size() == 2));
+        verify(quarantinedJournalRecordRepository, never()).save(any());
+        verify(journalCheckpointRepository).updateAppliedSequence(2);
+    }
+
+    private static JournalRecord record(long accountId) {
+        return new JournalRecord(accountId, TransactionType.DEPOSIT, Money.ofMajor(1), Money.ofMajor(1),
+                LocalDate.of(2026, 1, 15), ACCEPTED_AT, null);
+    }
+}
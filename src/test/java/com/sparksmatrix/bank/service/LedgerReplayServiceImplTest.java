@@ -0,0 +1,139 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.PointInTimeBalanceDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.BalanceSnapshot;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.BalanceSnapshotRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReplayServiceImplTest {
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Mock
+    TransactionArchiveService transactionArchiveService;
+
+    @Spy
+    ReadRouting readRouting = new ReadRouting(mock(BalanceCache.class), Duration.ofSeconds(5));
+
+    @InjectMocks
+    LedgerReplayServiceImpl ledgerReplayService;
+
+    LocalDateTime at = LocalDateTime.of(2025, 1, 27, 18, 0);
+
+    BalanceSnapshot snapshot = BalanceSnapshot.builder()
+            .accountId(1L)
+            .lastTransactionId(40L)
+            .lastTransactionAt(LocalDateTime.of(2025, 1, 27, 12, 0))
+            .balance(BigDecimal.valueOf(1000))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledgerReplayService, "minEntries", 10);
+    }
+
+    @Test
+    void shouldReplayFromNearestSnapshot() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        when(balanceSnapshotRepository.findLatestAtOrBefore(1L, at, Limit.of(1))).thenReturn(List.of(snapshot));
+        when(transactionRepository.sumLedgerDelta(1L, snapshot.getLastTransactionAt(), 40L, at))
+                .thenReturn(new LedgerDeltaDto(3L, BigDecimal.valueOf(-250)));
+
+        ResponseWrapper response = ledgerReplayService.getBalanceAt("123456789", at);
+        PointInTimeBalanceDto balance = (PointInTimeBalanceDto) response.getData();
+
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals(0, BigDecimal.valueOf(750).compareTo(balance.getBalance()));
+        assertEquals(3L, balance.getReplayedEntries());
+    }
+
+    @Test
+    void shouldReplayFromFirstTransactionWithoutSnapshot() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        when(balanceSnapshotRepository.findLatestAtOrBefore(1L, at, Limit.of(1))).thenReturn(List.of());
+        when(transactionRepository.sumLedgerDelta(1L, TransactionHistoryServiceImpl.EARLIEST, Long.MIN_VALUE, at))
+                .thenReturn(new LedgerDeltaDto(2L, BigDecimal.valueOf(300)));
+
+        PointInTimeBalanceDto balance = (PointInTimeBalanceDto) ledgerReplayService.getBalanceAt("123456789", at).getData();
+
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(balance.getBalance()));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() {
+        when(accountRepository.findByAccountNumber("999999")).thenReturn(Optional.empty());
+
+        ResponseWrapper response = ledgerReplayService.getBalanceAt("999999", at);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldSnapshotBalanceAfterLastEntry() {
+        when(transactionRepository.findHistoryPage(1L, TransactionHistoryServiceImpl.EARLIEST, at, Long.MAX_VALUE, Limit.of(1)))
+                .thenReturn(List.of(new TransactionHistoryItemDto(55L, TransactionType.DEPOSIT, BigDecimal.TEN,
+                        LocalDateTime.of(2025, 1, 27, 17, 30))));
+        when(balanceSnapshotRepository.findLatestAtOrBefore(1L, at, Limit.of(1))).thenReturn(List.of(snapshot));
+        when(transactionRepository.sumLedgerDelta(1L, snapshot.getLastTransactionAt(), 40L, at))
+                .thenReturn(new LedgerDeltaDto(15L, BigDecimal.valueOf(500)));
+
+        assertTrue(ledgerReplayService.takeSnapshot(1L, at));
+
+        ArgumentCaptor<BalanceSnapshot> saved = ArgumentCaptor.forClass(BalanceSnapshot.class);
+        verify(balanceSnapshotRepository).saveAndFlush(saved.capture());
+        assertEquals(55L, saved.getValue().getLastTransactionId());
+        assertEquals(0, BigDecimal.valueOf(1500).compareTo(saved.getValue().getBalance()));
+    }
+
+    @Test
+    void shouldSkipSnapshotWithFewNewEntries() {
+        when(transactionRepository.findHistoryPage(1L, TransactionHistoryServiceImpl.EARLIEST, at, Long.MAX_VALUE, Limit.of(1)))
+                .thenReturn(List.of(new TransactionHistoryItemDto(41L, TransactionType.DEPOSIT, BigDecimal.TEN,
+                        LocalDateTime.of(2025, 1, 27, 12, 5))));
+        when(balanceSnapshotRepository.findLatestAtOrBefore(1L, at, Limit.of(1))).thenReturn(List.of(snapshot));
+        when(transactionRepository.sumLedgerDelta(1L, snapshot.getLastTransactionAt(), 40L, at))
+                .thenReturn(new LedgerDeltaDto(1L, BigDecimal.TEN));
+
+        assertFalse(ledgerReplayService.takeSnapshot(1L, at));
+        verify(balanceSnapshotRepository, never()).saveAndFlush(any());
+    }
+}
@@ -0,0 +1,132 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.ReactiveAccountDailyUsageRepository;
+import com.sparksmatrix.bank.repository.ReactiveAccountRepository;
+import com.sparksmatrix.bank.repository.ReactiveTransactionRepository;
+import com.sparksmatrix.bank.utils.Money;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLedgerServiceImplTest {
+
+    @Mock
+    ReactiveAccountRepository reactiveAccountRepository;
+
+    @Mock
+    ReactiveTransactionRepository reactiveTransactionRepository;
+
+    @Mock
+    ReactiveAccountDailyUsageRepository reactiveAccountDailyUsageRepository;
+
+    @Mock
+    TransactionServiceImpl transactionServiceImpl;
+
+    @Mock
+    BalanceCache balanceCache;
+
+    @Mock
+    TransactionalOperator reactiveTransactionalOperator;
+
+    @Spy
+    BusinessCalendar businessCalendar = new BusinessCalendar("");
+
+    @Spy
+    LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    ReactiveLedgerServiceImpl reactiveLedgerService;
+
+    Account account;
+
+    @BeforeEach
+    void setUp() {
+        account = Account.builder().id(1L).accountNumber("123456789").balance(new BigDecimal("100.00")).version(0L).build();
+        lenient().when(reactiveTransactionalOperator.transactional(any(Mono.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldPostDepositAndRefreshTheCache() {
+        AccountDailyUsageId usageId = new AccountDailyUsageId(1L, LocalDate.now(), TransactionType.DEPOSIT);
+        when(reactiveAccountRepository.findByAccountNumberForUpdate("123456789")).thenReturn(Mono.just(account));
+        when(reactiveAccountDailyUsageRepository.findById(usageId)).thenReturn(Mono.empty());
+        when(reactiveAccountRepository.creditBalance("123456789", new BigDecimal("10.00"))).thenReturn(Mono.just(1L));
+        when(reactiveTransactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reactiveAccountDailyUsageRepository.incrementUsage(1L, LocalDate.now(), TransactionType.DEPOSIT, 1,
+                new BigDecimal("10.00"))).thenReturn(Mono.just(0L));
+        when(reactiveAccountDailyUsageRepository.insert(any(AccountDailyUsage.class))).thenReturn(Mono.just(1L));
+
+        ResponseWrapper response = reactiveLedgerService.deposit(new TransactionRequestDto("123456789", 10)).block();
+
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals("Deposit successful", response.getMessage());
+        verify(transactionServiceImpl).validateDailyLimits(TransactionType.DEPOSIT, Money.ofMajor(10), 0, Money.ZERO);
+        verify(reactiveAccountDailyUsageRepository).insert(AccountDailyUsage.builder()
+                .id(usageId).transactionCount(1).transactionSum(new BigDecimal("10.00")).build());
+        verify(balanceCache).put("123456789", new BigDecimal("110.00"), 1L);
+        verify(ledgerMetrics).operation(eq("deposit"), any(Mono.class));
+    }
+
+    @Test
+    void shouldRejectWithdrawalAboveTheBalance() {
+        when(reactiveAccountRepository.findByAccountNumberForUpdate("123456789")).thenReturn(Mono.just(account));
+        when(reactiveAccountDailyUsageRepository.findById(any(AccountDailyUsageId.class))).thenReturn(Mono.empty());
+
+        Mono<ResponseWrapper> withdrawal = reactiveLedgerService.withdraw(new TransactionRequestDto("123456789", 150));
+
+        BadRequestException exception = assertThrows(BadRequestException.class, withdrawal::block);
+        assertEquals("Insufficient balance.", exception.getMessage());
+        verify(reactiveAccountRepository, never()).debitBalance(anyString(), any(BigDecimal.class));
+        verifyNoInteractions(balanceCache);
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() {
+        when(reactiveAccountRepository.findByAccountNumberForUpdate("000000000")).thenReturn(Mono.empty());
+
+        ResponseWrapper response = reactiveLedgerService.deposit(new TransactionRequestDto("000000000", 10)).block();
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        assertEquals("Account not found", response.getMessage());
+        verifyNoInteractions(reactiveTransactionRepository);
+    }
+
+    @Test
+    void shouldLoadUncachedBalanceOnce() {
+        when(balanceCache.get("123456789")).thenReturn(Optional.empty());
+        when(reactiveAccountRepository.getAccountBalance("123456789")).thenReturn(Mono.just(new BigDecimal("100.00")));
+
+        ResponseWrapper response = reactiveLedgerService.getAccountBalance("123456789").block();
+
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        verify(balanceCache).putIfAbsent("123456789", new BigDecimal("100.00"));
+    }
+}
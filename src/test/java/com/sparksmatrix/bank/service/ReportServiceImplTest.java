@@ -0,0 +1,97 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.DailyAccountSummaryDto;
+import com.sparksmatrix.bank.dto.DailyReportDto;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.DailyBankSummary;
+import com.sparksmatrix.bank.repository.DailyAccountSummaryRepository;
+import com.sparksmatrix.bank.repository.DailyBankSummaryRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceImplTest {
+
+    @Mock
+    DailyAccountSummaryRepository dailyAccountSummaryRepository;
+
+    @Mock
+    DailyBankSummaryRepository dailyBankSummaryRepository;
+
+    @InjectMocks
+    ReportServiceImpl reportService;
+
+    LocalDate date = LocalDate.of(2025, 1, 27);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(reportService, "maxPageSize", 10);
+    }
+
+    @Test
+    void shouldReturnTotalsAndFirstPageOfAccounts() {
+        when(dailyBankSummaryRepository.findById(date)).thenReturn(Optional.of(DailyBankSummary.builder()
+                .businessDate(date)
+                .activeAccounts(3)
+                .depositCount(4)
+                .depositSum(BigDecimal.valueOf(4000))
+                .withdrawalCount(1)
+                .withdrawalSum(BigDecimal.valueOf(500))
+                .closingBalance(BigDecimal.valueOf(12500))
+                .build()));
+        when(dailyAccountSummaryRepository.findPage(date, Long.MIN_VALUE, Limit.of(3)))
+                .thenReturn(List.of(summary(1L), summary(2L), summary(3L)));
+
+        ResponseWrapper response = reportService.getDailyReport(date, null, null);
+
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        DailyReportDto report = (DailyReportDto) response.getData();
+        assertEquals(3, report.getActiveAccounts());
+        assertEquals(BigDecimal.valueOf(12500), report.getClosingBalance());
+        assertEquals(List.of(1L, 2L), report.getAccounts().stream().map(DailyAccountSummaryDto::getAccountId).toList());
+        assertEquals(2L, report.getNextAfterAccountId());
+    }
+
+    @Test
+    void shouldReportDaysNotRolledUpAsNotFound() {
+        when(dailyBankSummaryRepository.findById(date)).thenReturn(Optional.empty());
+
+        ResponseWrapper response = reportService.getDailyReport(date, 2L, 5);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        verifyNoInteractions(dailyAccountSummaryRepository);
+    }
+
+    @Test
+    void shouldRejectLimitAboveMaximum() {
+        assertThrows(BadRequestException.class, () -> reportService.getDailyReport(date, null, 11));
+        verifyNoInteractions(dailyBankSummaryRepository, dailyAccountSummaryRepository);
+    }
+
+    private static DailyAccountSummaryDto summary(Long accountId) {
+        return DailyAccountSummaryDto.builder()
+                .accountId(accountId)
+                .accountNumber(String.format("%012d", accountId))
+                .depositCount(1)
+                .depositSum(BigDecimal.valueOf(1000))
+                .closingBalance(BigDecimal.valueOf(1000))
+                .build();
+    }
+}
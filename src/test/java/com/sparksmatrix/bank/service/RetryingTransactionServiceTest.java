@@ -0,0 +1,75 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryingTransactionServiceTest {
+
+    @Mock
+    TransactionServiceImpl delegate;
+
+    RetryingTransactionService retryingTransactionService;
+
+    TransactionRequestDto request;
+
+    @BeforeEach
+    void setUp() {
+        retryingTransactionService = new RetryingTransactionService(delegate, 3, 1, 2);
+
+        request = new TransactionRequestDto();
+        request.setAccountNumber("123456789");
+        request.setAmount(100);
+    }
+
+    @Test
+    void shouldRetryOnOptimisticLockConflict() {
+        ResponseWrapper response = ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Deposit successful")
+                .build();
+
+        when(delegate.deposit(request))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .thenReturn(response);
+
+        ResponseWrapper result = retryingTransactionService.deposit(request);
+
+        assertSame(response, result);
+        assertEquals(1, retryingTransactionService.getRetryCount());
+        verify(delegate, times(2)).deposit(request);
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        when(delegate.withdraw(request))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> retryingTransactionService.withdraw(request));
+
+        assertEquals(2, retryingTransactionService.getRetryCount());
+        verify(delegate, times(3)).withdraw(request);
+    }
+
+    @Test
+    void shouldNotRetryBusinessRuleViolations() {
+        when(delegate.withdraw(request)).thenThrow(new BadRequestException("Insufficient balance."));
+
+        assertThrows(BadRequestException.class, () -> retryingTransactionService.withdraw(request));
+
+        verify(delegate, times(1)).withdraw(request);
+    }
+}
@@ -0,0 +1,249 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.BatchTransactionResultDto;
+import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountDailyUsageRepository;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.AppConstants;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedTransactionServiceTest {
+
+    @Mock
+    TransactionServiceImpl transactionServiceImpl;
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    AccountDailyUsageRepository accountDailyUsageRepository;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    BalanceCache balanceCache;
+
+    @Mock
+    Validator validator;
+
+    @Spy
+    LedgerMetrics ledgerMetrics = new LedgerMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    BusinessCalendar businessCalendar = new BusinessCalendar("");
+
+    @InjectMocks
+    ShardedTransactionService shardedTransactionService;
+
+    Account account;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shardedTransactionService, "shardCount", 2);
+        ReflectionTestUtils.setField(shardedTransactionService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(shardedTransactionService, "maxBatchSize", 16);
+        ReflectionTestUtils.setField(shardedTransactionService, "maxAccounts", 100);
+        shardedTransactionService.start();
+
+        account = Account.builder().id(1L).accountNumber("123456789").balance(BigDecimal.valueOf(100)).version(0L).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardedTransactionService.stop();
+    }
+
+    @Test
+    void shouldApplyDepositsFromMemoryAfterTheFirstLoad() {
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+
+        List<CompletableFuture<ResponseWrapper>> deposits = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            deposits.add(shardedTransactionService.depositAsync(new TransactionRequestDto("123456789", 10)));
+        }
+        deposits.forEach(deposit -> assertEquals(HttpStatus.OK.value(), deposit.join().getCode()));
+
+        ArgumentCaptor<BigDecimal> deltas = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(accountRepository, atLeastOnce()).adjustBalance(eq(1L), deltas.capture());
+        assertEquals(0, BigDecimal.valueOf(50).compareTo(deltas.getAllValues().stream().reduce(BigDecimal.ZERO, BigDecimal::add)));
+        verify(accountRepository, times(1)).findByAccountNumber("123456789");
+        verify(transactionRepository, atLeastOnce()).batchInsert(anyList());
+        verify(balanceCache, atLeastOnce()).put(eq("123456789"), any(BigDecimal.class), anyLong());
+    }
+
+    @Test
+    void shouldRejectWithdrawalAboveTheInMemoryBalance() {
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+
+        CompletableFuture<ResponseWrapper> withdrawal =
+                shardedTransactionService.withdrawAsync(new TransactionRequestDto("123456789", 150));
+
+        CompletionException exception = assertThrows(CompletionException.class, withdrawal::join);
+        assertInstanceOf(BadRequestException.class, exception.getCause());
+        assertEquals("Insufficient balance.", exception.getCause().getMessage());
+        verify(accountRepository, never()).adjustBalance(anyLong(), any(BigDecimal.class));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() {
+        lenient().when(accountRepository.findByAccountNumber("000000000")).thenReturn(Optional.empty());
+
+        ResponseWrapper response = shardedTransactionService.deposit(new TransactionRequestDto("000000000", 10));
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        assertEquals("Account not found", response.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldReloadAccountsAfterTransfer() {
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        when(transactionServiceImpl.transfer(any(TransferRequestDto.class))).thenReturn(ResponseWrapper.builder()
+                .code(HttpStatus.OK.value())
+                .message("Transfer successful")
+                .build());
+
+        shardedTransactionService.deposit(new TransactionRequestDto("123456789", 10));
+        ResponseWrapper transfer = shardedTransactionService.transfer(new TransferRequestDto("123456789", "987654321", 50));
+        shardedTransactionService.deposit(new TransactionRequestDto("123456789", 10));
+
+        assertEquals(HttpStatus.OK.value(), transfer.getCode());
+        verify(transactionServiceImpl, times(1)).transfer(any(TransferRequestDto.class));
+        //the paused shard dropped its copy of the account, so the second deposit reloaded it
+        verify(accountRepository, times(2)).findByAccountNumber("123456789");
+    }
+
+    @Test
+    void shouldRetryPostingsOneByOneWhenTheirBatchFails() {
+        //a single shard, so that both deposits queue up behind the transfer's pause and form one batch
+        shardedTransactionService.stop();
+        ReflectionTestUtils.setField(shardedTransactionService, "shardCount", 1);
+        shardedTransactionService.start();
+
+        Account other = Account.builder().id(2L).accountNumber("555555555").balance(BigDecimal.ZERO).version(0L).build();
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        lenient().when(accountRepository.findByAccountNumber("555555555")).thenReturn(Optional.of(other));
+        doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.stream().anyMatch(transaction -> transaction.getAccount().getId() == 2L)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(transactionRepository).batchInsert(anyList());
+
+        List<CompletableFuture<ResponseWrapper>> deposits = new ArrayList<>();
+        when(transactionServiceImpl.transfer(any(TransferRequestDto.class))).thenAnswer(invocation -> {
+            deposits.add(shardedTransactionService.depositAsync(new TransactionRequestDto("123456789", 10)));
+            deposits.add(shardedTransactionService.depositAsync(new TransactionRequestDto("555555555", 10)));
+            return ResponseWrapper.builder().code(HttpStatus.OK.value()).build();
+        });
+        shardedTransactionService.transfer(new TransferRequestDto("123456789", "987654321", 50));
+
+        assertEquals(HttpStatus.OK.value(), deposits.get(0).join().getCode());
+        CompletionException exception = assertThrows(CompletionException.class, deposits.get(1)::join);
+        assertInstanceOf(DataIntegrityViolationException.class, exception.getCause());
+        //the failed batch of two, then each posting on its own
+        verify(transactionRepository, times(3)).batchInsert(anyList());
+    }
+
+    @Test
+    void shouldAnswerForEveryBatchItemWhenOneFailsUnexpectedly() {
+        Account other = Account.builder().id(2L).accountNumber("555555555").balance(BigDecimal.ZERO).version(0L).build();
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        lenient().when(accountRepository.findByAccountNumber("555555555")).thenReturn(Optional.of(other));
+        doAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            if (transactions.stream().anyMatch(transaction -> transaction.getAccount().getId() == 2L)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(transactionRepository).batchInsert(anyList());
+
+        ResponseWrapper response = shardedTransactionService.postBatch(List.of(
+                new BatchTransactionItemDto("123456789", 10, TransactionType.DEPOSIT),
+                new BatchTransactionItemDto("555555555", 10, TransactionType.DEPOSIT)));
+
+        @SuppressWarnings("unchecked")
+        List<BatchTransactionResultDto> results = (List<BatchTransactionResultDto>) response.getData();
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals(HttpStatus.OK.value(), results.get(0).getCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), results.get(1).getCode());
+        assertEquals(AppConstants.ServerResponses.INTERNAL_SERVER_ERROR, results.get(1).getMessage());
+    }
+
+    @Test
+    void shouldReloadTheLeastRecentlyUsedAccountOnceEvicted() {
+        shardedTransactionService.stop();
+        ReflectionTestUtils.setField(shardedTransactionService, "shardCount", 1);
+        ReflectionTestUtils.setField(shardedTransactionService, "maxAccounts", 1);
+        shardedTransactionService.start();
+
+        Account other = Account.builder().id(2L).accountNumber("555555555").balance(BigDecimal.ZERO).version(0L).build();
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        lenient().when(accountRepository.findByAccountNumber("555555555")).thenReturn(Optional.of(other));
+
+        shardedTransactionService.deposit(new TransactionRequestDto("123456789", 10));
+        shardedTransactionService.deposit(new TransactionRequestDto("123456789", 10));
+        shardedTransactionService.deposit(new TransactionRequestDto("555555555", 10));
+        shardedTransactionService.deposit(new TransactionRequestDto("123456789", 10));
+
+        //the second account pushed the first one out, so its third deposit reloaded it
+        verify(accountRepository, times(2)).findByAccountNumber("123456789");
+        verify(accountRepository, times(1)).findByAccountNumber("555555555");
+    }
+
+    @Test
+    void shouldRejectANullBatchItem() {
+        lenient().when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+
+        ResponseWrapper response = shardedTransactionService.postBatch(Arrays.asList(
+                null, new BatchTransactionItemDto("123456789", 10, TransactionType.DEPOSIT)));
+
+        @SuppressWarnings("unchecked")
+        List<BatchTransactionResultDto> results = (List<BatchTransactionResultDto>) response.getData();
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getCode());
+        assertEquals("Please provide the transaction", results.get(0).getMessage());
+        assertEquals(HttpStatus.OK.value(), results.get(1).getCode());
+        verify(validator, never()).validate(isNull());
+    }
+}
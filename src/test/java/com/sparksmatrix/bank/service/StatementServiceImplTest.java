@@ -0,0 +1,134 @@
+package com.sparksmatrix.bank.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.enums.StatementFormat;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.EntityNotFoundException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementServiceImplTest {
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Spy
+    BusinessCalendar businessCalendar = new BusinessCalendar("");
+
+    @Mock
+    TransactionArchiveService transactionArchiveService;
+
+    @Spy
+    ReadRouting readRouting = new ReadRouting(mock(BalanceCache.class), Duration.ofSeconds(5));
+
+    @InjectMocks
+    StatementServiceImpl statementService;
+
+    LocalDate day = LocalDate.of(2025, 1, 27);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(statementService, "objectMapper",
+                new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        lenient().when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        lenient().when(transactionRepository.streamStatement(1L, day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(
+                        new TransactionHistoryItemDto(1L, TransactionType.DEPOSIT, new BigDecimal("500.00"), day.atTime(9, 0)),
+                        new TransactionHistoryItemDto(2L, TransactionType.WITHDRAWAL, new BigDecimal("20.50"), day.atTime(10, 30))));
+    }
+
+    private String export(StatementFormat format) throws Exception {
+        return new String(exportBytes(format), StandardCharsets.UTF_8);
+    }
+
+    private byte[] exportBytes(StatementFormat format) throws Exception {
+        StreamingResponseBody body = statementService.exportStatement("123456789", day, day, format);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        body.writeTo(output);
+        return output.toByteArray();
+    }
+
+    @Test
+    void shouldWriteCsvWithHeader() throws Exception {
+        assertEquals("id,type,amount,createdAt\n"
+                + "1,DEPOSIT,500.00,2025-01-27T09:00\n"
+                + "2,WITHDRAWAL,20.50,2025-01-27T10:30\n", export(StatementFormat.CSV));
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        String[] lines = export(StatementFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"type\":\"DEPOSIT\""));
+        assertTrue(lines[1].contains("\"amount\":20.50"));
+    }
+
+    @Test
+    void shouldWriteCborSequence() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        try (JsonParser parser = cborMapper.createParser(exportBytes(StatementFormat.CBOR))) {
+            List<JsonNode> rows = cborMapper.readValues(parser, JsonNode.class).readAll();
+
+            assertEquals(2, rows.size());
+            assertEquals("DEPOSIT", rows.get(0).get("type").asText());
+            assertEquals(0, new BigDecimal("20.50").compareTo(rows.get(1).get("amount").decimalValue()));
+            assertTrue(rows.get(1).get("createdAt").asText().startsWith("2025-01-27T10:30"));
+        }
+    }
+
+    @Test
+    void shouldFailBeforeStreamingForUnknownAccount() {
+        when(accountRepository.findByAccountNumber("999999")).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> statementService.exportStatement("999999", day, day, StatementFormat.CSV));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldReadInsideReadOnlyTransaction() throws Exception {
+        export(StatementFormat.CSV);
+
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()));
+    }
+}
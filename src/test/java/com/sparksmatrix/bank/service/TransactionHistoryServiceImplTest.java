@@ -0,0 +1,154 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.datasource.ReadRouting;
+import com.sparksmatrix.bank.dto.TransactionHistoryItemDto;
+import com.sparksmatrix.bank.dto.TransactionHistoryPageDto;
+import com.sparksmatrix.bank.enums.TransactionType;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import com.sparksmatrix.bank.utils.ResponseWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceImplTest {
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    TransactionArchiveService transactionArchiveService;
+
+    @Spy
+    ReadRouting readRouting = new ReadRouting(mock(BalanceCache.class), Duration.ofSeconds(5));
+
+    @InjectMocks
+    TransactionHistoryServiceImpl transactionHistoryService;
+
+    LocalDateTime now = LocalDateTime.of(2025, 1, 27, 18, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionHistoryService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(transactionHistoryService, "maxPageSize", 500);
+    }
+
+    private TransactionHistoryItemDto item(long id, LocalDateTime createdAt) {
+        return new TransactionHistoryItemDto(id, TransactionType.DEPOSIT, BigDecimal.TEN, createdAt);
+    }
+
+    @Test
+    void shouldReturnCursorThatSeeksPastTheLastRow() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(item(9L, now), item(8L, now.minusMinutes(1)), item(7L, now.minusMinutes(2))))
+                .thenReturn(List.of(item(7L, now.minusMinutes(2))));
+
+        ResponseWrapper first = transactionHistoryService.getTransactions("123456789", null, null, null, null, null);
+        TransactionHistoryPageDto firstPage = (TransactionHistoryPageDto) first.getData();
+
+        assertEquals(HttpStatus.OK.value(), first.getCode());
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        verify(transactionRepository).findHistoryPage(1L, TransactionHistoryServiceImpl.EARLIEST,
+                TransactionHistoryServiceImpl.LATEST, Long.MIN_VALUE, Limit.of(3));
+
+        ResponseWrapper second = transactionHistoryService.getTransactions("123456789", null, null, null,
+                firstPage.getNextCursor(), null);
+        TransactionHistoryPageDto secondPage = (TransactionHistoryPageDto) second.getData();
+
+        assertEquals(1, secondPage.getItems().size());
+        assertNull(secondPage.getNextCursor());
+        verify(transactionRepository).findHistoryPage(1L, TransactionHistoryServiceImpl.EARLIEST,
+                now.minusMinutes(1), 8L, Limit.of(3));
+    }
+
+    @Test
+    void shouldQueryBothTiersWhenPageReachesArchive() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(item(9L, now)));
+        when(transactionArchiveService.reachesArchive(TransactionHistoryServiceImpl.EARLIEST)).thenReturn(true);
+        when(transactionRepository.findTieredHistoryPage(1L, null, TransactionHistoryServiceImpl.EARLIEST,
+                TransactionHistoryServiceImpl.LATEST, Long.MIN_VALUE, 3))
+                .thenReturn(List.of(item(9L, now), item(3L, now.minusDays(200))));
+
+        TransactionHistoryPageDto page = (TransactionHistoryPageDto) transactionHistoryService
+                .getTransactions("123456789", null, null, null, null, null).getData();
+
+        assertEquals(List.of(9L, 3L), page.getItems().stream().map(TransactionHistoryItemDto::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldSkipArchiveWhenFullPageStopsShortOfIt() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(item(9L, now), item(8L, now.minusMinutes(1)), item(7L, now.minusMinutes(2))));
+
+        transactionHistoryService.getTransactions("123456789", null, null, null, null, null);
+
+        verify(transactionArchiveService).reachesArchive(now.minusMinutes(2));
+        verify(transactionRepository, never()).findTieredHistoryPage(anyLong(), any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void shouldUseTypeQueryWhenFilteringByType() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+
+        transactionHistoryService.getTransactions("123456789", TransactionType.WITHDRAWAL, now.minusDays(1), now, null, 10);
+
+        verify(transactionRepository).findHistoryPageByType(1L, TransactionType.WITHDRAWAL, now.minusDays(1), now,
+                Long.MIN_VALUE, Limit.of(11));
+        verify(transactionRepository, never()).findHistoryPage(anyLong(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownAccount() {
+        when(accountRepository.findByAccountNumber("999999")).thenReturn(Optional.empty());
+
+        ResponseWrapper response = transactionHistoryService.getTransactions("999999", null, null, null, null, null);
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        assertEquals("Account not found", response.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        when(accountRepository.findByAccountNumber("123456789"))
+                .thenReturn(Optional.of(Account.builder().id(1L).accountNumber("123456789").build()));
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> transactionHistoryService.getTransactions("123456789", null, null, null, "not-a-cursor", null));
+
+        assertEquals("Invalid cursor.", exception.getMessage());
+    }
+}
@@ -1,27 +1,46 @@
 package com.sparksmatrix.bank.service;
 
+import com.sparksmatrix.bank.cache.BalanceCache;
+import com.sparksmatrix.bank.dto.BatchTransactionItemDto;
+import com.sparksmatrix.bank.dto.BatchTransactionResultDto;
 import com.sparksmatrix.bank.dto.TransactionRequestDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.dto.TransferResponseDto;
+import com.sparksmatrix.bank.enums.LockingStrategy;
 import com.sparksmatrix.bank.enums.TransactionType;
 import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.metrics.LedgerMetrics;
 import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.model.AccountDailyUsage;
+import com.sparksmatrix.bank.model.AccountDailyUsageId;
 import com.sparksmatrix.bank.model.Transaction;
+import com.sparksmatrix.bank.repository.AccountDailyUsageRepository;
 import com.sparksmatrix.bank.repository.AccountRepository;
 import com.sparksmatrix.bank.repository.TransactionRepository;
 import com.sparksmatrix.bank.utils.ResponseWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +55,26 @@ class TransactionServiceImplTest {
     @Mock
     TransactionRepository transactionRepository;
 
+    @Mock
+    AccountDailyUsageRepository accountDailyUsageRepository;
+
+    @Spy
+    BusinessCalendar businessCalendar = new BusinessCalendar("");
+
+    @Mock
+    Validator validator;
+
+    @Mock
+    BalanceCache balanceCache;
+
+    @Mock
+    IdempotencyService idempotencyService;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    LedgerMetrics ledgerMetrics = new LedgerMetrics(meterRegistry);
+
     @InjectMocks
     TransactionServiceImpl transactionService;
 
@@ -50,6 +89,8 @@ class TransactionServiceImplTest {
         ReflectionTestUtils.setField(transactionService, "dailyWithdrawalMaxAmount", 50000);
         ReflectionTestUtils.setField(transactionService, "maxWithdrawalTransactionAmount", 20000);
         ReflectionTestUtils.setField(transactionService, "dailyMaxWithdrawalFrequency", 3);
+        ReflectionTestUtils.setField(transactionService, "lockingStrategy", LockingStrategy.OPTIMISTIC);
+        ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1000);
     }
 
     @Test
@@ -90,6 +131,10 @@ class TransactionServiceImplTest {
 
         assertEquals("You have exceeded the maximum deposit amount.", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
+        assertEquals(1.0, meterRegistry.get("ledger.rejections")
+                .tags("reason", "transaction_amount", "type", "deposit").counter().count());
+        assertEquals(1, meterRegistry.get("ledger.operation")
+                .tags("operation", "deposit", "outcome", "rejected").timer().count());
     }
 
     @Test
@@ -104,7 +149,8 @@ class TransactionServiceImplTest {
         account.setAccountNumber("123456789");
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.countTransactionForTodayByType(1L, TransactionType.DEPOSIT)).thenReturn(4);
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.DEPOSIT)))
+                .thenReturn(Optional.of(usage(TransactionType.DEPOSIT, 4, BigDecimal.ZERO)));
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -113,7 +159,7 @@ class TransactionServiceImplTest {
 
         assertEquals("You have reached the maximum number of transactions for today.", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).countTransactionForTodayByType(1L, TransactionType.DEPOSIT);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.DEPOSIT));
     }
 
     @Test
@@ -128,8 +174,8 @@ class TransactionServiceImplTest {
         account.setAccountNumber("123456789");
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.sumTransactionForTodayByType(1L, TransactionType.DEPOSIT))
-                .thenReturn(BigDecimal.valueOf(140000)); // Today's deposit sum
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.DEPOSIT)))
+                .thenReturn(Optional.of(usage(TransactionType.DEPOSIT, 0, BigDecimal.valueOf(140000)))); // Today's deposit sum
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -138,7 +184,7 @@ class TransactionServiceImplTest {
 
         assertEquals("You have exceeded the maximum daily deposit limit", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).sumTransactionForTodayByType(1L, TransactionType.DEPOSIT);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.DEPOSIT));
     }
 
     @Test
@@ -152,6 +198,7 @@ class TransactionServiceImplTest {
         account.setId(1L);
         account.setAccountNumber("123456789");
         account.setBalance(BigDecimal.valueOf(1000.0));
+        account.setVersion(0L);
 
         Transaction transaction = new Transaction();
         transaction.setId(1L);
@@ -160,11 +207,11 @@ class TransactionServiceImplTest {
         transaction.setType(TransactionType.DEPOSIT);
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.countTransactionForTodayByType(1L, TransactionType.DEPOSIT)).thenReturn(0);
-        when(transactionRepository.sumTransactionForTodayByType(1L, TransactionType.DEPOSIT))
-                .thenReturn(BigDecimal.valueOf(0.0));
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.DEPOSIT)))
+                .thenReturn(Optional.of(usage(TransactionType.DEPOSIT, 0, BigDecimal.valueOf(0.0))));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(accountRepository.save(any(Account.class))).thenReturn(account);
+        when(accountRepository.claimVersion(1L, 0L)).thenReturn(1);
+        when(accountRepository.creditBalance("123456789", new BigDecimal("100.00"))).thenReturn(1);
 
         // Act
         ResponseWrapper response = transactionService.deposit(request);
@@ -174,10 +221,19 @@ class TransactionServiceImplTest {
         assertEquals("Deposit successful", response.getMessage());
         assertNotNull(response.getData());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).countTransactionForTodayByType(1L, TransactionType.DEPOSIT);
-        verify(transactionRepository, times(1)).sumTransactionForTodayByType(1L, TransactionType.DEPOSIT);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.DEPOSIT));
+        verify(accountRepository, times(1)).creditBalance("123456789", new BigDecimal("100.00"));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
-        verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountDailyUsageRepository, times(1))
+                .incrementUsage(1L, LocalDate.now(), TransactionType.DEPOSIT, 1, new BigDecimal("100.00"));
+        // claimVersion and creditBalance each bumped the version
+        verify(balanceCache, times(1)).putAfterCommit("123456789", new BigDecimal("1100.00"), 2L);
+        assertEquals(1, meterRegistry.get("ledger.operation")
+                .tags("operation", "deposit", "outcome", "success").timer().count());
+        for (LedgerMetrics.Stage stage : List.of(LedgerMetrics.Stage.ACCOUNT_LOOKUP, LedgerMetrics.Stage.LIMIT_QUERY,
+                LedgerMetrics.Stage.BALANCE_UPDATE, LedgerMetrics.Stage.INSERT, LedgerMetrics.Stage.USAGE_UPDATE)) {
+            assertEquals(1, meterRegistry.get("ledger.stage").tag("stage", stage.name().toLowerCase()).timer().count());
+        }
     }
 
     @Test
@@ -214,7 +270,8 @@ class TransactionServiceImplTest {
         account.setAccountNumber("123456789");
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.countTransactionForTodayByType(1L, TransactionType.WITHDRAWAL)).thenReturn(3); // Exceeds frequency
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.WITHDRAWAL)))
+                .thenReturn(Optional.of(usage(TransactionType.WITHDRAWAL, 3, BigDecimal.ZERO))); // Exceeds frequency
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -223,7 +280,7 @@ class TransactionServiceImplTest {
 
         assertEquals("You have reached the maximum number of transactions for today.", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).countTransactionForTodayByType(1L, TransactionType.WITHDRAWAL);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.WITHDRAWAL));
     }
 
     @Test
@@ -238,8 +295,8 @@ class TransactionServiceImplTest {
         account.setAccountNumber("123456789");
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.sumTransactionForTodayByType(1L, TransactionType.WITHDRAWAL))
-                .thenReturn(BigDecimal.valueOf(45000.0)); // Today's withdrawal sum
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.WITHDRAWAL)))
+                .thenReturn(Optional.of(usage(TransactionType.WITHDRAWAL, 0, BigDecimal.valueOf(45000.0)))); // Today's withdrawal sum
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -248,7 +305,7 @@ class TransactionServiceImplTest {
 
         assertEquals("You have exceeded the maximum daily withdrawal limit", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).sumTransactionForTodayByType(1L, TransactionType.WITHDRAWAL);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.WITHDRAWAL));
     }
 
     @Test
@@ -262,11 +319,13 @@ class TransactionServiceImplTest {
         account.setId(1L);
         account.setAccountNumber("123456789");
         account.setBalance(BigDecimal.valueOf(500.0)); // Insufficient balance
+        account.setVersion(0L);
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.sumTransactionForTodayByType(1L, TransactionType.WITHDRAWAL))
-                .thenReturn(BigDecimal.valueOf(1000));
-        when(transactionRepository.countTransactionForTodayByType(1L, TransactionType.WITHDRAWAL)).thenReturn(1);
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.WITHDRAWAL)))
+                .thenReturn(Optional.of(usage(TransactionType.WITHDRAWAL, 1, BigDecimal.valueOf(1000))));
+        when(accountRepository.claimVersion(1L, 0L)).thenReturn(1);
+        when(accountRepository.debitBalance("123456789", new BigDecimal("1000.00"))).thenReturn(0);
 
         // Act & Assert
         BadRequestException exception = assertThrows(BadRequestException.class, () -> {
@@ -275,6 +334,9 @@ class TransactionServiceImplTest {
 
         assertEquals("Insufficient balance.", exception.getMessage());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
+        verify(accountRepository, times(1)).debitBalance("123456789", new BigDecimal("1000.00"));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(balanceCache, never()).putAfterCommit(anyString(), any(BigDecimal.class), anyLong());
     }
 
     @Test
@@ -288,6 +350,7 @@ class TransactionServiceImplTest {
         account.setId(1L);
         account.setAccountNumber("123456789");
         account.setBalance(BigDecimal.valueOf(1000.0));
+        account.setVersion(0L);
 
         Transaction transaction = new Transaction();
         transaction.setId(1L);
@@ -296,11 +359,11 @@ class TransactionServiceImplTest {
         transaction.setType(TransactionType.WITHDRAWAL);
 
         when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
-        when(transactionRepository.countTransactionForTodayByType(1L, TransactionType.WITHDRAWAL)).thenReturn(0);
-        when(transactionRepository.sumTransactionForTodayByType(1L, TransactionType.WITHDRAWAL))
-                .thenReturn(BigDecimal.valueOf(0.0));
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.WITHDRAWAL)))
+                .thenReturn(Optional.of(usage(TransactionType.WITHDRAWAL, 0, BigDecimal.valueOf(0.0))));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(accountRepository.save(any(Account.class))).thenReturn(account);
+        when(accountRepository.claimVersion(1L, 0L)).thenReturn(1);
+        when(accountRepository.debitBalance("123456789", new BigDecimal("100.00"))).thenReturn(1);
 
         // Act
         ResponseWrapper response = transactionService.withdraw(request);
@@ -310,9 +373,251 @@ class TransactionServiceImplTest {
         assertEquals("Withdrawal successful", response.getMessage());
         assertNotNull(response.getData());
         verify(accountRepository, times(1)).findByAccountNumber("123456789");
-        verify(transactionRepository, times(1)).countTransactionForTodayByType(1L, TransactionType.WITHDRAWAL);
-        verify(transactionRepository, times(1)).sumTransactionForTodayByType(1L, TransactionType.WITHDRAWAL);
+        verify(accountDailyUsageRepository, times(1)).findById(usageId(TransactionType.WITHDRAWAL));
+        verify(accountRepository, times(1)).debitBalance("123456789", new BigDecimal("100.00"));
         verify(transactionRepository, times(1)).save(any(Transaction.class));
-        verify(accountRepository, times(1)).save(any(Account.class));
+        verify(accountDailyUsageRepository, times(1))
+                .incrementUsage(1L, LocalDate.now(), TransactionType.WITHDRAWAL, 1, new BigDecimal("100.00"));
+        verify(idempotencyService, never()).record(anyString(), anyString(), any(ResponseWrapper.class));
+    }
+
+    @Test
+    public void testDeposit_RecordsIdempotencyKey() {
+        // Arrange
+        TransactionRequestDto request = new TransactionRequestDto("123456789", 100);
+        request.setIdempotencyKey("retry-1");
+
+        Account account = Account.builder().id(1L).accountNumber("123456789").balance(BigDecimal.valueOf(1000)).version(0L).build();
+
+        when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.claimVersion(1L, 0L)).thenReturn(1);
+        when(accountRepository.creditBalance("123456789", new BigDecimal("100.00"))).thenReturn(1);
+
+        // Act
+        ResponseWrapper response = transactionService.deposit(request);
+
+        // Assert
+        verify(idempotencyService, times(1)).record("retry-1", "DEPOSIT:123456789:100", response);
+    }
+
+    @Test
+    public void testDeposit_OptimisticLockConflict() {
+        // Arrange
+        TransactionRequestDto request = new TransactionRequestDto();
+        request.setAccountNumber("123456789");
+        request.setAmount(100);
+
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("123456789");
+        account.setBalance(BigDecimal.valueOf(1000.0));
+        account.setVersion(3L);
+
+        when(accountRepository.findByAccountNumber("123456789")).thenReturn(Optional.of(account));
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.DEPOSIT)))
+                .thenReturn(Optional.empty());
+        when(accountRepository.claimVersion(1L, 3L)).thenReturn(0); // Another writer got there first
+
+        // Act & Assert
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transactionService.deposit(request));
+
+        verify(accountRepository, never()).creditBalance(anyString(), any(BigDecimal.class));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testDeposit_PessimisticLockingLocksAccount() {
+        // Arrange
+        ReflectionTestUtils.setField(transactionService, "lockingStrategy", LockingStrategy.PESSIMISTIC);
+
+        TransactionRequestDto request = new TransactionRequestDto();
+        request.setAccountNumber("123456789");
+        request.setAmount(100);
+
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber("123456789");
+        account.setBalance(BigDecimal.valueOf(1000.0));
+        account.setVersion(0L);
+
+        when(accountRepository.findByAccountNumberForUpdate("123456789")).thenReturn(Optional.of(account));
+        when(accountDailyUsageRepository.findById(usageId(TransactionType.DEPOSIT)))
+                .thenReturn(Optional.empty());
+        when(accountRepository.creditBalance("123456789", new BigDecimal("100.00"))).thenReturn(1);
+
+        // Act
+        ResponseWrapper response = transactionService.deposit(request);
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        verify(accountRepository, times(1)).findByAccountNumberForUpdate("123456789");
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        verify(accountRepository, never()).claimVersion(anyLong(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPostBatch_AppliesItemsInInputOrderPerAccount() {
+        // Arrange
+        Account first = Account.builder().id(1L).accountNumber("111").balance(BigDecimal.valueOf(100)).version(0L).build();
+        Account second = Account.builder().id(2L).accountNumber("222").balance(BigDecimal.ZERO).version(0L).build();
+
+        List<BatchTransactionItemDto> items = List.of(
+                new BatchTransactionItemDto("111", 50, TransactionType.DEPOSIT),
+                new BatchTransactionItemDto("111", 200, TransactionType.WITHDRAWAL), // Only 150 available
+                new BatchTransactionItemDto("111", 150, TransactionType.WITHDRAWAL),
+                new BatchTransactionItemDto("999", 100, TransactionType.DEPOSIT), // Unknown account
+                new BatchTransactionItemDto("222", 50000, TransactionType.DEPOSIT)); // Exceeds max deposit amount
+
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(second, first));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(first));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(second));
+
+        // Act
+        ResponseWrapper response = transactionService.postBatch(items);
+
+        // Assert
+        List<BatchTransactionResultDto> results = (List<BatchTransactionResultDto>) response.getData();
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals(5, results.size());
+        assertEquals(HttpStatus.OK.value(), results.get(0).getCode());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(1).getCode());
+        assertEquals("Insufficient balance.", results.get(1).getMessage());
+        assertEquals(HttpStatus.OK.value(), results.get(2).getCode());
+        assertEquals(HttpStatus.NOT_FOUND.value(), results.get(3).getCode());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(4).getCode());
+        assertEquals("You have exceeded the maximum deposit amount.", results.get(4).getMessage());
+
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).batchInsert(inserted.capture());
+        assertEquals(2, inserted.getValue().size());
+        verify(accountRepository, times(1)).adjustBalance(1L, new BigDecimal("-100.00"));
+        verify(accountRepository, never()).adjustBalance(eq(2L), any(BigDecimal.class));
+        verify(accountDailyUsageRepository, times(1))
+                .incrementUsage(1L, LocalDate.now(), TransactionType.DEPOSIT, 1, new BigDecimal("50.00"));
+        verify(accountDailyUsageRepository, times(1))
+                .incrementUsage(1L, LocalDate.now(), TransactionType.WITHDRAWAL, 1, new BigDecimal("150.00"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPostBatch_RejectsNullItem() {
+        // Arrange
+        Account first = Account.builder().id(1L).accountNumber("111").balance(BigDecimal.valueOf(100)).version(0L).build();
+        List<BatchTransactionItemDto> items = Arrays.asList(
+                null,
+                new BatchTransactionItemDto("111", 50, TransactionType.DEPOSIT));
+
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(first));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(first));
+
+        // Act
+        ResponseWrapper response = transactionService.postBatch(items);
+
+        // Assert
+        List<BatchTransactionResultDto> results = (List<BatchTransactionResultDto>) response.getData();
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals(HttpStatus.BAD_REQUEST.value(), results.get(0).getCode());
+        assertEquals("Please provide the transaction", results.get(0).getMessage());
+        assertEquals(0, results.get(0).getIndex());
+        assertEquals(HttpStatus.OK.value(), results.get(1).getCode());
+    }
+
+    @Test
+    public void testPostBatch_Empty() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> transactionService.postBatch(List.of()));
+
+        assertEquals("Please provide at least one transaction.", exception.getMessage());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTransfer_LocksAccountsInIdOrder() {
+        // Arrange
+        Account source = Account.builder().id(2L).accountNumber("222").balance(BigDecimal.valueOf(500)).version(3L).build();
+        Account destination = Account.builder().id(1L).accountNumber("111").balance(BigDecimal.ZERO).version(0L).build();
+
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(source, destination));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(destination));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(source));
+
+        // Act
+        ResponseWrapper response = transactionService.transfer(new TransferRequestDto("222", "111", 200));
+
+        // Assert
+        assertEquals(HttpStatus.OK.value(), response.getCode());
+        assertEquals("Transfer successful", response.getMessage());
+
+        InOrder lockOrder = inOrder(accountRepository);
+        lockOrder.verify(accountRepository).findByIdForUpdate(1L);
+        lockOrder.verify(accountRepository).findByIdForUpdate(2L);
+        verify(accountRepository, times(1)).adjustBalance(2L, new BigDecimal("-200.00"));
+        verify(accountRepository, times(1)).adjustBalance(1L, new BigDecimal("200.00"));
+        verify(balanceCache, times(1)).putAfterCommit("222", new BigDecimal("300.00"), 4L);
+        verify(balanceCache, times(1)).putAfterCommit("111", new BigDecimal("200.00"), 1L);
+
+        ArgumentCaptor<List<Transaction>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).batchInsert(inserted.capture());
+        List<Transaction> legs = inserted.getValue();
+        assertEquals(TransactionType.WITHDRAWAL, legs.get(0).getType());
+        assertEquals(TransactionType.DEPOSIT, legs.get(1).getType());
+        assertNotNull(legs.get(0).getTransferReference());
+        assertEquals(legs.get(0).getTransferReference(), legs.get(1).getTransferReference());
+        assertEquals(legs.get(0).getTransferReference(), ((TransferResponseDto) response.getData()).getTransferReference());
+    }
+
+    @Test
+    public void testTransfer_InsufficientBalance() {
+        // Arrange
+        Account source = Account.builder().id(1L).accountNumber("111").balance(BigDecimal.valueOf(100)).version(0L).build();
+        Account destination = Account.builder().id(2L).accountNumber("222").balance(BigDecimal.ZERO).version(0L).build();
+
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(source, destination));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(source));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(destination));
+
+        // Act
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> transactionService.transfer(new TransferRequestDto("111", "222", 200)));
+
+        // Assert
+        assertEquals("Insufficient balance.", exception.getMessage());
+        verify(accountRepository, never()).adjustBalance(anyLong(), any(BigDecimal.class));
+        verify(transactionRepository, never()).batchInsert(anyList());
+    }
+
+    @Test
+    public void testTransfer_AccountNotFound() {
+        Account source = Account.builder().id(1L).accountNumber("111").balance(BigDecimal.valueOf(100)).version(0L).build();
+        when(accountRepository.findByAccountNumberIn(anyCollection())).thenReturn(List.of(source));
+
+        ResponseWrapper response = transactionService.transfer(new TransferRequestDto("111", "999", 50));
+
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getCode());
+        verify(accountRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    public void testTransfer_SameAccount() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> transactionService.transfer(new TransferRequestDto("111", "111", 50)));
+
+        assertEquals("Cannot transfer to the same account.", exception.getMessage());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    private AccountDailyUsageId usageId(TransactionType transactionType) {
+        return new AccountDailyUsageId(1L, LocalDate.now(), transactionType);
+    }
+
+    private AccountDailyUsage usage(TransactionType transactionType, int count, BigDecimal sum) {
+        return AccountDailyUsage.builder()
+                .id(usageId(transactionType))
+                .transactionCount(count)
+                .transactionSum(sum)
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.sparksmatrix.bank.service;
+
+import com.sparksmatrix.bank.dto.AccountCreateDto;
+import com.sparksmatrix.bank.dto.LedgerDeltaDto;
+import com.sparksmatrix.bank.dto.TransferRequestDto;
+import com.sparksmatrix.bank.error.exception.BadRequestException;
+import com.sparksmatrix.bank.model.Account;
+import com.sparksmatrix.bank.repository.AccountRepository;
+import com.sparksmatrix.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Thousands of random transfers between a handful of accounts from many threads, so that opposite
+ * transfers between the same pair overlap constantly. Every transfer must either succeed or be
+ * rejected for insufficient balance, and no money may appear or disappear.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfer-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "deposit.daily-max-amount=2147483647",
+        "deposit.daily-max-frequency=2147483647",
+        "withdrawal.daily-max-amount=2147483647",
+        "withdrawal.daily-max-frequency=2147483647",
+        "account.retry.max-attempts=100"
+})
+class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int THREADS = 16;
+    private static final int TRANSFERS = 4000;
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(10_000);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldConserveTotalBalanceUnderConcurrentOpposingTransfers() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String accountNumber = String.format("0003%08d", i);
+            accountService.createAccount(new AccountCreateDto("Transfer " + i, accountNumber));
+            transactionTemplate.executeWithoutResult(
+                    status -> accountRepository.creditBalance(accountNumber, OPENING_BALANCE));
+            accountNumbers.add(accountNumber);
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger insufficient = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int from = random.nextInt(ACCOUNTS);
+                int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                try {
+                    var response = transactionService.transfer(new TransferRequestDto(
+                            accountNumbers.get(from), accountNumbers.get(to), 1 + random.nextInt(500)));
+                    assertEquals(HttpStatus.OK.value(), response.getCode());
+                    succeeded.incrementAndGet();
+                } catch (BadRequestException ex) {
+                    assertEquals("Insufficient balance.", ex.getMessage());
+                    insufficient.incrementAndGet();
+                }
+            }));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES), "transfers did not finish; likely deadlocked");
+        for (Future<?> future : futures) {
+            //rethrows any deadlock, lock timeout or assertion failure from the worker
+            future.get();
+        }
+
+        assertEquals(TRANSFERS, succeeded.get() + insufficient.get());
+        assertTrue(succeeded.get() > 0);
+
+        List<Account> accounts = accountRepository.findByAccountNumberIn(accountNumbers);
+        BigDecimal total = accounts.stream().map(Account::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+
+        //every balance matches the transactions written for it
+        for (Account account : accounts) {
+            LedgerDeltaDto ledger = transactionRepository.sumLedgerDelta(account.getId(),
+                    LocalDateTime.of(1900, 1, 1, 0, 0), Long.MIN_VALUE, LocalDateTime.now().plusDays(1));
+            assertEquals(0, OPENING_BALANCE.add(ledger.getAmount()).compareTo(account.getBalance()));
+            assertTrue(account.getBalance().signum() >= 0);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sparksmatrix.bank.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void shouldRoundTripDatabaseAmounts() {
+        assertEquals(new Money(123456), Money.of(new BigDecimal("1234.56")));
+        assertEquals(new Money(100000), Money.of(BigDecimal.valueOf(1000.0)));
+        assertEquals(new BigDecimal("1234.56"), new Money(123456).toDecimal());
+        assertEquals(new BigDecimal("-5.00"), Money.ofMajor(-5).toDecimal());
+    }
+
+    @Test
+    void shouldRejectAmountsFinerThanACent() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void shouldFailInsteadOfOverflowing() {
+        Money max = new Money(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).minus(new Money(1)));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).negate());
+        assertThrows(ArithmeticException.class, () -> Money.ofMajor(Long.MAX_VALUE / 10));
+    }
+
+    @Test
+    void shouldCompareByMinorUnits() {
+        Money balance = Money.ofMajor(100).minus(new Money(1));
+
+        assertTrue(balance.isLessThan(Money.ofMajor(100)));
+        assertFalse(Money.ofMajor(100).isLessThan(Money.ofMajor(100)));
+        assertEquals("99.99", balance.toString());
+        assertEquals(0, Money.ofMajor(50).compareTo(Money.of(new BigDecimal("50.00"))));
+    }
+}